@@ -0,0 +1,88 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark for finding the classes referenced by an output directory of class files.
+ *
+ * <p>The directory is filled with copies of the class files of this plugin, spread over packages
+ * of 100 classes each.
+ *
+ * @see ClassFileScanner#scan(Path)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClassFileScannerBenchmark {
+
+  @Param({"1000", "10000", "30000"})
+  int classes;
+
+  private Path directory;
+
+  private ByteBuffer classFile;
+
+  private final ClassFileScanner scanner = new ClassFileScanner();
+
+  @Setup
+  public void setup() throws IOException, URISyntaxException {
+    var source =
+        Path.of(PluginContext.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+            .resolve("dev/buijs/maven/plugin/explicit/dependencies");
+    var templates = new ArrayList<Path>();
+    try (var stream = Files.list(source)) {
+      stream.filter(file -> file.toString().endsWith(".class")).forEach(templates::add);
+    }
+
+    directory = Files.createTempDirectory("benchmark");
+    for (var index = 0; index < classes; index++) {
+      var target = directory.resolve("p" + index / 100).resolve("C" + index + ".class");
+      Files.createDirectories(target.getParent());
+      Files.copy(templates.get(index % templates.size()), target);
+    }
+    classFile = ByteBuffer.wrap(Files.readAllBytes(source.resolve("PluginContext.class")));
+  }
+
+  @Benchmark
+  public Set<String> scanDirectory() throws PluginException {
+    return scanner.scan(directory);
+  }
+
+  @Benchmark
+  public Set<String> parseConstantPool() {
+    var names = new HashSet<String>();
+    ClassFileScanner.scan(classFile.duplicate(), names);
+    return names;
+  }
+}
@@ -0,0 +1,104 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark for finding the missing explicit dependencies, where a percentage of the dependencies
+ * in the tree is not declared explicitly. The report is disabled, so only the analysis is
+ * measured.
+ *
+ * <p>The legacy benchmark filters the implicit records against a set of explicit records, which
+ * is how the plugin analyzed a module before dependencies were pooled. The ids benchmark compares
+ * the same dependencies by their ids in the session pool, which is how the plugin analyzes a
+ * module. It only sorts the missing dependencies, so it is fastest when most dependencies are
+ * explicit.
+ *
+ * @see DependencyAnalyzer#getMissingExplicitDependencies(BitSet, BitSet)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DependencyAnalyzerBenchmark {
+
+  @Param({"100", "1000", "10000", "100000"})
+  int nodes;
+
+  @Param({"5", "50"})
+  int missingPercent;
+
+  private DependencyAnalyzer analyzer;
+
+  private Set<DependencyRecord> explicitDependencies;
+
+  private Set<DependencyRecord> implicitDependencies;
+
+  private BitSet explicitIds;
+
+  private BitSet implicitIds;
+
+  @Setup
+  public void setup() throws Exception {
+    var pool = new DependencyRecordPool();
+    var visitor = new DependencyGraphNodeVisitor(pool, false);
+    SyntheticDependencyGraphBuilder.generate(nodes, 42).accept(visitor);
+    var graph = visitor.toGraph();
+    implicitDependencies = graph.getDependencies();
+    implicitIds = graph.getDependencyIds();
+
+    // Use copies, so lookups can not short-circuit on identity.
+    explicitDependencies = new LinkedHashSet<>();
+    var index = 0;
+    for (var record : implicitDependencies) {
+      if (index++ % 100 >= missingPercent) {
+        explicitDependencies.add(
+            new DependencyRecord(record.groupId(), record.artifactId(), record.version()));
+      }
+    }
+
+    var configuration = new PluginConfiguration().disabledReports(List.of("dependenciesMissing"));
+    var directory = Files.createTempDirectory("benchmark");
+    explicitIds = pool.ids(explicitDependencies);
+    analyzer = new DependencyAnalyzer(new DependencyWriter(directory, configuration), null, pool);
+  }
+
+  @Benchmark
+  public Set<DependencyRecord> analyze() {
+    return implicitDependencies.stream()
+        .filter(dependency -> !explicitDependencies.contains(dependency))
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
+  @Benchmark
+  public Set<DependencyRecord> analyzeIds() throws PluginException {
+    return analyzer.getMissingExplicitDependencies(explicitIds, implicitIds);
+  }
+}
@@ -0,0 +1,81 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark for traversing a resolved dependency-tree and collecting the sorted dependencies, as
+ * done by the DependencyTreeCollector.
+ *
+ * <p>The legacy benchmark collects a record for every node with the DependencyTreeNodeVisitor and
+ * sorts them into a LinkedHashSet, which was used before the tree was converted into a
+ * DependencyGraph.
+ *
+ * @see DependencyTreeCollector#getDependencyGraph()
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DependencyGraphBenchmark {
+
+  @Param({"100", "1000", "10000", "100000"})
+  int nodes;
+
+  private DependencyNode root;
+
+  @Setup
+  public void setup() {
+    root = SyntheticDependencyGraphBuilder.generate(nodes, 42);
+  }
+
+  @Benchmark
+  public Set<DependencyRecord> graph() {
+    var visitor = new DependencyGraphNodeVisitor(new DependencyRecordPool(), false);
+    root.accept(visitor);
+    return visitor.toGraph().getDependencies();
+  }
+
+  @Benchmark
+  public Set<DependencyRecord> graphPruned() {
+    var visitor = new DependencyGraphNodeVisitor(new DependencyRecordPool(), true);
+    root.accept(visitor);
+    return visitor.toGraph().getDependencies();
+  }
+
+  @Benchmark
+  public Set<DependencyRecord> legacy() {
+    var collection = new ArrayList<DependencyRecord>();
+    root.accept(new DependencyTreeNodeVisitor(collection, new DependencyRecordConverter()));
+    var records =
+        collection.stream().sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+    records.remove(new DependencyRecordConverter().convert(root.getArtifact()));
+    return records;
+  }
+}
@@ -0,0 +1,139 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark for sorting DependencyRecord's as done when collecting the dependency-tree.
+ *
+ * <p>The legacy benchmark sorts with the regex based version comparison which was used before the
+ * versions were pre-parsed, so both approaches can be compared on the same input.
+ *
+ * @see DependencyRecord#compareTo(DependencyRecord)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DependencyRecordBenchmark {
+
+  private static final Pattern SEMANTIC_VERSION_PATTERN =
+      Pattern.compile("^(?<version>\\d+\\.\\d+.\\d+)(?<suffix>.*)$");
+
+  private static final Comparator<DependencyRecord> LEGACY_COMPARATOR =
+      Comparator.comparing(DependencyRecord::groupId)
+          .thenComparing(DependencyRecord::artifactId)
+          .thenComparing(DependencyRecord::version, DependencyRecordBenchmark::compareByVersion);
+
+  @Param({"100", "1000", "10000", "100000"})
+  int records;
+
+  private DependencyRecord[] input;
+
+  @Setup
+  public void setup() {
+    input = generate(records, new Random(42));
+  }
+
+  @Benchmark
+  public DependencyRecord[] sort() {
+    var copy = input.clone();
+    Arrays.sort(copy);
+    return copy;
+  }
+
+  @Benchmark
+  public int compareTo() {
+    var result = 0;
+    for (var index = 1; index < input.length; index++) {
+      result += input[index - 1].compareTo(input[index]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public DependencyRecord[] sortLegacy() {
+    var copy = input.clone();
+    Arrays.sort(copy, LEGACY_COMPARATOR);
+    return copy;
+  }
+
+  /**
+   * Generate records where every artifact exists in multiple versions, so most comparisons end up
+   * comparing versions.
+   */
+  static DependencyRecord[] generate(int count, Random random) {
+    var qualifiers = new String[] {"", "", "", "-SNAPSHOT", "-RC1", "-RC2", ".Final", "-jre"};
+    var result = new DependencyRecord[count];
+    for (var index = 0; index < count; index++) {
+      var group = "com.example.group" + random.nextInt(Math.max(1, count / 500));
+      var artifact = "artifact-" + random.nextInt(50);
+      var version =
+          random.nextInt(5)
+              + "."
+              + random.nextInt(20)
+              + "."
+              + random.nextInt(30)
+              + qualifiers[random.nextInt(qualifiers.length)];
+      result[index] = new DependencyRecord(group, artifact, version);
+    }
+    return result;
+  }
+
+  /** The version comparison as implemented before versions were pre-parsed. */
+  private static int compareByVersion(String thisVersion, String otherVersion) {
+    var thisVersionMatcher = SEMANTIC_VERSION_PATTERN.matcher(thisVersion);
+    if (!thisVersionMatcher.find()) {
+      return thisVersion.compareTo(otherVersion);
+    }
+
+    var otherVersionMatcher = SEMANTIC_VERSION_PATTERN.matcher(otherVersion);
+    if (!otherVersionMatcher.find()) {
+      return thisVersion.compareTo(otherVersion);
+    }
+
+    var thisVersionWithoutSuffix = thisVersionMatcher.group("version");
+    var otherVersionWithoutSuffix = otherVersionMatcher.group("version");
+    var versionComparison = otherVersionWithoutSuffix.compareTo(thisVersionWithoutSuffix);
+    if (versionComparison != 0) {
+      return versionComparison;
+    }
+
+    var thisSuffix = thisVersionMatcher.group("suffix");
+    if (thisSuffix.isEmpty()) {
+      return otherVersion.compareTo(thisVersionWithoutSuffix);
+    }
+
+    var otherSuffix = otherVersionMatcher.group("suffix");
+    if (otherSuffix.isEmpty()) {
+      return thisVersion.compareTo(otherVersionWithoutSuffix);
+    }
+
+    return otherSuffix.compareTo(thisSuffix);
+  }
+}
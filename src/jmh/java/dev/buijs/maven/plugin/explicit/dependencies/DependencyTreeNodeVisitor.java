@@ -25,6 +25,12 @@ import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * Visitor which collects a record for every node of the dependency-tree, which is how the
+ * dependency-tree was collected before it was converted into a {@link DependencyGraph}.
+ *
+ * @see DependencyGraphBenchmark#legacy()
+ */
 class DependencyTreeNodeVisitor implements DependencyNodeVisitor {
 
   @NotNull private final List<DependencyRecord> collection;
@@ -0,0 +1,80 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark for storing the dependencies of a tree as JSON.
+ *
+ * <p>The legacy benchmark builds the whole document with Collection#toString before writing it,
+ * which was used before records were streamed to the file.
+ *
+ * @see DependencyWriter#writeNewFile(String, java.util.Collection)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DependencyWriterBenchmark {
+
+  @Param({"100", "1000", "10000", "100000"})
+  int nodes;
+
+  private Path directory;
+
+  private Set<DependencyRecord> records;
+
+  private DependencyWriter writer;
+
+  private DependencyWriter gzipWriter;
+
+  @Setup
+  public void setup() throws IOException {
+    var visitor = new DependencyGraphNodeVisitor();
+    SyntheticDependencyGraphBuilder.generate(nodes, 42).accept(visitor);
+    records = visitor.toGraph().getDependencies();
+    directory = Files.createTempDirectory("benchmark");
+    writer = new DependencyWriter(directory);
+    gzipWriter = new DependencyWriter(directory, true);
+  }
+
+  @Benchmark
+  public void stream() throws PluginException {
+    writer.writeNewFile("dependencies.json", records);
+  }
+
+  @Benchmark
+  public void streamGzip() throws PluginException {
+    gzipWriter.writeNewFile("dependencies.json", records);
+  }
+
+  @Benchmark
+  public void legacy() throws IOException {
+    Files.writeString(directory.resolve("legacy.json"), records.toString());
+  }
+}
@@ -0,0 +1,221 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.File;
+import java.util.List;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The parameters which configure the analysis of a module, shared by all goals. A goal ignores the
+ * parameters which do not apply to it, e.g. the replay goal never resolves a dependency-tree so it
+ * does not use the graph cache.
+ *
+ * @see AbstractPluginMojo#configuration()
+ */
+public abstract class AbstractPluginMojo extends AbstractMojo {
+
+  @Parameter(defaultValue = "${session}", readonly = true)
+  MavenSession session;
+
+  @Parameter(defaultValue = "${project}", required = true, readonly = true)
+  MavenProject project;
+
+  /** Fail the build when dependencies are missing, or only log them when false. */
+  @Parameter(property = "force", defaultValue = "true")
+  boolean force;
+
+  /**
+   * Reuse the verdict of the previous run when the dependencies, dependencyManagement, parent chain
+   * and plugin configuration did not change.
+   */
+  @Parameter(property = "incremental", defaultValue = "false")
+  boolean incremental;
+
+  /** Always run the full analysis, even when {@link AbstractPluginMojo#incremental} is enabled. */
+  @Parameter(property = "forceFullRun", defaultValue = "false")
+  boolean forceFullRun;
+
+  /** Compress all log files with gzip, which adds the .gz extension to every file. */
+  @Parameter(property = "gzip", defaultValue = "false")
+  boolean gzip;
+
+  /**
+   * The names of the reports which are not written, e.g. dependencyTree,dependencies. The verdict
+   * is not affected. Disabling dependenciesMissing also disables reusing it in incremental mode.
+   */
+  @Parameter(property = "disabledReports")
+  List<String> disabledReports;
+
+  /**
+   * Walk the subtree of every dependency only once while building the dependency graph. The
+   * verdict is the same unless a dependency is excluded on some paths only. Most effective when
+   * the dependencyTree report is disabled, because that report needs the complete tree.
+   */
+  @Parameter(property = "pruneDuplicateSubtrees", defaultValue = "false")
+  boolean pruneDuplicateSubtrees;
+
+  /**
+   * Reuse dependency graphs which were resolved by a previous build with the same dependencies,
+   * parent chain, active profiles and plugin configuration. Graphs with SNAPSHOT dependencies,
+   * version ranges or other modules of the reactor are never cached.
+   */
+  @Parameter(property = "graphCache", defaultValue = "false")
+  boolean graphCache;
+
+  /** The directory of the graph cache, which can be shared by all builds on a machine. */
+  @Parameter(
+      property = "graphCacheDirectory",
+      defaultValue = "${user.home}/.m2/explicit-dependencies/graphs")
+  File graphCacheDirectory;
+
+  /** The maximum size of the graph cache in megabytes, least recently used graphs are deleted. */
+  @Parameter(property = "graphCacheMaxSize", defaultValue = "256")
+  long graphCacheMaxSize;
+
+  /**
+   * Keep dependency graphs (and verdicts in incremental mode) in memory across builds in the same
+   * JVM, which makes repeated builds in a Maven daemon (mvnd) almost free. Entries are keyed by
+   * the fingerprint of the module and are released under memory pressure.
+   */
+  @Parameter(property = "warmCache", defaultValue = "false")
+  boolean warmCache;
+
+  /** The maximum number of modules in the warm cache. */
+  @Parameter(property = "warmCacheMaxEntries", defaultValue = "1000")
+  int warmCacheMaxEntries;
+
+  /** The maximum estimated size of the warm cache in megabytes. */
+  @Parameter(property = "warmCacheMaxSize", defaultValue = "64")
+  long warmCacheMaxSize;
+
+  /**
+   * Also write the dependency graph as binary snapshot (dependencyGraph.graph), which the replay
+   * goal can verify a changed pom against without resolving the dependency-tree.
+   */
+  @Parameter(property = "graphSnapshot", defaultValue = "false")
+  boolean graphSnapshot;
+
+  /**
+   * The baseline of accepted missing dependencies, relative to the base directory of the module.
+   * Only missing dependencies which are not in the baseline count towards the verdict. Ignored
+   * when the file does not exist.
+   */
+  @Parameter(property = "baseline", defaultValue = "explicit-dependencies-baseline.json")
+  String baseline;
+
+  /** Replace the baseline with all currently missing dependencies instead of failing on them. */
+  @Parameter(property = "updateBaseline", defaultValue = "false")
+  boolean updateBaseline;
+
+  /**
+   * Only fail on missing dependencies which contain a class that is referenced by the compiled
+   * classes (target/classes), or by the compiled test classes for test dependencies. The constant
+   * pools of all class files are scanned in parallel and the jars of the missing dependencies are
+   * looked up in the local repository.
+   */
+  @Parameter(property = "bytecodeScan", defaultValue = "false")
+  boolean bytecodeScan;
+
+  /**
+   * Use a persistent index of the classes in the local repository jars for the bytecode scan, so
+   * a jar is only listed again when it changed.
+   */
+  @Parameter(property = "classIndex", defaultValue = "true")
+  boolean classIndex;
+
+  /** The directory of the class index, which can be shared by all builds on a machine. */
+  @Parameter(
+      property = "classIndexDirectory",
+      defaultValue = "${user.home}/.m2/explicit-dependencies/classes")
+  File classIndexDirectory;
+
+  /**
+   * The scopes of which the missing dependencies fail the build, e.g. compile,runtime. Defaults to
+   * all scopes. When the dependency-tree has more than one scope, the missing dependencies of
+   * every scope are reported regardless in dependenciesMissingCompile.json,
+   * dependenciesMissingTest.json and so on.
+   */
+  @Parameter(property = "scopes")
+  List<String> scopes;
+
+  /**
+   * Only build the dependency-tree with artifacts matching one of these patterns, e.g.
+   * org.example*. A pattern is groupId[:artifactId[:version]] where every part is literal, * or a
+   * prefix followed by *. Defaults to all artifacts.
+   */
+  @Parameter(property = "artifactIncludes")
+  List<String> artifactIncludes;
+
+  /**
+   * Prune artifacts matching one of these patterns (and their transitive dependencies) while the
+   * dependency-tree is built, e.g. a trusted platform like org.springframework*. Patterns without
+   * a version are pruned before they are resolved, patterns with a version only afterwards.
+   */
+  @Parameter(property = "artifactExcludes")
+  List<String> artifactExcludes;
+
+  /** Prune the artifacts of these scopes while the dependency-tree is built, e.g. provided. */
+  @Parameter(property = "excludeScopes")
+  List<String> excludeScopes;
+
+  /** Prune optional artifacts while the dependency-tree is built. */
+  @Parameter(property = "excludeOptional", defaultValue = "false")
+  boolean excludeOptional;
+
+  /**
+   * Get the configuration of the analysis from the parameters of this goal.
+   *
+   * @return PluginConfiguration which is a new instance.
+   * @throws PluginException when a parameter is invalid, like an unknown scope.
+   */
+  @NotNull
+  PluginConfiguration configuration() throws PluginException {
+    return new PluginConfiguration()
+        .force(force)
+        .incremental(incremental)
+        .forceFullRun(forceFullRun)
+        .gzip(gzip)
+        .disabledReports(disabledReports)
+        .pruneDuplicateSubtrees(pruneDuplicateSubtrees)
+        .graphCache(graphCache)
+        .graphCacheDirectory(graphCacheDirectory == null ? null : graphCacheDirectory.toPath())
+        .graphCacheMaxSize(graphCacheMaxSize)
+        .warmCache(warmCache)
+        .warmCacheMaxEntries(warmCacheMaxEntries)
+        .warmCacheMaxSize(warmCacheMaxSize)
+        .graphSnapshot(graphSnapshot)
+        .baseline(baseline)
+        .updateBaseline(updateBaseline)
+        .bytecodeScan(bytecodeScan)
+        .classIndex(classIndex)
+        .classIndexDirectory(classIndexDirectory == null ? null : classIndexDirectory.toPath())
+        .scopes(DependencyScope.parse(scopes))
+        .artifactIncludes(artifactIncludes)
+        .artifactExcludes(artifactExcludes)
+        .excludedScopes(DependencyScope.parse(excludeScopes))
+        .excludeOptional(excludeOptional);
+  }
+}
@@ -0,0 +1,91 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Base of the goals which analyze the modules of the reactor concurrently on a bounded thread
+ * pool.
+ *
+ * @see AbstractReactorMojo#threads
+ */
+public abstract class AbstractReactorMojo extends AbstractPluginMojo {
+
+  /** The exception message when analyzing a module has failed unexpectedly. */
+  private static final String EXCEPTION_ANALYSIS_FAILED_MESSAGE = "failed to analyze module";
+
+  @Component DependencyGraphBuilder dependencyGraphBuilder;
+
+  /**
+   * The maximum number of modules which are analyzed at the same time. Defaults to the number of
+   * available processors when not set or not positive.
+   */
+  @Parameter(property = "threads", defaultValue = "0")
+  int threads;
+
+  /**
+   * Create the thread pool on which the modules are analyzed.
+   *
+   * @param modules the number of modules, which bounds the number of threads.
+   */
+  @NotNull
+  ExecutorService newExecutor(int modules) {
+    var threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    var counter = new AtomicInteger();
+    return Executors.newFixedThreadPool(
+        Math.max(1, Math.min(threadCount, modules)),
+        runnable -> {
+          var thread = new Thread(runnable, "explicit-dependencies-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Wait for a module analysis to complete.
+   *
+   * @throws PluginException the exception thrown by the analysis or a new exception when the
+   *     analysis failed unexpectedly.
+   */
+  @NotNull
+  static <T> T await(@NotNull String moduleId, @NotNull Future<T> future) throws PluginException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PluginException(e, EXCEPTION_ANALYSIS_FAILED_MESSAGE, moduleId);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof PluginException pluginException) {
+        throw pluginException;
+      }
+      throw new PluginException(e.getCause(), EXCEPTION_ANALYSIS_FAILED_MESSAGE, moduleId);
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.project.MavenProject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Analyze every module of the reactor in one execution. The modules are analyzed concurrently on a
+ * bounded thread pool and the verdicts are combined in a single report in the log directory of the
+ * top level project.
+ *
+ * @see AggregatePluginMojo#JSON_FILENAME
+ * @see AbstractReactorMojo#threads
+ */
+@Mojo(name = "aggregate", aggregator = true, threadSafe = true)
+public class AggregatePluginMojo extends AbstractReactorMojo {
+
+  /**
+   * The name of the JSON file which will be created after analyzing all modules.
+   *
+   * @see AggregatePluginMojo#writeReport(Map)
+   */
+  private static final String JSON_FILENAME = "reactorDependenciesMissing.json";
+
+  /**
+   * The name of the JSON file with the metrics of all modules.
+   *
+   * @see AggregatePluginMojo#writeMetrics(Map)
+   */
+  private static final String JSON_METRICS_FILENAME = "reactorMetrics.json";
+
+  /** The number of slowest modules which are logged. */
+  private static final int SLOWEST_MODULES_LOGGED = 5;
+
+  /** The number of missing explicit dependencies affecting the most modules which are logged. */
+  private static final int MOST_COMMON_MISSING_LOGGED = 5;
+
+  /** The name of the directory where logging output is stored. */
+  private static final String LOG_DIRECTORY = "maven-explicit-dependencies";
+
+  /** Serialization template of a missing dependency and the number of modules it affects. */
+  private static final String MOST_COMMON_MISSING_TEMPLATE = "%s:%s:%s (%d modules)";
+
+  /** The message logged for a single module. */
+  private static final String MODULE_MESSAGE_TEMPLATE = "%s: %s";
+
+  @Override
+  public void execute() throws PluginException {
+    var analyses = analyze(session.getProjects());
+    var results = new LinkedHashMap<String, Set<DependencyRecord>>();
+    var metrics = new LinkedHashMap<String, PhaseMetrics>();
+    analyses.forEach(
+        (moduleId, analysis) -> {
+          results.put(moduleId, analysis.dependencies());
+          metrics.put(moduleId, analysis.metrics());
+          if (analysis.baselineMessageOrNull() != null) {
+            getLog().info(moduleMessage(moduleId, analysis.baselineMessageOrNull()));
+          }
+        });
+
+    writeReport(results);
+    writeMetrics(metrics);
+    logMostCommonMissing(results);
+    getLog().info(DependencyRecordPool.forSession(session).describeMetrics());
+
+    var failed = false;
+    for (var result : results.entrySet()) {
+      var dependencies = result.getValue();
+      if (dependencies.isEmpty()) {
+        getLog().info(moduleMessage(result.getKey(), PluginMojo.INFO_SUCCESS_MESSAGE));
+      } else {
+        var prettyPrinted = PluginMojo.prettyPrint(dependencies);
+        var warning = String.format(PluginMojo.WARN_MISSING_EXPLICITS_MESSAGE, prettyPrinted);
+        getLog().warn(moduleMessage(result.getKey(), warning));
+        failed = true;
+      }
+    }
+
+    if (failed && force) {
+      throw new PluginException(results, PluginMojo.EXCEPTION_MISSING_EXPLICITS_MESSAGE);
+    }
+  }
+
+  /**
+   * Analyze all modules concurrently.
+   *
+   * @param projects all modules in the reactor.
+   * @return Map of module id and the analysis of the module in reactor order.
+   * @throws PluginException when analyzing one of the modules failed.
+   */
+  @NotNull
+  private Map<String, ModuleAnalysis> analyze(@NotNull List<MavenProject> projects)
+      throws PluginException {
+    var configuration = configuration();
+    var executor = newExecutor(projects.size());
+    try {
+      var futures = new LinkedHashMap<String, Future<ModuleAnalysis>>();
+      for (var module : projects) {
+        futures.put(
+            PluginContext.moduleId(module),
+            executor.submit(
+                () -> {
+                  var context =
+                      new PluginContext(module, session, dependencyGraphBuilder, configuration);
+                  var dependencies = context.getMissingExplicitDependencies();
+                  return new ModuleAnalysis(
+                      dependencies, context.getMetrics(), context.describeBaselineOrNull());
+                }));
+      }
+
+      var results = new LinkedHashMap<String, ModuleAnalysis>();
+      for (var future : futures.entrySet()) {
+        results.put(future.getKey(), await(future.getKey(), future.getValue()));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Store the missing explicit dependencies of all modules as one JSON object where every module id
+   * is mapped to the missing explicit dependencies of that module.
+   *
+   * @see AggregatePluginMojo#JSON_FILENAME
+   */
+  private void writeReport(@NotNull Map<String, Set<DependencyRecord>> results)
+      throws PluginException {
+    var directory = getReportDirectory();
+    DependencyWriter.Content json =
+        writer -> {
+          writer.write("{\n");
+          var first = true;
+          for (var result : results.entrySet()) {
+            if (!first) {
+              writer.write(",\n");
+            }
+            writer.write('"');
+            writer.write(result.getKey());
+            writer.write("\": ");
+            DependencyWriter.writeJsonArray(writer, result.getValue());
+            first = false;
+          }
+          writer.write("\n}");
+        };
+    new DependencyWriter(directory, gzip).writeNewFile(JSON_FILENAME, json);
+  }
+
+  /**
+   * Store the metrics of all modules as one JSON object where every module id is mapped to the
+   * metrics of that module, slowest module first. The slowest modules are logged as well.
+   *
+   * @see AggregatePluginMojo#JSON_METRICS_FILENAME
+   */
+  private void writeMetrics(@NotNull Map<String, PhaseMetrics> metrics) throws PluginException {
+    var slowestFirst = new ArrayList<>(metrics.entrySet());
+    slowestFirst.sort(
+        Comparator.comparingLong(
+                (Map.Entry<String, PhaseMetrics> entry) -> entry.getValue().getTotalNanos())
+            .reversed());
+
+    DependencyWriter.Content json =
+        writer -> {
+          writer.write("{\n");
+          var first = true;
+          for (var module : slowestFirst) {
+            if (!first) {
+              writer.write(",\n");
+            }
+            writer.write('"');
+            writer.write(module.getKey());
+            writer.write("\": ");
+            module.getValue().writeJson(writer);
+            first = false;
+          }
+          writer.write("\n}");
+        };
+    new DependencyWriter(getReportDirectory(), gzip).writeNewFile(JSON_METRICS_FILENAME, json);
+
+    var slowest = new StringJoiner(", ", "slowest modules: ", "");
+    slowestFirst.stream()
+        .limit(SLOWEST_MODULES_LOGGED)
+        .forEach(
+            module ->
+                slowest.add(
+                    module.getKey()
+                        + " ("
+                        + PhaseMetrics.millis(module.getValue().getTotalNanos())
+                        + " ms)"));
+    getLog().info(slowest.toString());
+  }
+
+  /**
+   * Log the missing explicit dependencies which affect the most modules. The missing dependencies
+   * of every module are converted to a BitSet of ids in the session pool, so counting the modules
+   * per dependency does not need any hashing of records.
+   */
+  private void logMostCommonMissing(@NotNull Map<String, Set<DependencyRecord>> results) {
+    var pool = DependencyRecordPool.forSession(session);
+    var missingIds = results.values().stream().map(pool::ids).toList();
+    var modules = new int[missingIds.stream().mapToInt(BitSet::length).max().orElse(0)];
+    for (var ids : missingIds) {
+      for (var id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+        modules[id]++;
+      }
+    }
+
+    var mostCommon = new StringJoiner(", ", "most common missing dependencies: ", "");
+    mostCommon.setEmptyValue("");
+    IntStream.range(0, modules.length)
+        .filter(id -> modules[id] > 0)
+        .boxed()
+        .sorted(
+            Comparator.comparingInt((Integer id) -> modules[id])
+                .reversed()
+                .thenComparing(pool::record))
+        .limit(MOST_COMMON_MISSING_LOGGED)
+        .forEach(
+            id -> {
+              var record = pool.record(id);
+              mostCommon.add(
+                  String.format(
+                      MOST_COMMON_MISSING_TEMPLATE,
+                      record.groupId(),
+                      record.artifactId(),
+                      record.version(),
+                      modules[id]));
+            });
+
+    if (mostCommon.length() > 0) {
+      getLog().info(mostCommon.toString());
+    }
+  }
+
+  /**
+   * Get the log directory of the top level project and create it when it does not exist.
+   *
+   * @return Path to the log directory.
+   * @throws PluginException when creating the directory failed.
+   */
+  @NotNull
+  private Path getReportDirectory() throws PluginException {
+    var directory = Path.of(project.getBuild().getDirectory()).resolve(LOG_DIRECTORY);
+    try {
+      return Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new PluginException(e, "failed to create log directory");
+    }
+  }
+
+  /** The outcome of analyzing a single module. */
+  private record ModuleAnalysis(
+      @NotNull Set<DependencyRecord> dependencies,
+      @NotNull PhaseMetrics metrics,
+      @Nullable String baselineMessageOrNull) {}
+
+  @NotNull
+  private static String moduleMessage(@NotNull String moduleId, @NotNull String message) {
+    return String.format(MODULE_MESSAGE_TEMPLATE, moduleId, message);
+  }
+}
@@ -0,0 +1,262 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scanner to find all classes which are referenced by compiled class files.
+ *
+ * <p>Only the constant pool of a class file is parsed: every class entry and every type in a
+ * descriptor or signature (fields, methods, annotations and generics) is a reference. Class files
+ * are scanned in parallel, every thread reads them into a buffer of its own and only the names of
+ * referenced classes are copied out of it.
+ *
+ * <p>Class names are internal names, e.g. java/lang/String. A file which is not a valid class
+ * file is skipped.
+ *
+ * @see <a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html#jvms-4.4">The
+ *     constant pool</a>
+ */
+final class ClassFileScanner {
+
+  /** The extension of a class file. */
+  static final String CLASS_EXTENSION = ".class";
+
+  /** The first 4 bytes of every class file. */
+  private static final int MAGIC = 0xCAFEBABE;
+
+  /** The initial size of the buffer of every thread, which grows to the largest class file. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The error message when scanning the class files has failed. */
+  private static final String SCAN_ERROR_MESSAGE = "failed to scan class files";
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_FLOAT = 4;
+  private static final int CONSTANT_LONG = 5;
+  private static final int CONSTANT_DOUBLE = 6;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELD_REF = 9;
+  private static final int CONSTANT_METHOD_REF = 10;
+  private static final int CONSTANT_INTERFACE_METHOD_REF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int CONSTANT_METHOD_HANDLE = 15;
+  private static final int CONSTANT_METHOD_TYPE = 16;
+  private static final int CONSTANT_DYNAMIC = 17;
+  private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+  private static final int CONSTANT_MODULE = 19;
+  private static final int CONSTANT_PACKAGE = 20;
+
+  /** The buffer of every scanning thread. */
+  private static final ThreadLocal<ByteBuffer> BUFFERS =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+  /**
+   * Find all classes which are referenced by the class files in a directory.
+   *
+   * @param directory the output directory of the compiler, e.g. target/classes.
+   * @return Set of internal class names, empty when the directory does not exist.
+   * @throws PluginException when the class files can not be read.
+   */
+  @NotNull
+  Set<String> scan(@NotNull Path directory) throws PluginException {
+    if (!Files.isDirectory(directory)) {
+      return Set.of();
+    }
+
+    try {
+      List<Path> files;
+      try (var stream = Files.walk(directory)) {
+        files =
+            stream
+                .filter(file -> file.getFileName().toString().endsWith(CLASS_EXTENSION))
+                .filter(Files::isRegularFile)
+                .toList();
+      }
+      return files.parallelStream()
+          .collect(HashSet::new, ClassFileScanner::scanFile, HashSet::addAll);
+    } catch (IOException e) {
+      throw new PluginException(e, SCAN_ERROR_MESSAGE, e.getMessage());
+    } catch (UncheckedIOException e) {
+      throw new PluginException(e.getCause(), SCAN_ERROR_MESSAGE, e.getCause().getMessage());
+    }
+  }
+
+  /** Add the classes referenced by a class file, which is read into the buffer of the thread. */
+  private static void scanFile(@NotNull Set<String> names, @NotNull Path file) {
+    try (var channel = FileChannel.open(file)) {
+      var size = (int) Math.min(Integer.MAX_VALUE, channel.size());
+      var buffer = BUFFERS.get();
+      if (size > buffer.capacity()) {
+        buffer = ByteBuffer.allocate(Math.max(size, 2 * buffer.capacity()));
+        BUFFERS.set(buffer);
+      }
+      buffer.clear().limit(size);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Read until the buffer is full or the file ends.
+      }
+      buffer.flip();
+      scan(buffer, names);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Add the classes referenced by the constant pool of a class file.
+   *
+   * @param buffer a heap buffer with the class file between position and limit.
+   * @param names where the internal names of the referenced classes are added to.
+   */
+  static void scan(@NotNull ByteBuffer buffer, @NotNull Set<String> names) {
+    var bytes = buffer.array();
+    try {
+      if (buffer.getInt() != MAGIC) {
+        return;
+      }
+      buffer.position(buffer.position() + 4);
+
+      // Slot 0 is unused, every slot holds the offset of the tag of its entry.
+      var count = Short.toUnsignedInt(buffer.getShort());
+      var offsets = new int[count];
+      for (var slot = 1; slot < count; slot++) {
+        offsets[slot] = buffer.position();
+        var tag = buffer.get();
+        switch (tag) {
+          case CONSTANT_UTF8 -> buffer.position(buffer.position() + 2 + unsignedShort(buffer));
+          case CONSTANT_CLASS,
+              CONSTANT_STRING,
+              CONSTANT_METHOD_TYPE,
+              CONSTANT_MODULE,
+              CONSTANT_PACKAGE -> buffer.position(buffer.position() + 2);
+          case CONSTANT_METHOD_HANDLE -> buffer.position(buffer.position() + 3);
+          case CONSTANT_INTEGER,
+              CONSTANT_FLOAT,
+              CONSTANT_FIELD_REF,
+              CONSTANT_METHOD_REF,
+              CONSTANT_INTERFACE_METHOD_REF,
+              CONSTANT_NAME_AND_TYPE,
+              CONSTANT_DYNAMIC,
+              CONSTANT_INVOKE_DYNAMIC -> buffer.position(buffer.position() + 4);
+          case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+            buffer.position(buffer.position() + 8);
+            slot++;
+          }
+          default -> {
+            return;
+          }
+        }
+      }
+
+      for (var slot = 1; slot < count; slot++) {
+        var offset = offsets[slot];
+        if (offset == 0) {
+          continue;
+        }
+        if (bytes[offset] == CONSTANT_CLASS) {
+          var name = offsets[unsignedShort(bytes, offset + 1)];
+          if (name != 0 && bytes[name] == CONSTANT_UTF8) {
+            addClassName(bytes, name + 3, unsignedShort(bytes, name + 1), names);
+          }
+        } else if (bytes[offset] == CONSTANT_UTF8) {
+          addDescriptorTypes(bytes, offset + 3, unsignedShort(bytes, offset + 1), names);
+        }
+      }
+    } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+      // Not a valid class file.
+    }
+  }
+
+  /** Add the name of a class entry, which is an internal name or an array descriptor. */
+  private static void addClassName(
+      @NotNull byte[] bytes, int offset, int length, @NotNull Set<String> names) {
+    if (length > 0 && bytes[offset] == '[') {
+      addDescriptorTypes(bytes, offset, length, names);
+    } else {
+      names.add(decode(bytes, offset, length));
+    }
+  }
+
+  /**
+   * Add every class type (Lname; or Lname&lt;...&gt;;) in a descriptor or signature. Strings
+   * which are not descriptors are skipped without allocating anything.
+   */
+  private static void addDescriptorTypes(
+      @NotNull byte[] bytes, int offset, int length, @NotNull Set<String> names) {
+    if (length < 3 || !isDescriptorStart(bytes[offset])) {
+      return;
+    }
+
+    var end = offset + length;
+    var index = offset;
+    while (index < end) {
+      if (bytes[index] != 'L') {
+        index++;
+        continue;
+      }
+      var start = ++index;
+      while (index < end && bytes[index] != ';' && bytes[index] != '<') {
+        index++;
+      }
+      if (index < end && index > start) {
+        names.add(decode(bytes, start, index - start));
+      }
+    }
+  }
+
+  /** Descriptors and signatures start with a field type, a method or type parameters. */
+  private static boolean isDescriptorStart(byte first) {
+    return first == 'L' || first == '[' || first == '(' || first == '<';
+  }
+
+  /** Decode a name, without the extra copy of the UTF-8 decoder for ASCII names. */
+  @NotNull
+  private static String decode(@NotNull byte[] bytes, int offset, int length) {
+    for (var index = offset; index < offset + length; index++) {
+      if (bytes[index] < 0) {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+      }
+    }
+    return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+  }
+
+  private static int unsignedShort(@NotNull ByteBuffer buffer) {
+    return Short.toUnsignedInt(buffer.getShort(buffer.position()));
+  }
+
+  private static int unsignedShort(@NotNull byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) << 8 | bytes[offset + 1] & 0xFF;
+  }
+}
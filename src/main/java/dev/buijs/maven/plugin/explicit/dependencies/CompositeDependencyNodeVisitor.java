@@ -0,0 +1,87 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Visitor which passes a single traversal of the dependency-tree to multiple visitors.
+ *
+ * <p>Every visitor sees exactly the nodes it would see when traversing the tree on its own: when a
+ * visitor returns false from {@link DependencyNodeVisitor#visit(DependencyNode)} it does not
+ * receive the children of that node, and when it returns false from {@link
+ * DependencyNodeVisitor#endVisit(DependencyNode)} it does not receive the remaining siblings. The
+ * traversal itself only skips a subtree when none of the visitors is interested in it.
+ */
+final class CompositeDependencyNodeVisitor implements DependencyNodeVisitor {
+
+  @NotNull private final DependencyNodeVisitor[] visitors;
+
+  /**
+   * Per visitor the node whose endVisit resumes the visitor, or null when the visitor is active.
+   */
+  @Nullable private final DependencyNode[] suspendedUntil;
+
+  CompositeDependencyNodeVisitor(@NotNull DependencyNodeVisitor... visitors) {
+    this.visitors = visitors.clone();
+    this.suspendedUntil = new DependencyNode[visitors.length];
+  }
+
+  @Override
+  public boolean visit(@NotNull DependencyNode node) {
+    var visitChildren = false;
+    for (var index = 0; index < visitors.length; index++) {
+      if (suspendedUntil[index] != null) {
+        continue;
+      }
+
+      if (visitors[index].visit(node)) {
+        visitChildren = true;
+      } else {
+        suspendedUntil[index] = node;
+      }
+    }
+    return visitChildren;
+  }
+
+  @Override
+  public boolean endVisit(@NotNull DependencyNode node) {
+    var visitSiblings = false;
+    for (var index = 0; index < visitors.length; index++) {
+      var suspendedUntilOrNull = suspendedUntil[index];
+      if (suspendedUntilOrNull == node) {
+        suspendedUntil[index] = null;
+      } else if (suspendedUntilOrNull != null) {
+        continue;
+      }
+
+      if (visitors[index].endVisit(node)) {
+        visitSiblings = true;
+      } else if (node.getParent() != null) {
+        suspendedUntil[index] = node.getParent();
+      }
+    }
+    return visitSiblings;
+  }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Symbol table which assigns a dense int id to every unique groupId:artifactId:version.
+ *
+ * <p>Looking up a coordinate does not allocate anything: a DependencyRecord is only created the
+ * first time a coordinate is interned, and it is taken from a {@link DependencyRecordPool} so it
+ * can be shared with other tables. The ids are assigned in order of first appearance, starting
+ * at 0, so they can be used directly as array index. Every coordinate also knows its id in the
+ * pool, which is shared by all tables of a session.
+ *
+ * <p>A table is not thread-safe.
+ */
+final class CoordinateTable {
+
+  /** The initial number of slots in the hash table, must be a power of two. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** The id of every unique coordinate is the index in this array. */
+  @NotNull private DependencyRecord[] records = new DependencyRecord[INITIAL_CAPACITY / 2];
+
+  /** The id in the pool of every unique coordinate. */
+  @NotNull private int[] poolIds = new int[INITIAL_CAPACITY / 2];
+
+  /** Open addressing hash table with linear probing which stores id + 1 (0 is an empty slot). */
+  @NotNull private int[] slots = new int[INITIAL_CAPACITY];
+
+  private int size;
+
+  @NotNull private final DependencyRecordPool pool;
+
+  /** Create a table with a pool of its own. */
+  CoordinateTable() {
+    this(new DependencyRecordPool());
+  }
+
+  /**
+   * Create a table which takes its records from a shared pool.
+   *
+   * @param pool which holds the canonical records.
+   */
+  CoordinateTable(@NotNull DependencyRecordPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Get the id of a coordinate and add it to the table when it is not present yet.
+   *
+   * @return int id of the coordinate.
+   */
+  int intern(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+    return intern(groupId, artifactId, version, null);
+  }
+
+  /**
+   * Get the id of a record and add it to the table when it is not present yet. The record is added
+   * to the pool as-is when the pool does not have a record with the same coordinate yet.
+   *
+   * @return int id of the coordinate.
+   */
+  int intern(@NotNull DependencyRecord record) {
+    return intern(record.groupId(), record.artifactId(), record.version(), record);
+  }
+
+  private int intern(
+      @NotNull String groupId,
+      @NotNull String artifactId,
+      @NotNull String version,
+      @Nullable DependencyRecord recordOrNull) {
+    var mask = slots.length - 1;
+    var slot = spread(hash(groupId, artifactId, version)) & mask;
+    while (slots[slot] != 0) {
+      var id = slots[slot] - 1;
+      var record = records[id];
+      if (record.groupId().equals(groupId)
+          && record.artifactId().equals(artifactId)
+          && record.version().equals(version)) {
+        return id;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    var id = size++;
+    if (id == records.length) {
+      records = Arrays.copyOf(records, records.length * 2);
+      poolIds = Arrays.copyOf(poolIds, poolIds.length * 2);
+    }
+    var symbol =
+        recordOrNull == null
+            ? pool.symbol(groupId, artifactId, version)
+            : pool.symbol(recordOrNull);
+    records[id] = symbol.record();
+    poolIds[id] = symbol.id();
+    slots[slot] = id + 1;
+    if (size * 2 > slots.length) {
+      rehash();
+    }
+    return id;
+  }
+
+  /**
+   * Get the record of a coordinate id.
+   *
+   * @param id returned by {@link CoordinateTable#intern(String, String, String)}.
+   * @return DependencyRecord.
+   */
+  @NotNull
+  DependencyRecord record(int id) {
+    if (id < 0 || id >= size) {
+      throw new IndexOutOfBoundsException(id);
+    }
+    return records[id];
+  }
+
+  /**
+   * Get the id of a coordinate in the pool of this table.
+   *
+   * @param id returned by {@link CoordinateTable#intern(String, String, String)}.
+   * @return int id of the coordinate in the pool.
+   * @see DependencyRecordPool#id(DependencyRecord)
+   */
+  int poolId(int id) {
+    if (id < 0 || id >= size) {
+      throw new IndexOutOfBoundsException(id);
+    }
+    return poolIds[id];
+  }
+
+  /** Get the pool which holds the records of this table. */
+  @NotNull
+  DependencyRecordPool pool() {
+    return pool;
+  }
+
+  /** Get the number of unique coordinates. */
+  int size() {
+    return size;
+  }
+
+  /** Double the hash table when it is half full, so probe sequences stay short. */
+  private void rehash() {
+    var resized = new int[slots.length * 2];
+    var mask = resized.length - 1;
+    for (var id = 0; id < size; id++) {
+      var record = records[id];
+      var slot = spread(hash(record.groupId(), record.artifactId(), record.version())) & mask;
+      while (resized[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      resized[slot] = id + 1;
+    }
+    slots = resized;
+  }
+
+  /** The same hash as {@link DependencyRecord#hashCode()}. */
+  private static int hash(
+      @NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+    return 31 * (31 * groupId.hashCode() + artifactId.hashCode()) + version.hashCode();
+  }
+
+  /** Mix the high bits into the low bits, because only the low bits select a slot. */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
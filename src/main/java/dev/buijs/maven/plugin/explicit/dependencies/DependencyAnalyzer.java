@@ -20,17 +20,24 @@
  */
 package dev.buijs.maven.plugin.explicit.dependencies;
 
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility to find all transitive dependencies which are not explicitly added to the maven project.
  * The output is stored as JSON in file.
  *
  * @see DependencyAnalyzer#JSON_FILENAME
- * @see DependencyAnalyzer#getMissingExplicitDependencies(Set, Set)
+ * @see DependencyAnalyzer#getMissingExplicitDependencies(BitSet, BitSet)
+ * @see DependencyAnalyzer#getMissingExplicitDependencies(BitSet, BitSet, Map)
  */
 public class DependencyAnalyzer {
 
@@ -42,6 +49,20 @@ public class DependencyAnalyzer {
    */
   private static final String JSON_FILENAME = "dependenciesMissing.json";
 
+  /**
+   * The name of the JSON file with the missing dependencies which are not in the baseline.
+   *
+   * @see DependencyAnalyzer#getBaselineDelta(Set, Path)
+   */
+  private static final String JSON_INTRODUCED_FILENAME = "dependenciesIntroduced.json";
+
+  /**
+   * The name of the JSON file with the baseline dependencies which are no longer missing.
+   *
+   * @see DependencyAnalyzer#getBaselineDelta(Set, Path)
+   */
+  private static final String JSON_FIXED_FILENAME = "dependenciesFixed.json";
+
   /**
    * The writer to store dependencies information in JSON file.
    *
@@ -50,31 +71,214 @@ public class DependencyAnalyzer {
    */
   private final DependencyWriter writer;
 
+  /** The id of the analyzed module, which is only used to label events. */
+  @Nullable private final String moduleIdOrNull;
+
+  /** The symbol table which maps dependency ids to records. */
+  @NotNull private final DependencyRecordPool pool;
+
   DependencyAnalyzer(@NotNull DependencyWriter writer) {
+    this(writer, null, new DependencyRecordPool());
+  }
+
+  DependencyAnalyzer(
+      @NotNull DependencyWriter writer,
+      @Nullable String moduleIdOrNull,
+      @NotNull DependencyRecordPool pool) {
     this.writer = writer;
+    this.moduleIdOrNull = moduleIdOrNull;
+    this.pool = pool;
   }
 
   /**
-   * Compare the explicitly configured dependencies with the dependency-tree and return all
-   * transitive dependencies that are not explicitly added.
+   * Compare the explicitly configured dependencies with the dependency-tree by their ids in the
+   * {@link DependencyRecordPool}, which is a single andNot over both sets.
    *
-   * @param explicitDependencies Set of DependencyRecord containing all dependencies from maven pom
-   *     dependencies and dependencyManagement.
-   * @param implicitDependencies Set of DependencyRecord containing all dependencies from the
-   *     dependency-tree which includes all transitive dependencies.
+   * @param explicitIds BitSet of the ids of all dependencies from maven pom dependencies and
+   *     dependencyManagement.
+   * @param implicitIds BitSet of the ids of all dependencies from the dependency-tree.
    * @return Set of DependencyRecord containing all transitive dependencies that are not explicitly
-   *     added to the maven pom.
+   *     added to the maven pom, sorted by {@link DependencyRecord#compareTo(DependencyRecord)}.
+   * @see PluginEvents.Analyze
    */
   @NotNull
   Set<DependencyRecord> getMissingExplicitDependencies(
-      @NotNull Set<DependencyRecord> explicitDependencies,
-      @NotNull Set<DependencyRecord> implicitDependencies)
-      throws PluginException {
-    var dependencies =
-        implicitDependencies.stream()
-            .filter(dependency -> !explicitDependencies.contains(dependency))
-            .collect(Collectors.toCollection(LinkedHashSet::new));
+      @NotNull BitSet explicitIds, @NotNull BitSet implicitIds) throws PluginException {
+    var event = new PluginEvents.Analyze();
+    event.begin();
+    var missingIds = (BitSet) implicitIds.clone();
+    missingIds.andNot(explicitIds);
+    var dependencies = pool.records(missingIds);
+    event.end();
+    if (event.shouldCommit()) {
+      event.moduleId = moduleIdOrNull;
+      event.explicitCount = explicitIds.cardinality();
+      event.implicitCount = implicitIds.cardinality();
+      event.missingCount = dependencies.size();
+      event.commit();
+    }
     writer.writeNewFile(JSON_FILENAME, dependencies);
     return dependencies;
   }
+
+  /**
+   * Compare the explicitly configured dependencies with the dependency-tree by their ids, and
+   * also report the missing dependencies of every scope. The partitions are intersected with the
+   * explicit dependencies, so the tree is resolved once for all scopes. A dependency-tree with a
+   * single scope has nothing to partition, so only the verdict is reported.
+   *
+   * @param explicitIds BitSet of the ids of all dependencies from maven pom dependencies and
+   *     dependencyManagement.
+   * @param implicitIds BitSet of the ids of the dependencies from the dependency-tree which count
+   *     towards the verdict.
+   * @param implicitIdsByScope BitSet of the ids of all dependencies from the dependency-tree per
+   *     scope.
+   * @return Set of DependencyRecord containing the transitive dependencies of implicitIds that are
+   *     not explicitly added to the maven pom, sorted.
+   * @see DependencyScope#getJsonFilename()
+   */
+  @NotNull
+  Set<DependencyRecord> getMissingExplicitDependencies(
+      @NotNull BitSet explicitIds,
+      @NotNull BitSet implicitIds,
+      @NotNull Map<DependencyScope, BitSet> implicitIdsByScope)
+      throws PluginException {
+    var dependencies = getMissingExplicitDependencies(explicitIds, implicitIds);
+    if (implicitIdsByScope.size() < 2) {
+      return dependencies;
+    }
+
+    for (var partition : implicitIdsByScope.entrySet()) {
+      var missingIds = (BitSet) partition.getValue().clone();
+      missingIds.andNot(explicitIds);
+      writer.writeNewFile(partition.getKey().getJsonFilename(), pool.records(missingIds));
+    }
+    return dependencies;
+  }
+
+  /**
+   * Compare the missing explicit dependencies with a baseline of accepted missing dependencies.
+   *
+   * <p>Both are sorted by {@link DependencyRecord#compareTo(DependencyRecord)}, so the delta is
+   * found with a single merge while the baseline is streamed. A baseline which is not sorted (e.g.
+   * after editing it by hand) is read completely and compared as a set instead.
+   *
+   * @param missing Set of DependencyRecord containing all missing explicit dependencies, sorted.
+   * @param baseline Path to the JSON file with the accepted missing dependencies.
+   * @return BaselineDelta with the newly introduced and the fixed dependencies.
+   * @throws PluginException when the baseline can not be read.
+   */
+  @NotNull
+  BaselineDelta getBaselineDelta(@NotNull Set<DependencyRecord> missing, @NotNull Path baseline)
+      throws PluginException {
+    var reader = new DependencyReader();
+    var merge = new SortedMerge(missing.iterator());
+    reader.read(baseline, merge);
+    var merged = merge.finish();
+    var delta = merge.isSorted() ? merged : diff(missing, reader.read(baseline));
+    writer.writeNewFile(JSON_INTRODUCED_FILENAME, delta.introduced());
+    writer.writeNewFile(JSON_FIXED_FILENAME, delta.fixed());
+    return delta;
+  }
+
+  /** Compare the missing dependencies with an unsorted baseline. */
+  @NotNull
+  private static BaselineDelta diff(
+      @NotNull Set<DependencyRecord> missing, @NotNull Set<DependencyRecord> baseline) {
+    var introduced =
+        missing.stream()
+            .filter(dependency -> !baseline.contains(dependency))
+            .sorted()
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    var fixed =
+        baseline.stream()
+            .filter(dependency -> !missing.contains(dependency))
+            .sorted()
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    return new BaselineDelta(introduced, fixed);
+  }
+
+  /**
+   * The difference between the missing explicit dependencies and the baseline.
+   *
+   * @param introduced the missing dependencies which are not in the baseline.
+   * @param fixed the dependencies in the baseline which are no longer missing.
+   */
+  record BaselineDelta(
+      @NotNull Set<DependencyRecord> introduced, @NotNull Set<DependencyRecord> fixed) {}
+
+  /**
+   * Merges the sorted baseline records, as they are read, with the sorted missing dependencies.
+   * The merge stops as soon as either of them turns out not to be sorted.
+   */
+  private static final class SortedMerge implements Consumer<DependencyRecord> {
+
+    @NotNull private final Iterator<DependencyRecord> missing;
+
+    @NotNull private final Set<DependencyRecord> introduced = new LinkedHashSet<>();
+
+    @NotNull private final Set<DependencyRecord> fixed = new LinkedHashSet<>();
+
+    @Nullable private DependencyRecord nextMissingOrNull;
+
+    @Nullable private DependencyRecord previousBaselineOrNull;
+
+    private boolean sorted = true;
+
+    SortedMerge(@NotNull Iterator<DependencyRecord> missing) {
+      this.missing = missing;
+      advance();
+    }
+
+    @Override
+    public void accept(@NotNull DependencyRecord accepted) {
+      if (!sorted) {
+        return;
+      }
+
+      if (previousBaselineOrNull != null && previousBaselineOrNull.compareTo(accepted) >= 0) {
+        sorted = false;
+        return;
+      }
+      previousBaselineOrNull = accepted;
+
+      while (sorted && nextMissingOrNull != null && nextMissingOrNull.compareTo(accepted) < 0) {
+        introduced.add(nextMissingOrNull);
+        advance();
+      }
+
+      if (nextMissingOrNull == null || nextMissingOrNull.compareTo(accepted) > 0) {
+        fixed.add(accepted);
+      } else if (nextMissingOrNull.equals(accepted)) {
+        advance();
+      } else {
+        // Different versions which compare as equal (1.0 and 1.0.0) can not be merged.
+        sorted = false;
+      }
+    }
+
+    boolean isSorted() {
+      return sorted;
+    }
+
+    /** Add the remaining missing dependencies, which are all greater than the baseline. */
+    @NotNull
+    BaselineDelta finish() {
+      while (sorted && nextMissingOrNull != null) {
+        introduced.add(nextMissingOrNull);
+        advance();
+      }
+      return new BaselineDelta(introduced, fixed);
+    }
+
+    private void advance() {
+      var previousOrNull = nextMissingOrNull;
+      nextMissingOrNull = missing.hasNext() ? missing.next() : null;
+      if (previousOrNull != null
+          && nextMissingOrNull != null
+          && previousOrNull.compareTo(nextMissingOrNull) >= 0) {
+        sorted = false;
+      }
+    }
+  }
 }
@@ -0,0 +1,212 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.eclipse.aether.collection.DependencyCollectionContext;
+import org.eclipse.aether.collection.DependencySelector;
+import org.eclipse.aether.graph.Dependency;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * ArtifactFilter which is passed to the DependencyGraphBuilder, so excluded artifacts are pruned
+ * while the dependency-tree is built. The subtree of an excluded artifact is never added to the
+ * tree, so it is not traversed, serialized or analyzed either.
+ *
+ * <p>An artifact is excluded when its scope is excluded, when it is optional and optional
+ * dependencies are excluded, when it matches one of the exclude patterns or when include patterns
+ * are configured and it matches none of them. A pattern is groupId[:artifactId[:version]] where
+ * every part is either literal, * or ends with * to match a prefix, e.g. org.springframework*.
+ *
+ * <p>The DependencyGraphBuilder only applies the filter after the dependencies are resolved, so
+ * the patterns without a version are also used as a {@link DependencySelector} which prunes the
+ * artifacts while the dependencies are collected, like an exclusion in the pom. The scope, the
+ * version and optional can still be changed by the dependency management at that point, so the
+ * other rules are only applied by the filter.
+ *
+ * @see PluginConfiguration#getArtifactIncludes()
+ * @see PluginConfiguration#getArtifactExcludes()
+ */
+final class DependencyArtifactFilter implements ArtifactFilter {
+
+  private static final String WILDCARD = "*";
+
+  @NotNull private final List<String[]> includes;
+
+  @NotNull private final List<String[]> excludes;
+
+  @NotNull private final Set<DependencyScope> excludedScopes;
+
+  private final boolean excludeOptional;
+
+  private DependencyArtifactFilter(
+      @NotNull List<String[]> includes,
+      @NotNull List<String[]> excludes,
+      @NotNull Set<DependencyScope> excludedScopes,
+      boolean excludeOptional) {
+    this.includes = includes;
+    this.excludes = excludes;
+    this.excludedScopes = excludedScopes;
+    this.excludeOptional = excludeOptional;
+  }
+
+  /**
+   * Create the filter of a configuration.
+   *
+   * @param configuration the plugin configuration.
+   * @return DependencyArtifactFilter or null when nothing is excluded, so the whole tree is built.
+   * @throws PluginException when a pattern is invalid.
+   */
+  @Nullable
+  static DependencyArtifactFilter ofOrNull(@NotNull PluginConfiguration configuration)
+      throws PluginException {
+    var includes = parse(configuration.getArtifactIncludes());
+    var excludes = parse(configuration.getArtifactExcludes());
+    var excludedScopes = configuration.getExcludedScopes();
+    var excludeOptional = configuration.isExcludeOptional();
+    if (includes.isEmpty() && excludes.isEmpty() && excludedScopes.isEmpty() && !excludeOptional) {
+      return null;
+    }
+    return new DependencyArtifactFilter(includes, excludes, excludedScopes, excludeOptional);
+  }
+
+  @Override
+  public boolean include(@NotNull Artifact artifact) {
+    if (excludeOptional && artifact.isOptional()) {
+      return false;
+    }
+    if (excludedScopes.contains(DependencyScope.of(artifact.getScope()))) {
+      return false;
+    }
+    if (matchesAny(excludes, artifact)) {
+      return false;
+    }
+    return includes.isEmpty() || matchesAny(includes, artifact);
+  }
+
+  /**
+   * Get the selector which prunes artifacts while the dependencies are collected, so they are
+   * never resolved.
+   *
+   * @return DependencySelector or null when no artifact can be pruned by groupId and artifactId.
+   */
+  @Nullable
+  DependencySelector toSelectorOrNull() {
+    var selectorExcludes = excludes.stream().filter(pattern -> pattern.length < 3).toList();
+    var selectorIncludes =
+        includes.stream().allMatch(pattern -> pattern.length < 3) ? includes : List.<String[]>of();
+    if (selectorExcludes.isEmpty() && selectorIncludes.isEmpty()) {
+      return null;
+    }
+    return new CoordinatesSelector(selectorIncludes, selectorExcludes);
+  }
+
+  private static boolean matchesAny(@NotNull List<String[]> patterns, @NotNull Artifact artifact) {
+    return matchesAny(
+        patterns, artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+  }
+
+  private static boolean matchesAny(
+      @NotNull List<String[]> patterns,
+      @Nullable String groupId,
+      @Nullable String artifactId,
+      @Nullable String version) {
+    for (var pattern : patterns) {
+      if (matches(pattern[0], groupId)
+          && (pattern.length < 2 || matches(pattern[1], artifactId))
+          && (pattern.length < 3 || matches(pattern[2], version))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(@NotNull String pattern, @Nullable String value) {
+    if (pattern.equals(WILDCARD)) {
+      return true;
+    }
+    if (value == null) {
+      return false;
+    }
+    if (pattern.endsWith(WILDCARD)) {
+      return value.startsWith(pattern.substring(0, pattern.length() - WILDCARD.length()));
+    }
+    return pattern.equals(value);
+  }
+
+  /** Split every pattern in its groupId, artifactId and version part. */
+  @NotNull
+  private static List<String[]> parse(@NotNull Collection<String> patterns)
+      throws PluginException {
+    var parsed = new ArrayList<String[]>(patterns.size());
+    for (var pattern : patterns) {
+      var parts = pattern.split(":", -1);
+      if (parts.length > 3 || List.of(parts).contains("")) {
+        throw new PluginException(
+            pattern,
+            "invalid artifact pattern " + pattern,
+            "expected groupId[:artifactId[:version]]");
+      }
+      parsed.add(parts);
+    }
+    return List.copyOf(parsed);
+  }
+
+  /**
+   * DependencySelector which only selects the dependencies matching the includes and none of the
+   * excludes by groupId and artifactId. It is the same for every level of the tree.
+   */
+  private static final class CoordinatesSelector implements DependencySelector {
+
+    @NotNull private final List<String[]> includes;
+
+    @NotNull private final List<String[]> excludes;
+
+    private CoordinatesSelector(
+        @NotNull List<String[]> includes, @NotNull List<String[]> excludes) {
+      this.includes = includes;
+      this.excludes = excludes;
+    }
+
+    @Override
+    public boolean selectDependency(@NotNull Dependency dependency) {
+      var artifact = dependency.getArtifact();
+      var groupId = artifact.getGroupId();
+      var artifactId = artifact.getArtifactId();
+      if (matchesAny(excludes, groupId, artifactId, null)) {
+        return false;
+      }
+      return includes.isEmpty() || matchesAny(includes, groupId, artifactId, null);
+    }
+
+    @NotNull
+    @Override
+    public DependencySelector deriveChildSelector(@NotNull DependencyCollectionContext context) {
+      return this;
+    }
+  }
+}
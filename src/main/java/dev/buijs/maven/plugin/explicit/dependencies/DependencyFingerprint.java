@@ -0,0 +1,196 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.project.MavenProject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Utility to compute a checksum over everything that determines the outcome of the analysis: the
+ * project coordinates, the parent chain, the active profiles, the dependencies and
+ * dependencyManagement sections (as seen by {@link DependencyCollector}) and the plugin
+ * configuration.
+ *
+ * <p>When the checksum equals the one stored by the previous run, the previous verdict can be
+ * reused without resolving the dependency-tree again. The checksum does not cover the trees of
+ * SNAPSHOTs, version ranges and other modules of the reactor, so it is only stored for a
+ * dependency-tree without them. The same inputs without the options which
+ * only change the verdict are the key of the resolved dependency graph.
+ *
+ * @see DependencyFingerprint#FILENAME
+ * @see DependencyFingerprint#compute()
+ */
+class DependencyFingerprint {
+
+  /**
+   * The name of the file which stores the fingerprint of the last completed analysis.
+   *
+   * @see PluginContext#getMissingExplicitDependencies()
+   */
+  static final String FILENAME = "fingerprint.sha256";
+
+  /** The digest algorithm used to compute the fingerprint. */
+  private static final String ALGORITHM = "SHA-256";
+
+  /**
+   * Version of the fingerprint input format. Bump this value when the input changes, so
+   * fingerprints stored by an older plugin version are never reused.
+   */
+  private static final String FORMAT_VERSION = "4";
+
+  @NotNull private final MavenProject project;
+
+  @NotNull private final PluginConfiguration configuration;
+
+  DependencyFingerprint(
+      @NotNull final MavenProject project, @NotNull final PluginConfiguration configuration) {
+    this.project = project;
+    this.configuration = configuration;
+  }
+
+  /**
+   * Compute the fingerprint of the analysis inputs.
+   *
+   * @return String hex encoded SHA-256 checksum.
+   * @throws PluginException when the digest algorithm is not available.
+   */
+  @NotNull
+  String compute() throws PluginException {
+    return compute("verdict", configuration.getAnalysisOptions());
+  }
+
+  /**
+   * Compute the key of the resolved dependency graph, which only covers the inputs of the graph.
+   * Options which only change the verdict (like the scopes) reuse the same graph.
+   *
+   * @return String hex encoded SHA-256 checksum, which never equals the fingerprint.
+   * @throws PluginException when the digest algorithm is not available.
+   * @see DependencyGraphCache
+   */
+  @NotNull
+  String computeGraphKey() throws PluginException {
+    return compute("graph", configuration.getGraphOptions());
+  }
+
+  @NotNull
+  private String compute(@NotNull String kind, @NotNull List<String> options)
+      throws PluginException {
+    var digest = newDigest();
+    update(digest, "format", FORMAT_VERSION, kind);
+    update(digest, "project", project.getGroupId(), project.getArtifactId(), project.getVersion());
+
+    // Guard against a (malformed) parent chain which refers back to itself.
+    var parents = Collections.newSetFromMap(new IdentityHashMap<MavenProject, Boolean>());
+    for (var parent = project.getParent(); parent != null; parent = parent.getParent()) {
+      if (!parents.add(parent)) {
+        break;
+      }
+      update(digest, "parent", parent.getGroupId(), parent.getArtifactId(), parent.getVersion());
+    }
+
+    for (var profile : nullToEmpty(project.getActiveProfiles())) {
+      update(digest, "profile", profile.getId());
+    }
+
+    for (var dependency : nullToEmpty(project.getDependencies())) {
+      update(digest, "dependency", describe(dependency));
+    }
+
+    var dependenciesManaged =
+        Optional.of(project)
+            .map(MavenProject::getDependencyManagement)
+            .map(DependencyManagement::getDependencies)
+            .orElse(List.of());
+
+    for (var dependency : dependenciesManaged) {
+      update(digest, "managed", describe(dependency));
+    }
+
+    for (var option : options) {
+      update(digest, "option", option);
+    }
+
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Describe every field of a dependency which influences the resolved dependency-tree.
+   *
+   * @param dependency org.apache.maven.model.Dependency.
+   * @return String[] all dependency fields.
+   */
+  @NotNull
+  private static String[] describe(@NotNull Dependency dependency) {
+    var exclusions = new StringBuilder();
+    for (Exclusion exclusion : nullToEmpty(dependency.getExclusions())) {
+      exclusions.append(exclusion.getGroupId()).append(':').append(exclusion.getArtifactId());
+      exclusions.append(',');
+    }
+
+    return new String[] {
+      dependency.getGroupId(),
+      dependency.getArtifactId(),
+      dependency.getVersion(),
+      dependency.getType(),
+      dependency.getClassifier(),
+      dependency.getScope(),
+      String.valueOf(dependency.isOptional()),
+      exclusions.toString()
+    };
+  }
+
+  /**
+   * Add the given values to the digest. Every value is length-prefixed, so different inputs can
+   * never produce the same byte sequence.
+   */
+  private static void update(
+      @NotNull MessageDigest digest, @NotNull String label, @Nullable String... values) {
+    var builder = new StringBuilder(label);
+    for (var value : values) {
+      var safeValue = String.valueOf(value);
+      builder.append('|').append(safeValue.length()).append(':').append(safeValue);
+    }
+    builder.append('\n');
+    digest.update(builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @NotNull
+  private static MessageDigest newDigest() throws PluginException {
+    try {
+      return MessageDigest.getInstance(ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new PluginException(e, "failed to compute fingerprint", e.getMessage());
+    }
+  }
+
+  @NotNull
+  private static <T> List<T> nullToEmpty(@Nullable List<T> listOrNull) {
+    return Optional.ofNullable(listOrNull).orElse(List.of());
+  }
+}
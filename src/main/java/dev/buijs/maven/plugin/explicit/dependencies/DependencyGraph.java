@@ -0,0 +1,270 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compact representation of a resolved dependency-tree.
+ *
+ * <p>Every node is an int index in depth-first (pre-)order, where node 0 is the root. Every node
+ * refers to the id of its coordinate in a {@link CoordinateTable}, so a dependency which occurs in
+ * multiple places of the tree is stored only once. The children of all nodes are stored in one
+ * int array in compressed sparse row format: the children of node n are stored from {@code
+ * childOffsets[n]} (inclusive) until {@code childOffsets[n + 1]} (exclusive).
+ *
+ * <p>Every node is tagged with the ordinal of its {@link DependencyScope}, so the dependencies can
+ * be partitioned by scope without resolving the dependency-tree once per scope. The nodes of
+ * which the artifact is not a plain jar, e.g. a test-jar, a pom or a jar with a classifier, are
+ * tagged as well, because their coordinate alone does not identify the artifact.
+ *
+ * <p>When the graph is built with pruning enabled, only the first occurrence of a coordinate has
+ * children: every next occurrence is a leaf.
+ *
+ * <p>The graph does not refer to any maven-dependency-tree objects, so the resolved DependencyNode
+ * tree can be garbage collected once the graph is built. A graph is immutable.
+ *
+ * @see DependencyGraphNodeVisitor
+ */
+final class DependencyGraph {
+
+  /** The index of the root node. */
+  static final int ROOT = 0;
+
+  private static final DependencyScope[] SCOPES = DependencyScope.values();
+
+  @NotNull private final CoordinateTable coordinates;
+
+  /** The coordinate id of every node. */
+  @NotNull private final int[] nodeCoordinates;
+
+  /** The start of the children of every node in {@link DependencyGraph#children}. */
+  @NotNull private final int[] childOffsets;
+
+  /** The children of all nodes, grouped by parent node. */
+  @NotNull private final int[] children;
+
+  /** The {@link DependencyScope} ordinal of every node. */
+  @NotNull private final byte[] nodeScopes;
+
+  /** The nodes of which the artifact has another type than jar or has a classifier. */
+  @NotNull private final BitSet nonJarNodes;
+
+  /** Create a graph of which every node has scope compile. */
+  DependencyGraph(
+      @NotNull CoordinateTable coordinates,
+      @NotNull int[] nodeCoordinates,
+      @NotNull int[] childOffsets,
+      @NotNull int[] children) {
+    this(coordinates, nodeCoordinates, childOffsets, children, new byte[nodeCoordinates.length]);
+  }
+
+  DependencyGraph(
+      @NotNull CoordinateTable coordinates,
+      @NotNull int[] nodeCoordinates,
+      @NotNull int[] childOffsets,
+      @NotNull int[] children,
+      @NotNull byte[] nodeScopes) {
+    this(coordinates, nodeCoordinates, childOffsets, children, nodeScopes, new BitSet());
+  }
+
+  DependencyGraph(
+      @NotNull CoordinateTable coordinates,
+      @NotNull int[] nodeCoordinates,
+      @NotNull int[] childOffsets,
+      @NotNull int[] children,
+      @NotNull byte[] nodeScopes,
+      @NotNull BitSet nonJarNodes) {
+    this.coordinates = coordinates;
+    this.nodeCoordinates = nodeCoordinates;
+    this.childOffsets = childOffsets;
+    this.children = children;
+    this.nodeScopes = nodeScopes;
+    this.nonJarNodes = nonJarNodes;
+  }
+
+  /** Get the number of nodes, including the root and every duplicate occurrence. */
+  int nodeCount() {
+    return nodeCoordinates.length;
+  }
+
+  /** Get the number of unique coordinates. */
+  int coordinateCount() {
+    return coordinates.size();
+  }
+
+  /** Get the coordinate id of a node. */
+  int coordinate(int node) {
+    return nodeCoordinates[node];
+  }
+
+  /** Get the scope of a node. */
+  @NotNull
+  DependencyScope scope(int node) {
+    return SCOPES[nodeScopes[node]];
+  }
+
+  /** Check if the artifact of a node is a plain jar, without another type or a classifier. */
+  boolean isJar(int node) {
+    return !nonJarNodes.get(node);
+  }
+
+  /** Get the record of a coordinate id. */
+  @NotNull
+  DependencyRecord record(int coordinate) {
+    return coordinates.record(coordinate);
+  }
+
+  /** Get the number of children of a node. */
+  int childCount(int node) {
+    return childOffsets[node + 1] - childOffsets[node];
+  }
+
+  /** Get the child of a node at the given index (0 until childCount). */
+  int child(int node, int index) {
+    if (index < 0 || index >= childCount(node)) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return children[childOffsets[node] + index];
+  }
+
+  /**
+   * Get all dependencies in the graph except the root, sorted and without duplicates.
+   *
+   * @return Set of DependencyRecord sorted by {@link DependencyRecord#compareTo(DependencyRecord)}.
+   */
+  @NotNull
+  Set<DependencyRecord> getDependencies() {
+    var root = nodeCoordinates.length == 0 ? -1 : nodeCoordinates[ROOT];
+    var records = new DependencyRecord[coordinates.size()];
+    var count = 0;
+    for (var id = 0; id < coordinates.size(); id++) {
+      if (id != root) {
+        records[count++] = coordinates.record(id);
+      }
+    }
+
+    Arrays.sort(records, 0, count);
+    var dependencies = new LinkedHashSet<DependencyRecord>(Math.max(16, count * 4 / 3 + 1));
+    for (var index = 0; index < count; index++) {
+      dependencies.add(records[index]);
+    }
+    return dependencies;
+  }
+
+  /**
+   * Get the pool ids of all dependencies in the graph except the root, without sorting or creating
+   * a collection of records.
+   *
+   * @return BitSet of ids in the {@link DependencyRecordPool} of the graph.
+   * @see DependencyGraph#getDependencies()
+   */
+  @NotNull
+  BitSet getDependencyIds() {
+    var root = nodeCoordinates.length == 0 ? -1 : nodeCoordinates[ROOT];
+    var ids = new BitSet();
+    for (var id = 0; id < coordinates.size(); id++) {
+      if (id != root) {
+        ids.set(coordinates.poolId(id));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Get the pool ids of all dependencies in the graph except the root, partitioned by scope in a
+   * single pass over the nodes. A dependency which occurs with different scopes (which is only
+   * possible for the duplicates of a verbose tree) is in every partition.
+   *
+   * @return Map of DependencyScope to a BitSet of ids, which only contains non-empty partitions.
+   * @see DependencyGraph#getDependencyIds()
+   */
+  @NotNull
+  Map<DependencyScope, BitSet> getDependencyIdsByScope() {
+    var partitions = new BitSet[SCOPES.length];
+    for (var node = ROOT + 1; node < nodeCoordinates.length; node++) {
+      var coordinate = nodeCoordinates[node];
+      if (coordinate == nodeCoordinates[ROOT]) {
+        continue;
+      }
+      var scope = nodeScopes[node];
+      if (partitions[scope] == null) {
+        partitions[scope] = new BitSet();
+      }
+      partitions[scope].set(coordinates.poolId(coordinate));
+    }
+
+    var idsByScope = new EnumMap<DependencyScope, BitSet>(DependencyScope.class);
+    for (var scope : SCOPES) {
+      if (partitions[scope.ordinal()] != null) {
+        idsByScope.put(scope, partitions[scope.ordinal()]);
+      }
+    }
+    return idsByScope;
+  }
+
+  /**
+   * Get the pool ids of the dependencies in the graph except the root of which at least one
+   * occurrence is not a plain jar.
+   *
+   * @return BitSet of ids in the {@link DependencyRecordPool} of the graph.
+   * @see DependencyGraph#isJar(int)
+   */
+  @NotNull
+  BitSet getNonJarDependencyIds() {
+    var ids = new BitSet();
+    for (var node = nonJarNodes.nextSetBit(ROOT + 1);
+        node >= 0;
+        node = nonJarNodes.nextSetBit(node + 1)) {
+      if (nodeCoordinates[node] != nodeCoordinates[ROOT]) {
+        ids.set(coordinates.poolId(nodeCoordinates[node]));
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Get this graph with its records in another pool, so the dependency ids refer to that pool.
+   * The nodes, children, scopes and types are shared, only the coordinates are interned again.
+   *
+   * @param pool the pool of the current session.
+   * @return DependencyGraph this graph when it already uses the pool.
+   */
+  @NotNull
+  DependencyGraph withPool(@NotNull DependencyRecordPool pool) {
+    if (coordinates.pool() == pool) {
+      return this;
+    }
+
+    var table = new CoordinateTable(pool);
+    for (var id = 0; id < coordinates.size(); id++) {
+      table.intern(coordinates.record(id));
+    }
+    return new DependencyGraph(
+        table, nodeCoordinates, childOffsets, children, nodeScopes, nonJarNodes);
+  }
+}
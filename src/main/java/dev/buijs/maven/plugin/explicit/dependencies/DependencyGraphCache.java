@@ -0,0 +1,407 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persistent cache of resolved dependency graphs, which can be shared by all builds on a machine.
+ *
+ * <p>Every graph is stored in its own file, named after the {@link DependencyFingerprint} of the
+ * module. The file holds the coordinates, the nodes and children of the graph in the same
+ * compressed sparse row format as {@link DependencyGraph}, the scope of every node, the nodes
+ * which are not a plain jar and (optionally) the serialized dependency-tree. Files are
+ * memory-mapped when they are read.
+ *
+ * <p>Files are written to a temporary file and moved into place atomically, so concurrent builds
+ * never read a partial file. Reading a file marks it as recently used and the least recently used
+ * files are deleted when the cache exceeds its maximum size. A file which can not be read is
+ * treated as a cache miss: the cache never fails the build.
+ *
+ * <p>Graphs which contain a SNAPSHOT dependency are never stored, because a SNAPSHOT can change
+ * without any change to the fingerprint.
+ */
+final class DependencyGraphCache {
+
+  /** The extension of a cached graph. */
+  static final String EXTENSION = ".graph";
+
+  /** The extension of a graph which is being written. */
+  private static final String TEMP_EXTENSION = ".tmp";
+
+  /** Identifies the file format, bump the last byte when the format changes. */
+  private static final int MAGIC = 0x45444703;
+
+  /** The tree length which is stored when the dependency-tree is not available. */
+  private static final int NO_TREE = -1;
+
+  /** The size of the write buffer in bytes. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final String SNAPSHOT = "SNAPSHOT";
+
+  @NotNull private final Path directory;
+
+  private final long maxBytes;
+
+  /**
+   * Create a cache.
+   *
+   * @param directory where the graphs are stored, which is created when it does not exist.
+   * @param maxBytes the maximum total size of all stored graphs.
+   */
+  DependencyGraphCache(@NotNull Path directory, long maxBytes) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Read a cached graph.
+   *
+   * @param key the fingerprint of the module.
+   * @param pool which holds the canonical records of the graph coordinates.
+   * @return Entry or null when there is no (valid) cached graph.
+   */
+  @Nullable
+  Entry read(@NotNull String key, @NotNull DependencyRecordPool pool) {
+    var file = directory.resolve(key + EXTENSION);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try {
+      var entry = readFile(file, pool);
+      if (entry == null) {
+        Files.deleteIfExists(file);
+        return null;
+      }
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+      return entry;
+    } catch (IOException | RuntimeException e) {
+      // Evicted by a concurrent build or not readable, both are a cache miss.
+      return null;
+    }
+  }
+
+  /**
+   * Store a graph, unless it contains a SNAPSHOT dependency.
+   *
+   * @param key the fingerprint of the module.
+   * @param graph the resolved dependency graph.
+   * @param treeOrNull the serialized dependency-tree or null when it is not available.
+   * @return true when the graph is stored.
+   */
+  boolean write(@NotNull String key, @NotNull DependencyGraph graph, @Nullable String treeOrNull) {
+    if (containsSnapshot(graph)) {
+      return false;
+    }
+
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, key, TEMP_EXTENSION);
+      writeFile(temp, graph, treeOrNull);
+      IOUtil.move(temp, directory.resolve(key + EXTENSION));
+      evict();
+      return true;
+    } catch (IOException e) {
+      IOUtil.deleteQuietly(temp);
+      return false;
+    }
+  }
+
+  /** Delete the least recently used graphs until the cache does not exceed its maximum size. */
+  void evict() {
+    var files = new ArrayList<CachedFile>();
+    var totalBytes = 0L;
+    try (var stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (var file : stream) {
+        try {
+          var cached =
+              new CachedFile(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+          files.add(cached);
+          totalBytes += cached.bytes();
+        } catch (IOException e) {
+          // Deleted by a concurrent build.
+        }
+      }
+    } catch (IOException e) {
+      return;
+    }
+
+    files.sort(Comparator.comparingLong(CachedFile::lastUsed));
+    for (var file : files) {
+      if (totalBytes <= maxBytes) {
+        return;
+      }
+      IOUtil.deleteQuietly(file.path());
+      totalBytes -= file.bytes();
+    }
+  }
+
+  /**
+   * Write a graph to a file in the cache file format, without any cache bookkeeping. This is also
+   * the format of the graph snapshot which can be replayed.
+   *
+   * @param file which is created or replaced.
+   * @param graph the resolved dependency graph.
+   * @param treeOrNull the serialized dependency-tree or null when it is not stored.
+   * @throws IOException when writing the file failed.
+   * @see PluginContext#replay(Path)
+   */
+  static void writeFile(
+      @NotNull Path file, @NotNull DependencyGraph graph, @Nullable String treeOrNull)
+      throws IOException {
+    try (var output =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+      encode(output, graph, treeOrNull);
+    }
+  }
+
+  /**
+   * Read a graph from a file in the cache file format, without any cache bookkeeping. The file is
+   * memory-mapped, so only the coordinates and the nodes are copied to the heap.
+   *
+   * @param file which is written by {@link DependencyGraphCache#writeFile(Path, DependencyGraph,
+   *     String)}.
+   * @param pool which holds the canonical records of the graph coordinates.
+   * @return Entry or null when the file is not a valid graph.
+   * @throws IOException when reading the file failed.
+   */
+  @Nullable
+  static Entry readFile(@NotNull Path file, @NotNull DependencyRecordPool pool)
+      throws IOException {
+    try (var channel = FileChannel.open(file)) {
+      return decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), pool);
+    }
+  }
+
+  /** Write a graph in the cache file format. */
+  private static void encode(
+      @NotNull DataOutputStream output, @NotNull DependencyGraph graph, @Nullable String treeOrNull)
+      throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(graph.coordinateCount());
+    for (var coordinate = 0; coordinate < graph.coordinateCount(); coordinate++) {
+      var record = graph.record(coordinate);
+      writeString(output, record.groupId());
+      writeString(output, record.artifactId());
+      writeString(output, record.version());
+    }
+
+    var nodeCount = graph.nodeCount();
+    output.writeInt(nodeCount);
+    for (var node = 0; node < nodeCount; node++) {
+      output.writeInt(graph.coordinate(node));
+    }
+
+    var offset = 0;
+    for (var node = 0; node < nodeCount; node++) {
+      output.writeInt(offset);
+      offset += graph.childCount(node);
+    }
+    output.writeInt(offset);
+
+    for (var node = 0; node < nodeCount; node++) {
+      for (var index = 0; index < graph.childCount(node); index++) {
+        output.writeInt(graph.child(node, index));
+      }
+    }
+
+    for (var node = 0; node < nodeCount; node++) {
+      output.writeByte(graph.scope(node).ordinal());
+    }
+
+    var nonJarCount = 0;
+    for (var node = 0; node < nodeCount; node++) {
+      nonJarCount += graph.isJar(node) ? 0 : 1;
+    }
+    output.writeInt(nonJarCount);
+    for (var node = 0; node < nodeCount; node++) {
+      if (!graph.isJar(node)) {
+        output.writeInt(node);
+      }
+    }
+
+    if (treeOrNull == null) {
+      output.writeInt(NO_TREE);
+    } else {
+      writeString(output, treeOrNull);
+    }
+  }
+
+  /**
+   * Read a graph in the cache file format.
+   *
+   * @return Entry or null when the file is not a valid graph.
+   */
+  @Nullable
+  private static Entry decode(@NotNull ByteBuffer buffer, @NotNull DependencyRecordPool pool) {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        return null;
+      }
+
+      var coordinateCount = buffer.getInt();
+      var coordinates = new CoordinateTable(pool);
+      for (var coordinate = 0; coordinate < coordinateCount; coordinate++) {
+        var groupId = readString(buffer);
+        var artifactId = readString(buffer);
+        var version = readString(buffer);
+        if (coordinates.intern(groupId, artifactId, version) != coordinate) {
+          return null;
+        }
+      }
+
+      var nodeCount = buffer.getInt();
+      var nodeCoordinates = readInts(buffer, nodeCount);
+      var childOffsets = readInts(buffer, nodeCount + 1);
+      var children = readInts(buffer, childOffsets[nodeCount]);
+      var nodeScopes = readScopes(buffer, nodeCount);
+      var nonJarNodes = new BitSet(nodeCount);
+      for (var node : readInts(buffer, buffer.getInt())) {
+        if (node < 0 || node >= nodeCount) {
+          return null;
+        }
+        nonJarNodes.set(node);
+      }
+      if (!isValid(nodeCoordinates, coordinateCount, childOffsets, children)) {
+        return null;
+      }
+
+      var treeOrNull = buffer.getInt(buffer.position()) == NO_TREE ? null : readString(buffer);
+      var graph =
+          new DependencyGraph(
+              coordinates, nodeCoordinates, childOffsets, children, nodeScopes, nonJarNodes);
+      return new Entry(graph, treeOrNull);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Check all indices, so a corrupt file can never produce an inconsistent graph. */
+  private static boolean isValid(
+      @NotNull int[] nodeCoordinates,
+      int coordinateCount,
+      @NotNull int[] childOffsets,
+      @NotNull int[] children) {
+    for (var coordinate : nodeCoordinates) {
+      if (coordinate < 0 || coordinate >= coordinateCount) {
+        return false;
+      }
+    }
+    for (var index = 1; index < childOffsets.length; index++) {
+      if (childOffsets[index] < childOffsets[index - 1]) {
+        return false;
+      }
+    }
+    for (var child : children) {
+      if (child <= DependencyGraph.ROOT || child >= nodeCoordinates.length) {
+        return false;
+      }
+    }
+    return childOffsets[0] == 0;
+  }
+
+  /**
+   * Check if a graph contains a SNAPSHOT dependency, which can change without any change to the
+   * fingerprint. The module itself is not taken into account.
+   */
+  static boolean containsSnapshot(@NotNull DependencyGraph graph) {
+    var root = graph.nodeCount() == 0 ? -1 : graph.coordinate(DependencyGraph.ROOT);
+    for (var coordinate = 0; coordinate < graph.coordinateCount(); coordinate++) {
+      if (coordinate != root && graph.record(coordinate).version().contains(SNAPSHOT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void writeString(@NotNull DataOutputStream output, @NotNull String value)
+      throws IOException {
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  @NotNull
+  private static String readString(@NotNull ByteBuffer buffer) {
+    var length = buffer.getInt();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("invalid string length " + length);
+    }
+    var bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  @NotNull
+  private static int[] readInts(@NotNull ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining() / Integer.BYTES) {
+      throw new IllegalArgumentException("invalid array length " + length);
+    }
+    var values = new int[length];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + length * Integer.BYTES);
+    return values;
+  }
+
+  @NotNull
+  private static byte[] readScopes(@NotNull ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("invalid array length " + length);
+    }
+    var scopes = new byte[length];
+    buffer.get(scopes);
+    for (var scope : scopes) {
+      if (scope < 0 || scope >= DependencyScope.values().length) {
+        throw new IllegalArgumentException("invalid scope " + scope);
+      }
+    }
+    return scopes;
+  }
+
+  /**
+   * A cached graph.
+   *
+   * @param graph the dependency graph.
+   * @param treeOrNull the serialized dependency-tree or null when it was not stored.
+   */
+  record Entry(@NotNull DependencyGraph graph, @Nullable String treeOrNull) {}
+
+  /** A cached graph file as seen by the eviction. */
+  private record CachedFile(@NotNull Path path, long bytes, long lastUsed) {}
+}
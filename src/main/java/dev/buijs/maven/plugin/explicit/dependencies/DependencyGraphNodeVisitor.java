@@ -0,0 +1,188 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Visitor which converts a DependencyNode tree into a {@link DependencyGraph}.
+ *
+ * <p>Every visited node gets the next node index, so the indices are in depth-first order. The
+ * parent of every node is tracked with a stack of indices, which is used to build the child
+ * arrays once the traversal is completed.
+ *
+ * <p>When pruning is enabled, the subtree of a coordinate is only visited the first time the
+ * coordinate occurs. Every next occurrence is added to the graph without children, so the graph
+ * holds every unique dependency while shared subtrees (like a BOM managed stack which is used by
+ * many direct dependencies) are walked once. This assumes the subtree of a coordinate is the same
+ * wherever it occurs, which is not the case when a dependency is excluded on some paths only.
+ */
+final class DependencyGraphNodeVisitor implements DependencyNodeVisitor {
+
+  /** The type of a plain jar artifact. */
+  private static final String JAR = "jar";
+
+  @NotNull private final CoordinateTable coordinates;
+
+  /** The coordinate id of every visited node. */
+  @NotNull private int[] nodeCoordinates = new int[64];
+
+  /** The {@link DependencyScope} ordinal of every visited node. */
+  @NotNull private byte[] nodeScopes = new byte[64];
+
+  /** The parent of every visited node, -1 for the root. */
+  @NotNull private int[] parents = new int[64];
+
+  /** The nodes which are visited but not ended. */
+  @NotNull private int[] stack = new int[16];
+
+  private int nodeCount;
+
+  private int depth;
+
+  /** The visited nodes of which the artifact is not a plain jar. */
+  @NotNull private final BitSet nonJarNodes = new BitSet();
+
+  /** Skip the subtree of coordinates which are already expanded. */
+  private final boolean prune;
+
+  /** The coordinate ids of which the subtree is completely visited. */
+  @NotNull private final BitSet expanded = new BitSet();
+
+  /** True when the version of a visited node was resolved from a version range. */
+  private boolean versionRange;
+
+  /** Create a visitor with a pool of its own which visits every node. */
+  DependencyGraphNodeVisitor() {
+    this(new DependencyRecordPool(), false);
+  }
+
+  /**
+   * Create a visitor which takes the records from a shared pool.
+   *
+   * @param pool which holds the canonical records.
+   * @param prune true to skip the subtree of coordinates which are already expanded.
+   */
+  DependencyGraphNodeVisitor(@NotNull DependencyRecordPool pool, boolean prune) {
+    this.coordinates = new CoordinateTable(pool);
+    this.prune = prune;
+  }
+
+  @Override
+  public boolean visit(@NotNull DependencyNode node) {
+    if (nodeCount == nodeCoordinates.length) {
+      nodeCoordinates = Arrays.copyOf(nodeCoordinates, nodeCount * 2);
+      nodeScopes = Arrays.copyOf(nodeScopes, nodeCount * 2);
+      parents = Arrays.copyOf(parents, nodeCount * 2);
+    }
+
+    Artifact artifact = node.getArtifact();
+    var coordinate =
+        coordinates.intern(
+            artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+    nodeCoordinates[nodeCount] = coordinate;
+    nodeScopes[nodeCount] = (byte) DependencyScope.of(artifact.getScope()).ordinal();
+    if (!isJar(artifact)) {
+      nonJarNodes.set(nodeCount);
+    }
+    parents[nodeCount] = depth == 0 ? -1 : stack[depth - 1];
+    versionRange |= isVersionRange(node.getVersionConstraint());
+
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth++] = nodeCount++;
+    return !prune || !expanded.get(coordinate);
+  }
+
+  @Override
+  public boolean endVisit(@NotNull DependencyNode node) {
+    var ended = stack[--depth];
+    if (prune) {
+      expanded.set(nodeCoordinates[ended]);
+    }
+    return true;
+  }
+
+  /**
+   * Check if the version of a visited node was resolved from a version range, which can resolve
+   * to a newer version without any change to the poms of the reactor.
+   *
+   * @return true when at least one version constraint is a range like [1.0,2.0).
+   */
+  boolean hasVersionRange() {
+    return versionRange;
+  }
+
+  /**
+   * Create the graph of all visited nodes.
+   *
+   * @return DependencyGraph.
+   */
+  @NotNull
+  DependencyGraph toGraph() {
+    // Count the children per parent, then place every child at the next free offset of its
+    // parent. Nodes are processed in index order, so the children keep their tree order.
+    var childOffsets = new int[nodeCount + 1];
+    for (var node = 0; node < nodeCount; node++) {
+      if (parents[node] >= 0) {
+        childOffsets[parents[node] + 1]++;
+      }
+    }
+    for (var node = 0; node < nodeCount; node++) {
+      childOffsets[node + 1] += childOffsets[node];
+    }
+
+    var children = new int[childOffsets[nodeCount]];
+    var next = Arrays.copyOf(childOffsets, nodeCount);
+    for (var node = 0; node < nodeCount; node++) {
+      if (parents[node] >= 0) {
+        children[next[parents[node]]++] = node;
+      }
+    }
+
+    return new DependencyGraph(
+        coordinates,
+        Arrays.copyOf(nodeCoordinates, nodeCount),
+        childOffsets,
+        children,
+        Arrays.copyOf(nodeScopes, nodeCount),
+        nonJarNodes.get(0, nodeCount));
+  }
+
+  private static boolean isJar(@NotNull Artifact artifact) {
+    var typeOrNull = artifact.getType();
+    var classifierOrNull = artifact.getClassifier();
+    return (typeOrNull == null || JAR.equals(typeOrNull))
+        && (classifierOrNull == null || classifierOrNull.isEmpty());
+  }
+
+  private static boolean isVersionRange(@Nullable String constraintOrNull) {
+    return constraintOrNull != null
+        && (constraintOrNull.startsWith("[") || constraintOrNull.startsWith("("));
+  }
+}
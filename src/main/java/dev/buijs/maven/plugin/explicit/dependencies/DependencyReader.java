@@ -0,0 +1,194 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility to read the JSON files created by {@link DependencyWriter} back into DependencyRecord's.
+ *
+ * <p>The input is processed as a stream of characters, so every record is handed to the consumer
+ * as soon as it is complete.
+ *
+ * @see DependencyRecord#toString()
+ */
+class DependencyReader {
+
+  /** The error message when reading a JSON file has failed. */
+  private static final String READ_ERROR_MESSAGE = "failed to read log files";
+
+  /** The error message when a JSON file does not contain valid dependency records. */
+  private static final String PARSE_ERROR_MESSAGE = "failed to parse log files";
+
+  /**
+   * Read all records from a JSON file.
+   *
+   * @param file Path to the JSON file.
+   * @return Set of DependencyRecord in file order.
+   * @throws PluginException when reading or parsing the file failed.
+   */
+  @NotNull
+  Set<DependencyRecord> read(@NotNull Path file) throws PluginException {
+    var records = new LinkedHashSet<DependencyRecord>();
+    read(file, records::add);
+    return records;
+  }
+
+  /**
+   * Read all records from a JSON file and pass them one by one to the consumer.
+   *
+   * @param file Path to the JSON file.
+   * @param consumer which receives every record in file order.
+   * @throws PluginException when reading or parsing the file failed.
+   */
+  void read(@NotNull Path file, @NotNull Consumer<DependencyRecord> consumer)
+      throws PluginException {
+    read(
+        file,
+        (CoordinateConsumer)
+            (groupId, artifactId, version) ->
+                consumer.accept(new DependencyRecord(groupId, artifactId, version)));
+  }
+
+  /**
+   * Read the ids of all records from a JSON file. Every record is interned in the pool as soon as
+   * it is parsed, so the file is never held in memory as a whole.
+   *
+   * @param file Path to the JSON file.
+   * @param pool which assigns the ids.
+   * @return BitSet where the id of every record is set.
+   * @throws PluginException when reading or parsing the file failed.
+   * @see DependencyRecordPool#symbol(String, String, String)
+   */
+  @NotNull
+  BitSet readIds(@NotNull Path file, @NotNull DependencyRecordPool pool) throws PluginException {
+    var ids = new BitSet();
+    read(
+        file,
+        (CoordinateConsumer)
+            (groupId, artifactId, version) ->
+                ids.set(pool.symbol(groupId, artifactId, version).id()));
+    return ids;
+  }
+
+  private void read(@NotNull Path file, @NotNull CoordinateConsumer consumer)
+      throws PluginException {
+    try (var reader = newReader(file)) {
+      parse(reader, consumer);
+    } catch (IOException e) {
+      throw new PluginException(e, READ_ERROR_MESSAGE, e.getMessage());
+    }
+  }
+
+  /** Open a reader which transparently decompresses files written with compression enabled. */
+  @NotNull
+  private static Reader newReader(@NotNull Path file) throws IOException {
+    if (!file.getFileName().toString().endsWith(DependencyWriter.GZIP_EXTENSION)) {
+      return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    var input = Files.newInputStream(file);
+    try {
+      return new BufferedReader(
+          new InputStreamReader(new GZIPInputStream(input), StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Parse a JSON array of flat objects with string values. The coordinate of every completed
+   * object is passed to the consumer.
+   */
+  private void parse(@NotNull Reader reader, @NotNull CoordinateConsumer consumer)
+      throws IOException, PluginException {
+    var fields = new HashMap<String, String>();
+    var token = new StringBuilder();
+    String key = null;
+    int next;
+    while ((next = reader.read()) != -1) {
+      switch (next) {
+        case '"' -> {
+          readString(reader, token);
+          if (key == null) {
+            key = token.toString();
+          } else {
+            fields.put(key, token.toString());
+            key = null;
+          }
+        }
+        case '}' -> {
+          accept(fields, consumer);
+          fields.clear();
+        }
+        default -> {
+          // Structural characters and whitespace carry no information.
+        }
+      }
+    }
+  }
+
+  /** Read the characters of a JSON string, the opening quote is already consumed. */
+  private static void readString(@NotNull Reader reader, @NotNull StringBuilder token)
+      throws IOException, PluginException {
+    token.setLength(0);
+    int next;
+    while ((next = reader.read()) != '"') {
+      if (next == -1) {
+        throw new PluginException(token, PARSE_ERROR_MESSAGE, "unterminated string");
+      }
+      token.append((char) next);
+    }
+  }
+
+  private static void accept(
+      @NotNull Map<String, String> fields, @NotNull CoordinateConsumer consumer)
+      throws PluginException {
+    var groupId = fields.get("groupId");
+    var artifactId = fields.get("artifactId");
+    var version = fields.get("version");
+    if (groupId == null || artifactId == null || version == null) {
+      throw new PluginException(fields, PARSE_ERROR_MESSAGE, "incomplete dependency record");
+    }
+    consumer.accept(groupId, artifactId, version);
+  }
+
+  /** Receives the coordinate of every parsed record. */
+  @FunctionalInterface
+  private interface CoordinateConsumer {
+    void accept(@NotNull String groupId, @NotNull String artifactId, @NotNull String version);
+  }
+}
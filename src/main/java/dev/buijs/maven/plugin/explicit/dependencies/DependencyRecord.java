@@ -20,26 +20,69 @@
  */
 package dev.buijs.maven.plugin.explicit.dependencies;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Data class for storing dependency information.
  *
- * @param groupId the dependency groupId (com.example).
- * @param artifactId the dependency artifactId (library-foo).
- * @param version the dependency version (format major.minor.patch 1.0.0 or with suffix
- *     1.0.0-SNAPSHOT etc.)
+ * <p>The version is parsed once when the record is created, so sorting a collection of records
+ * does not parse or allocate anything.
+ *
+ * @see DependencyVersion
  */
-public record DependencyRecord(
-    @NotNull String groupId, @NotNull String artifactId, @NotNull String version)
-    implements Comparable<DependencyRecord> {
+public final class DependencyRecord implements Comparable<DependencyRecord> {
+
+  /** The dependency groupId (com.example). */
+  @NotNull private final String groupId;
+
+  /** The dependency artifactId (library-foo). */
+  @NotNull private final String artifactId;
+
+  /**
+   * The dependency version (format major.minor.patch 1.0.0 or with suffix 1.0.0-SNAPSHOT etc.)
+   */
+  @NotNull private final String version;
+
+  /** The parsed version which is used to order records. */
+  @NotNull private final DependencyVersion versionKey;
+
+  /**
+   * Create a new record.
+   *
+   * @param groupId the dependency groupId (com.example).
+   * @param artifactId the dependency artifactId (library-foo).
+   * @param version the dependency version (format major.minor.patch 1.0.0 or with suffix
+   *     1.0.0-SNAPSHOT etc.)
+   */
+  public DependencyRecord(
+      @NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+    this.groupId = groupId;
+    this.artifactId = artifactId;
+    this.version = version;
+    this.versionKey = DependencyVersion.parse(version);
+  }
+
+  @NotNull
+  public String groupId() {
+    return groupId;
+  }
+
+  @NotNull
+  public String artifactId() {
+    return artifactId;
+  }
+
+  @NotNull
+  public String version() {
+    return version;
+  }
 
   /**
    * Compare logic to order a collection of records alphabetically and then from newest to oldest
    * version. <br>
    *
-   * @see DependencyRecord.INNER#compareByVersion(String, String)
+   * @see DependencyVersion#compareTo(DependencyVersion)
    * @param other the object to be compared.
    * @return int (negative) number of priority.
    */
@@ -55,103 +98,77 @@ public record DependencyRecord(
       return artifactCompare;
     }
 
-    return INNER.compareByVersion(this.version, other.version);
+    return this.versionKey.compareTo(other.versionKey);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+
+    return other instanceof DependencyRecord that
+        && groupId.equals(that.groupId)
+        && artifactId.equals(that.artifactId)
+        && version.equals(that.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * groupId.hashCode() + artifactId.hashCode()) + version.hashCode();
   }
 
   @Override
   public String toString() {
-    return INNER.toJson(this);
+    var json = new StringBuilder(64 + groupId.length() + artifactId.length() + version.length());
+    try {
+      writeJson(json);
+    } catch (IOException e) {
+      // StringBuilder never throws IOException.
+      throw new IllegalStateException(e);
+    }
+    return json.toString();
+  }
+
+  /**
+   * Append this record as JSON without creating intermediate strings.
+   *
+   * @param output where the JSON is appended to.
+   * @throws IOException when appending to the output failed.
+   * @see DependencyWriter#writeNewFile(String, java.util.Collection)
+   */
+  void writeJson(@NotNull Appendable output) throws IOException {
+    output
+        .append(INNER.JSON_GROUP_ID)
+        .append(groupId)
+        .append(INNER.JSON_ARTIFACT_ID)
+        .append(artifactId)
+        .append(INNER.JSON_VERSION)
+        .append(version)
+        .append(INNER.JSON_END);
   }
 
   // Inner static class is used to hide the details from the record instance.
   private static class INNER {
     /**
-     * Serialization template to store the information as JSON.
+     * Serialization fragments to store the information as JSON. Every record is written as:
      *
-     * @see DependencyRecord#toString()
-     */
-    private static final String JSON_TEMPLATE =
-        """
-              {
-              "groupId": "%s",
-              "artifactId": "%s",
-              "version": "%s"
-              }""";
-
-    /**
-     * Name of the first regex group.
+     * <pre>
+     * {
+     * "groupId": "...",
+     * "artifactId": "...",
+     * "version": "..."
+     * }
+     * </pre>
      *
-     * @see DependencyRecord.INNER#SEMANTIC_VERSION_PATTERN
+     * @see DependencyRecord#writeJson(Appendable)
      */
-    private static final String SEMANTIC_VERSION_PATTERN_GROUP_VERSION = "version";
+    private static final String JSON_GROUP_ID = "{\n\"groupId\": \"";
 
-    /**
-     * Name of the second regex group.
-     *
-     * @see DependencyRecord.INNER#SEMANTIC_VERSION_PATTERN
-     */
-    private static final String SEMANTIC_VERSION_PATTERN_GROUP_SUFFIX = "suffix";
+    private static final String JSON_ARTIFACT_ID = "\",\n\"artifactId\": \"";
 
-    /**
-     * Regex pattern to check if a dependency uses a semantic version.
-     *
-     * @see DependencyRecord#compareTo
-     */
-    private static final Pattern SEMANTIC_VERSION_PATTERN =
-        Pattern.compile(
-            "^(?<"
-                + SEMANTIC_VERSION_PATTERN_GROUP_VERSION
-                + ">\\d+\\.\\d+.\\d+)(?<"
-                + SEMANTIC_VERSION_PATTERN_GROUP_SUFFIX
-                + ">.*)$");
+    private static final String JSON_VERSION = "\",\n\"version\": \"";
 
-    /**
-     * Compare two dependency versions where the newest version has higher priority. Versions
-     * without suffix are preferred. E.g. when comparing 1.0.2 and 1.0.2-SNAPSHOT, 1.0.2 is given a
-     * higher priority than 1.0.2-SNAPSHOT.
-     *
-     * @see DependencyRecord#compareTo
-     */
-    private static int compareByVersion(@NotNull String thisVersion, @NotNull String otherVersion) {
-      var thisVersionMatcher = INNER.SEMANTIC_VERSION_PATTERN.matcher(thisVersion);
-      var thisIsSemanticallyVersioned = thisVersionMatcher.find();
-      if (!thisIsSemanticallyVersioned) {
-        return thisVersion.compareTo(otherVersion);
-      }
-
-      var otherVersionMatcher = INNER.SEMANTIC_VERSION_PATTERN.matcher(otherVersion);
-      var otherIsSemanticallyVersioned = otherVersionMatcher.find();
-      if (!otherIsSemanticallyVersioned) {
-        return thisVersion.compareTo(otherVersion);
-      }
-
-      var thisVersionWithoutSuffix =
-          thisVersionMatcher.group(SEMANTIC_VERSION_PATTERN_GROUP_VERSION);
-
-      var otherVersionWithoutSuffix =
-          otherVersionMatcher.group(SEMANTIC_VERSION_PATTERN_GROUP_VERSION);
-
-      var versionComparison = otherVersionWithoutSuffix.compareTo(thisVersionWithoutSuffix);
-      if (versionComparison != 0) {
-        return versionComparison;
-      }
-
-      var thisSuffixOrNull = thisVersionMatcher.group(SEMANTIC_VERSION_PATTERN_GROUP_SUFFIX);
-      if (thisSuffixOrNull.isEmpty()) {
-        return otherVersion.compareTo(thisVersionWithoutSuffix);
-      }
-
-      var otherSuffixOrNull = otherVersionMatcher.group(SEMANTIC_VERSION_PATTERN_GROUP_SUFFIX);
-      if (otherSuffixOrNull.isEmpty()) {
-        return thisVersion.compareTo(otherVersionWithoutSuffix);
-      }
-
-      return otherSuffixOrNull.compareTo(thisSuffixOrNull);
-    }
-
-    @NotNull
-    private static String toJson(@NotNull DependencyRecord record) {
-      return JSON_TEMPLATE.formatted(record.groupId, record.artifactId, record.version);
-    }
+    private static final String JSON_END = "\"\n}";
   }
 }
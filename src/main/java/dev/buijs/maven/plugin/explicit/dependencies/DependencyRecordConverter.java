@@ -28,10 +28,30 @@ import org.jetbrains.annotations.NotNull;
  * Utility to convert org.apache.maven.artifact.Artifact and org.apache.maven.model.Dependency to
  * DependencyRecord.
  *
+ * <p>Records are taken from a {@link DependencyRecordPool}, so converting the same coordinates
+ * multiple times returns the same record instance.
+ *
  * @see DependencyRecord
  */
 public class DependencyRecordConverter {
 
+  @NotNull private final DependencyRecordPool pool;
+
+  /** Create a converter with a pool of its own. */
+  public DependencyRecordConverter() {
+    this(new DependencyRecordPool());
+  }
+
+  /**
+   * Create a converter which shares a pool.
+   *
+   * @param pool which holds the canonical records.
+   * @see DependencyRecordPool#forSession(org.apache.maven.execution.MavenSession)
+   */
+  DependencyRecordConverter(@NotNull DependencyRecordPool pool) {
+    this.pool = pool;
+  }
+
   /**
    * Convert org.apache.maven.artifact.Artifact to DependencyRecord.
    *
@@ -40,8 +60,7 @@ public class DependencyRecordConverter {
    */
   @NotNull
   DependencyRecord convert(@NotNull Artifact artifact) {
-    return new DependencyRecord(
-        artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+    return pool.get(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
   }
 
   /**
@@ -52,7 +71,6 @@ public class DependencyRecordConverter {
    */
   @NotNull
   DependencyRecord convert(@NotNull Dependency dependency) {
-    return new DependencyRecord(
-        dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+    return pool.get(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
   }
 }
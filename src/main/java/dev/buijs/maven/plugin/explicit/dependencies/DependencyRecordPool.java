@@ -0,0 +1,282 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.maven.execution.MavenSession;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Pool which returns one canonical DependencyRecord per groupId:artifactId:version.
+ *
+ * <p>In a reactor build most modules share the same libraries. The pool is shared by all modules
+ * of a session, so every coordinate is stored (and its version parsed) only once. Looking up a
+ * coordinate which is already pooled does not allocate anything.
+ *
+ * <p>The pool is also the symbol table of the session: every record gets a dense int id in order
+ * of first appearance. A set of dependencies can then be stored as a {@link BitSet} of ids, so
+ * comparing the dependencies of a module (or of many modules) is a word-wise operation instead of
+ * a hash lookup per record.
+ *
+ * <p>A pool is safe for concurrent use.
+ *
+ * @see DependencyRecordPool#forSession(MavenSession)
+ */
+final class DependencyRecordPool {
+
+  /** The message which describes the pool metrics. */
+  private static final String METRICS_TEMPLATE = "record pool: %d records, %d lookups, %.1f%% hits";
+
+  /**
+   * The pool of every session by the session and by its request, which is released together with
+   * the session. A parallel build clones the session for every module, but all clones share the
+   * request.
+   */
+  private static final Map<Object, DependencyRecordPool> SESSION_POOLS = new WeakHashMap<>();
+
+  /** The symbols by groupId, artifactId and version. */
+  @NotNull
+  private final Map<String, Map<String, Map<String, Symbol>>> symbols = new ConcurrentHashMap<>();
+
+  /** The records by id, which is guarded by its own monitor. */
+  @NotNull private final List<DependencyRecord> recordsById = new ArrayList<>();
+
+  @NotNull private final LongAdder hits = new LongAdder();
+
+  @NotNull private final LongAdder misses = new LongAdder();
+
+  /**
+   * Get the pool which is shared by all modules in a session, including the clones of the session
+   * which are made for every module of a parallel build.
+   *
+   * @param session the current maven session.
+   * @return DependencyRecordPool of the session.
+   */
+  @NotNull
+  static DependencyRecordPool forSession(@NotNull MavenSession session) {
+    synchronized (SESSION_POOLS) {
+      var pool = SESSION_POOLS.get(session);
+      if (pool == null) {
+        var request = session.getRequest();
+        pool =
+            request != null
+                ? SESSION_POOLS.computeIfAbsent(request, key -> new DependencyRecordPool())
+                : new DependencyRecordPool();
+        SESSION_POOLS.put(session, pool);
+      }
+      return pool;
+    }
+  }
+
+  /**
+   * Get the canonical record of a coordinate and create it when it is not pooled yet.
+   *
+   * @return DependencyRecord which is the same instance for every lookup of the coordinate.
+   */
+  @NotNull
+  DependencyRecord get(
+      @NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+    return symbol(groupId, artifactId, version).record();
+  }
+
+  /**
+   * Get the canonical record and the id of a coordinate and create them when the coordinate is not
+   * pooled yet.
+   *
+   * @return Symbol which is the same instance for every lookup of the coordinate.
+   */
+  @NotNull
+  Symbol symbol(@NotNull String groupId, @NotNull String artifactId, @NotNull String version) {
+    return symbol(groupId, artifactId, version, null);
+  }
+
+  /**
+   * Get the canonical record and the id of a record, which is pooled as-is when the coordinate is
+   * not pooled yet. This shares records between pools, e.g. when a graph of a previous session is
+   * reused.
+   *
+   * @param record any record.
+   * @return Symbol which is the same instance for every lookup of the coordinate.
+   */
+  @NotNull
+  Symbol symbol(@NotNull DependencyRecord record) {
+    return symbol(record.groupId(), record.artifactId(), record.version(), record);
+  }
+
+  @NotNull
+  private Symbol symbol(
+      @NotNull String groupId,
+      @NotNull String artifactId,
+      @NotNull String version,
+      @Nullable DependencyRecord recordOrNull) {
+    var versions =
+        symbols
+            .computeIfAbsent(groupId, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(artifactId, key -> new ConcurrentHashMap<>());
+
+    var symbol = versions.get(version);
+    if (symbol != null) {
+      hits.increment();
+      return symbol;
+    }
+
+    // Another thread can pool the coordinate first, which is a hit and not a miss.
+    var created = new boolean[1];
+    symbol =
+        versions.computeIfAbsent(
+            version,
+            key -> {
+              created[0] = true;
+              return newSymbol(
+                  recordOrNull != null
+                      ? recordOrNull
+                      : new DependencyRecord(groupId, artifactId, version));
+            });
+    (created[0] ? misses : hits).increment();
+    return symbol;
+  }
+
+  /**
+   * Get the id of a record, which is pooled when it is not pooled yet.
+   *
+   * @param record any record with the coordinate, not necessarily the pooled instance.
+   * @return int id of the coordinate.
+   */
+  int id(@NotNull DependencyRecord record) {
+    return symbol(record.groupId(), record.artifactId(), record.version()).id();
+  }
+
+  /**
+   * Get the pooled record of an id.
+   *
+   * @param id returned by {@link DependencyRecordPool#id(DependencyRecord)}.
+   * @return DependencyRecord.
+   */
+  @NotNull
+  DependencyRecord record(int id) {
+    synchronized (recordsById) {
+      return recordsById.get(id);
+    }
+  }
+
+  /**
+   * Get the ids of a collection of records.
+   *
+   * @param dependencies Collection of DependencyRecord.
+   * @return BitSet where the id of every record is set.
+   */
+  @NotNull
+  BitSet ids(@NotNull Collection<DependencyRecord> dependencies) {
+    var ids = new BitSet();
+    for (var dependency : dependencies) {
+      ids.set(id(dependency));
+    }
+    return ids;
+  }
+
+  /**
+   * Get the pooled records of a set of ids.
+   *
+   * @param ids BitSet of record ids.
+   * @return Set of DependencyRecord sorted by {@link DependencyRecord#compareTo(DependencyRecord)}.
+   */
+  @NotNull
+  Set<DependencyRecord> records(@NotNull BitSet ids) {
+    var sorted = new DependencyRecord[ids.cardinality()];
+    synchronized (recordsById) {
+      var index = 0;
+      for (var id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+        sorted[index++] = recordsById.get(id);
+      }
+    }
+
+    Arrays.sort(sorted);
+    var dependencies = new LinkedHashSet<DependencyRecord>(Math.max(16, sorted.length * 4 / 3 + 1));
+    dependencies.addAll(Arrays.asList(sorted));
+    return dependencies;
+  }
+
+  /** Get the number of pooled records. */
+  long size() {
+    synchronized (recordsById) {
+      return recordsById.size();
+    }
+  }
+
+  /** Get the number of lookups which returned a pooled record. */
+  long hits() {
+    return hits.sum();
+  }
+
+  /** Get the number of lookups which created a new record. */
+  long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the fraction of lookups which returned a pooled record.
+   *
+   * @return double between 0 and 1, or 0 when nothing was looked up.
+   */
+  double hitRate() {
+    var hitCount = hits();
+    var total = hitCount + misses();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Describe the pool metrics.
+   *
+   * @return String like "record pool: 120 records, 4800 lookups, 97.5% hits".
+   */
+  @NotNull
+  String describeMetrics() {
+    return String.format(METRICS_TEMPLATE, size(), hits() + misses(), hitRate() * 100);
+  }
+
+  /** Assign the next id to a new record. */
+  @NotNull
+  private Symbol newSymbol(@NotNull DependencyRecord record) {
+    synchronized (recordsById) {
+      recordsById.add(record);
+      return new Symbol(record, recordsById.size() - 1);
+    }
+  }
+
+  /**
+   * The canonical record of a coordinate and its id in the pool.
+   *
+   * @param record the pooled record.
+   * @param id the dense id of the record, starting at 0.
+   */
+  record Symbol(@NotNull DependencyRecord record, int id) {}
+}
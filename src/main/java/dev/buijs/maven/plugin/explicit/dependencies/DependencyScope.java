@@ -0,0 +1,141 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The maven scope of a node in the {@link DependencyGraph}.
+ *
+ * <p>The ordinal is stored per node, so constants may only be appended.
+ */
+enum DependencyScope {
+  COMPILE("Compile"),
+  PROVIDED("Provided"),
+  RUNTIME("Runtime"),
+  TEST("Test"),
+  SYSTEM("System");
+
+  /** The prefix of the JSON file with the missing dependencies of a scope. */
+  private static final String JSON_FILENAME_PREFIX = "dependenciesMissing";
+
+  @NotNull private final String suffix;
+
+  DependencyScope(@NotNull String suffix) {
+    this.suffix = suffix;
+  }
+
+  /**
+   * Get the scope of an artifact.
+   *
+   * @param scopeOrNull the scope as it is set on the artifact.
+   * @return DependencyScope which is COMPILE when the scope is not set or not known (like import).
+   */
+  @NotNull
+  static DependencyScope of(@Nullable String scopeOrNull) {
+    var parsedOrNull = scopeOrNull == null ? null : parseOrNull(scopeOrNull);
+    return parsedOrNull == null ? COMPILE : parsedOrNull;
+  }
+
+  /**
+   * Parse the configured scopes.
+   *
+   * @param namesOrNull the names of the scopes, like compile and runtime.
+   * @return Set of DependencyScope which is empty when no names are configured.
+   * @throws PluginException when a name is not a known scope.
+   */
+  @NotNull
+  static Set<DependencyScope> parse(@Nullable Collection<String> namesOrNull)
+      throws PluginException {
+    var scopes = EnumSet.noneOf(DependencyScope.class);
+    if (namesOrNull != null) {
+      for (var name : namesOrNull) {
+        if (name == null || name.isBlank()) {
+          continue;
+        }
+        var scopeOrNull = parseOrNull(name.trim().toLowerCase(Locale.ROOT));
+        if (scopeOrNull == null) {
+          throw new PluginException(name, "unknown scope " + name, "expected one of " + ids());
+        }
+        scopes.add(scopeOrNull);
+      }
+    }
+    return scopes;
+  }
+
+  /**
+   * Get the union of the dependency ids of some scopes.
+   *
+   * @param idsByScope BitSet of dependency ids per scope.
+   * @param scopes the scopes which are included.
+   * @return BitSet which is a new instance.
+   */
+  @NotNull
+  static BitSet union(
+      @NotNull Map<DependencyScope, BitSet> idsByScope, @NotNull Set<DependencyScope> scopes) {
+    var ids = new BitSet();
+    idsByScope.forEach(
+        (scope, scopeIds) -> {
+          if (scopes.contains(scope)) {
+            ids.or(scopeIds);
+          }
+        });
+    return ids;
+  }
+
+  /** Get the scope as it is written in the pom, like compile. */
+  @NotNull
+  String id() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /** Get the name of the JSON file with the missing dependencies of this scope. */
+  @NotNull
+  String getJsonFilename() {
+    return JSON_FILENAME_PREFIX + suffix + ".json";
+  }
+
+  @Nullable
+  private static DependencyScope parseOrNull(@NotNull String id) {
+    for (var scope : values()) {
+      if (scope.id().equals(id)) {
+        return scope;
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  private static String ids() {
+    var ids = new StringBuilder();
+    for (var scope : values()) {
+      ids.append(ids.length() == 0 ? "" : ", ").append(scope.id());
+    }
+    return ids.toString();
+  }
+}
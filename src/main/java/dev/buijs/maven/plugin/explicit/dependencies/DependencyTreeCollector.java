@@ -20,19 +20,23 @@
  */
 package dev.buijs.maven.plugin.explicit.dependencies;
 
+import java.io.IOException;
 import java.io.StringWriter;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
-import org.apache.maven.shared.dependency.graph.traversal.BuildingDependencyNodeVisitor;
-import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor;
 import org.apache.maven.shared.dependency.graph.traversal.SerializingDependencyNodeVisitor;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.util.graph.selector.AndDependencySelector;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility to find all dependencies which are used in the maven project. The dependency-tree output
@@ -60,27 +64,63 @@ class DependencyTreeCollector {
    */
   @NotNull private static final String JSON_TREE_FLAT_FILENAME = "dependencyTreeFlattened.json";
 
+  /** The error message when the dependency-tree is resolved without a graph builder. */
+  @NotNull
+  private static final String NO_GRAPH_BUILDER_ERROR_MESSAGE =
+      "failed to build dependency-tree graph";
+
+  /**
+   * The name of the binary graph snapshot, which is only written when it is enabled.
+   *
+   * @see PluginConfiguration#isGraphSnapshot()
+   * @see DependencyGraphCache#writeFile(java.nio.file.Path, DependencyGraph, String)
+   */
+  @NotNull static final String GRAPH_SNAPSHOT_FILENAME = "dependencyGraph.graph";
+
   @NotNull private final MavenProject project;
 
   @NotNull private final MavenSession session;
 
-  @NotNull private final DependencyGraphBuilder graphBuilder;
-
-  @NotNull private final DependencyRecordConverter converter;
+  /** The builder which resolves the dependency-tree, or null when it may not be resolved. */
+  @Nullable private final DependencyGraphBuilder graphBuilderOrNull;
 
   @NotNull private final DependencyWriter writer;
 
+  @NotNull private final PluginConfiguration configuration;
+
+  @NotNull private final PhaseMetrics metrics;
+
+  /**
+   * True when the last graph can not change without a change to the pom of this module.
+   *
+   * @see DependencyTreeCollector#isStable()
+   */
+  private boolean stable = true;
+
+  /** The ids of the dependencies of the last graph which are not a plain jar. */
+  @NotNull private BitSet nonJarIds = new BitSet();
+
   DependencyTreeCollector(
       @NotNull final MavenProject project,
       @NotNull final MavenSession session,
       @NotNull final DependencyGraphBuilder graphBuilder,
-      @NotNull final DependencyRecordConverter converter,
       @NotNull final DependencyWriter writer) {
+    this(project, session, graphBuilder, writer, new PluginConfiguration(), new PhaseMetrics());
+  }
+
+  DependencyTreeCollector(
+      @NotNull final MavenProject project,
+      @NotNull final MavenSession session,
+      @Nullable final DependencyGraphBuilder graphBuilderOrNull,
+      @NotNull final DependencyWriter writer,
+      @NotNull final PluginConfiguration configuration,
+      @NotNull final PhaseMetrics metrics) {
     this.project = project;
     this.session = session;
-    this.graphBuilder = graphBuilder;
-    this.converter = converter;
+    this.graphBuilderOrNull = graphBuilderOrNull;
     this.writer = writer;
+    this.configuration = configuration;
+    this.metrics = metrics;
   }
 
   /**
@@ -93,77 +133,322 @@ class DependencyTreeCollector {
    */
   @NotNull
   Set<DependencyRecord> getDependencies() throws PluginException {
-    var rootNode = getRootNode();
-    var records = collectDependencyTree(rootNode);
-    removeRootNodeFromCollection(records, rootNode);
-    writer.writeNewFile(TXT_TREE_FILENAME, serializeDependencyTree(rootNode));
-    writer.writeNewFile(JSON_TREE_FLAT_FILENAME, records);
+    var graph = getDependencyGraph();
+    var records = metrics.measure(PhaseMetrics.SORT, graph::getDependencies);
+    metrics.run(PhaseMetrics.WRITE, () -> writer.writeNewFile(JSON_TREE_FLAT_FILENAME, records));
     return records;
   }
 
   /**
-   * Get the maven project root node, which is used to find all dependencies.
+   * Collect the ids of all dependencies which are used in this maven project, partitioned by
+   * scope. The dependency-tree is resolved once for all scopes.
    *
-   * @return DependencyNode the root node of this maven project.
-   * @throws PluginException when finding the root node failed.
+   * @return Map of DependencyScope to a BitSet of the dependency ids in the {@link
+   *     DependencyRecordPool} of the session, which only contains non-empty partitions.
+   * @throws PluginException when storing the output failed.
+   * @see DependencyTreeCollector#getDependencies()
    */
   @NotNull
-  private DependencyNode getRootNode() throws PluginException {
-    var request = session.getProjectBuildingRequest();
-    var buildingRequest = new DefaultProjectBuildingRequest(request);
-    buildingRequest.setProject(project);
+  Map<DependencyScope, BitSet> getDependencyIdsByScope() throws PluginException {
+    var graph = getDependencyGraph();
+    writeFlattenedTree(graph);
+    return graph.getDependencyIdsByScope();
+  }
 
-    try {
-      return graphBuilder.buildDependencyGraph(buildingRequest, null);
-    } catch (DependencyGraphBuilderException e) {
-      throw new PluginException(e, "failed to build dependency-tree graph", e.getMessage());
+  /** Sort and write the dependencies of the graph, unless the flattened tree is disabled. */
+  private void writeFlattenedTree(@NotNull DependencyGraph graph) throws PluginException {
+    if (writer.isEnabled(JSON_TREE_FLAT_FILENAME)) {
+      var records = metrics.measure(PhaseMetrics.SORT, graph::getDependencies);
+      metrics.run(PhaseMetrics.WRITE, () -> writer.writeNewFile(JSON_TREE_FLAT_FILENAME, records));
     }
   }
 
   /**
-   * Collect all dependencies for this maven project.
+   * Resolve the dependency-tree and convert it to a compact {@link DependencyGraph}. The
+   * DependencyNode tree is not referenced after this method returns.
+   *
+   * <p>The dependency-tree is traversed once: the same traversal builds the graph and serializes
+   * the tree. The tree is not serialized at all when its report is disabled.
+   *
+   * <p>When the warm cache or the graph cache is enabled, a graph which was resolved by a previous
+   * build with the same graph key is reused instead: first from memory, then from disk. It is only
+   * reused for the dependencyTree report when the serialized tree is cached as well. A graph is
+   * only cached when it can not change without a change to its key.
    *
-   * @param rootNode DependencyNode the main artifact which itself should not be reported.
-   * @return Set of DependencyRecord containing all dependencies of this maven project.
+   * <p>The graph is written as binary snapshot when {@link PluginConfiguration#isGraphSnapshot()}
+   * is enabled.
+   *
+   * @return DependencyGraph of this maven project.
+   * @throws PluginException when the dependency-tree can not be created or stored.
+   * @see DependencyTreeCollector#TXT_TREE_FILENAME
+   * @see DependencyGraphCache
+   * @see WarmCache#GRAPHS
+   * @see PluginEvents.DependencyTree
    */
   @NotNull
-  private Set<DependencyRecord> collectDependencyTree(@NotNull DependencyNode rootNode) {
-    var collection = new ArrayList<DependencyRecord>();
-    DependencyNodeVisitor visitor = new DependencyTreeNodeVisitor(collection, converter);
-    visitor = new BuildingDependencyNodeVisitor(visitor);
-    rootNode.accept(visitor);
-    return collection.stream().sorted().collect(Collectors.toCollection(LinkedHashSet::new));
+  DependencyGraph getDependencyGraph() throws PluginException {
+    var event = new PluginEvents.DependencyTree();
+    event.begin();
+    var graph = getCachedOrResolvedGraph(event);
+    nonJarIds = graph.getNonJarDependencyIds();
+    event.end();
+    if (event.shouldCommit()) {
+      event.moduleId = PluginContext.moduleId(project);
+      event.nodeCount = graph.nodeCount();
+      event.dependencyCount = graph.coordinateCount();
+      event.pruned = configuration.isPruneDuplicateSubtrees();
+      event.commit();
+    }
+    if (configuration.isGraphSnapshot() && writer.isEnabled(GRAPH_SNAPSHOT_FILENAME)) {
+      metrics.run(PhaseMetrics.WRITE, () -> writeGraphSnapshot(graph));
+    }
+    return graph;
+  }
+
+  @NotNull
+  private DependencyGraph getCachedOrResolvedGraph(@NotNull PluginEvents.DependencyTree event)
+      throws PluginException {
+    var serializeTree = writer.isEnabled(TXT_TREE_FILENAME);
+    stable = true;
+    if (!configuration.isWarmCache() && !configuration.isGraphCache()) {
+      var resolved = resolveDependencyGraph(serializeTree);
+      stable = isCacheable(resolved);
+      return resolved.entry().graph();
+    }
+
+    var key = new DependencyFingerprint(project, configuration).computeGraphKey();
+    var pool = DependencyRecordPool.forSession(session);
+    if (configuration.isWarmCache()) {
+      var warmOrNull = metrics.measure(PhaseMetrics.GRAPH_CACHE, () -> WarmCache.GRAPHS.get(key));
+      if (isUsable(warmOrNull, serializeTree)) {
+        var graph =
+            metrics.measure(PhaseMetrics.GRAPH_CACHE, () -> warmOrNull.graph().withPool(pool));
+        return useCached(new DependencyGraphCache.Entry(graph, warmOrNull.treeOrNull()), event);
+      }
+    }
+
+    var cache =
+        new DependencyGraphCache(
+            configuration.getGraphCacheDirectory(), configuration.getGraphCacheMaxBytes());
+    if (configuration.isGraphCache()) {
+      var cachedOrNull = metrics.measure(PhaseMetrics.GRAPH_CACHE, () -> cache.read(key, pool));
+      if (isUsable(cachedOrNull, serializeTree)) {
+        putWarm(key, cachedOrNull);
+        return useCached(cachedOrNull, event);
+      }
+    }
+
+    var resolved = resolveDependencyGraph(serializeTree);
+    stable = isCacheable(resolved);
+    if (!stable) {
+      return resolved.entry().graph();
+    }
+    if (configuration.isGraphCache()) {
+      metrics.run(
+          PhaseMetrics.GRAPH_CACHE,
+          () -> cache.write(key, resolved.entry().graph(), resolved.entry().treeOrNull()));
+    }
+    putWarm(key, resolved.entry());
+    return resolved.entry().graph();
   }
 
   /**
-   * Remove the root node from the collection because only the dependencies of this node should be
-   * reported on.
+   * Get the ids of the dependencies of the last graph which are not a plain jar, e.g. a test-jar,
+   * a pom or a jar with a classifier.
    *
-   * @param records Set of DependencyRecord containing all dependencies of this maven project.
-   * @param rootNode DependencyNode the main artifact which itself should not be reported.
+   * @return BitSet of ids in the {@link DependencyRecordPool} of the session.
+   * @see DependencyGraph#getNonJarDependencyIds()
    */
-  private void removeRootNodeFromCollection(
-      @NotNull Set<DependencyRecord> records, @NotNull DependencyNode rootNode) {
-    var artifact = rootNode.getArtifact();
-    var record = converter.convert(artifact);
-    records.remove(record);
+  @NotNull
+  BitSet getNonJarDependencyIds() {
+    return nonJarIds;
   }
 
   /**
-   * Serialize the dependency-tree exactly as invoking mvn dependency:tree from the command line
-   * would.
+   * Check if the last graph can not change without a change to the pom of this module, so a result
+   * which is derived from it can be reused as long as the pom does not change.
    *
-   * @param theRootNode DependencyNode the main artifact which itself should not be reported.
-   * @return String serialized tree.
+   * @return true when the graph is cached or can be cached, false when it contains a SNAPSHOT, a
+   *     version range or another module of the reactor.
+   * @see DependencyTreeCollector#isCacheable(Resolved)
+   */
+  boolean isStable() {
+    return stable;
+  }
+
+  /**
+   * Check if a resolved graph can be cached under its key. The key only covers the pom of this
+   * module, so a graph is not cached when it can change without any change to that pom:
+   *
+   * <ul>
+   *   <li>a SNAPSHOT dependency can be deployed again;
+   *   <li>a version range can resolve to a newer version;
+   *   <li>another module of the reactor can change its own dependencies, also when its version
+   *       is not a SNAPSHOT (e.g. a CI friendly ${revision}).
+   * </ul>
+   */
+  private boolean isCacheable(@NotNull Resolved resolved) {
+    var graph = resolved.entry().graph();
+    return !resolved.versionRange()
+        && !DependencyGraphCache.containsSnapshot(graph)
+        && !containsReactorModule(graph);
+  }
+
+  /** Check if a graph contains another module of the reactor. */
+  private boolean containsReactorModule(@NotNull DependencyGraph graph) {
+    var projectsOrNull = session.getProjects();
+    if (projectsOrNull == null || projectsOrNull.isEmpty()) {
+      return false;
+    }
+
+    var modules = new HashSet<DependencyRecord>();
+    for (var module : projectsOrNull) {
+      modules.add(
+          new DependencyRecord(module.getGroupId(), module.getArtifactId(), module.getVersion()));
+    }
+    var root = graph.nodeCount() == 0 ? -1 : graph.coordinate(DependencyGraph.ROOT);
+    for (var coordinate = 0; coordinate < graph.coordinateCount(); coordinate++) {
+      if (coordinate != root && modules.contains(graph.record(coordinate))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Write the graph without the dependency-tree, which is all the replay goal needs.
+   *
+   * @see DependencyTreeCollector#GRAPH_SNAPSHOT_FILENAME
+   */
+  private void writeGraphSnapshot(@NotNull DependencyGraph graph) throws PluginException {
+    try {
+      var file = writer.resolveUncompressed(GRAPH_SNAPSHOT_FILENAME);
+      DependencyGraphCache.writeFile(file, graph, null);
+    } catch (IOException e) {
+      throw new PluginException(e, "failed to write graph snapshot", e.getMessage());
+    }
+  }
+
+  /** A cached graph can only be used for the dependencyTree report when the tree is cached. */
+  private static boolean isUsable(
+      @Nullable DependencyGraphCache.Entry cachedOrNull, boolean serializeTree) {
+    return cachedOrNull != null && (!serializeTree || cachedOrNull.treeOrNull() != null);
+  }
+
+  /** Write the dependencyTree report of a cached graph. */
+  @NotNull
+  private DependencyGraph useCached(
+      @NotNull DependencyGraphCache.Entry cached, @NotNull PluginEvents.DependencyTree event)
+      throws PluginException {
+    event.cached = true;
+    var treeOrNull = cached.treeOrNull();
+    if (treeOrNull != null && writer.isEnabled(TXT_TREE_FILENAME)) {
+      metrics.run(PhaseMetrics.WRITE, () -> writer.writeNewFile(TXT_TREE_FILENAME, treeOrNull));
+    }
+    return cached.graph();
+  }
+
+  /**
+   * Keep a graph in the warm cache. The graph gets a pool of its own, so the pool of this session
+   * is not retained by the cache.
+   */
+  private void putWarm(@NotNull String key, @NotNull DependencyGraphCache.Entry entry) {
+    if (!configuration.isWarmCache()) {
+      return;
+    }
+
+    var detached = entry.graph().withPool(new DependencyRecordPool());
+    WarmCache.GRAPHS.put(
+        key,
+        new DependencyGraphCache.Entry(detached, entry.treeOrNull()),
+        configuration.getWarmCacheMaxEntries(),
+        configuration.getWarmCacheMaxBytes());
+  }
+
+  /**
+   * Resolve the dependency-tree and convert it to a graph.
+   *
+   * @param serializeTree true to serialize the tree and write the dependencyTree report.
+   * @return Resolved with the graph and the serialized tree, or null when it is not serialized.
    */
   @NotNull
-  private String serializeDependencyTree(@NotNull DependencyNode theRootNode) {
-    var writer = new StringWriter();
-    DependencyNodeVisitor visitor =
-        new SerializingDependencyNodeVisitor(
-            writer, SerializingDependencyNodeVisitor.STANDARD_TOKENS);
-    visitor = new BuildingDependencyNodeVisitor(visitor);
-    theRootNode.accept(visitor);
-    return writer.toString();
+  private Resolved resolveDependencyGraph(boolean serializeTree) throws PluginException {
+    var rootNode = metrics.measure(PhaseMetrics.RESOLVE, this::getRootNode);
+    var builder =
+        new DependencyGraphNodeVisitor(
+            DependencyRecordPool.forSession(session), configuration.isPruneDuplicateSubtrees());
+    if (!serializeTree) {
+      var graph =
+          metrics.measure(
+              PhaseMetrics.TRAVERSE,
+              () -> {
+                rootNode.accept(builder);
+                return builder.toGraph();
+              });
+      return new Resolved(new DependencyGraphCache.Entry(graph, null), builder.hasVersionRange());
+    }
+
+    var tree = new StringWriter();
+    var graph =
+        metrics.measure(
+            PhaseMetrics.TRAVERSE,
+            () -> {
+              rootNode.accept(
+                  new CompositeDependencyNodeVisitor(
+                      builder,
+                      new SerializingDependencyNodeVisitor(
+                          tree, SerializingDependencyNodeVisitor.STANDARD_TOKENS)));
+              return builder.toGraph();
+            });
+    var serialized = tree.toString();
+    metrics.run(PhaseMetrics.WRITE, () -> writer.writeNewFile(TXT_TREE_FILENAME, serialized));
+    return new Resolved(
+        new DependencyGraphCache.Entry(graph, serialized), builder.hasVersionRange());
   }
+
+  /**
+   * Get the maven project root node, which is used to find all dependencies. Artifacts which are
+   * excluded by the configuration are pruned while the tree is built. The exclusions by groupId
+   * and artifactId are already applied while the dependencies are collected, by a selector on a
+   * copy of the repository session, so their subtrees are never resolved.
+   *
+   * @return DependencyNode the root node of this maven project.
+   * @throws PluginException when finding the root node failed, or there is no graph builder.
+   */
+  @NotNull
+  private DependencyNode getRootNode() throws PluginException {
+    if (graphBuilderOrNull == null) {
+      throw new PluginException(
+          project, NO_GRAPH_BUILDER_ERROR_MESSAGE, "no DependencyGraphBuilder is available");
+    }
+
+    var request = session.getProjectBuildingRequest();
+    var buildingRequest = new DefaultProjectBuildingRequest(request);
+    buildingRequest.setProject(project);
+
+    var filterOrNull = DependencyArtifactFilter.ofOrNull(configuration);
+    var selectorOrNull = filterOrNull == null ? null : filterOrNull.toSelectorOrNull();
+    var repositorySessionOrNull = buildingRequest.getRepositorySession();
+    if (selectorOrNull != null && repositorySessionOrNull != null) {
+      var repositorySession = new DefaultRepositorySystemSession(repositorySessionOrNull);
+      repositorySession.setDependencySelector(
+          AndDependencySelector.newInstance(
+              repositorySessionOrNull.getDependencySelector(), selectorOrNull));
+      buildingRequest.setRepositorySession(repositorySession);
+    }
+
+    try {
+      return graphBuilderOrNull.buildDependencyGraph(buildingRequest, filterOrNull);
+    } catch (DependencyGraphBuilderException e) {
+      throw new PluginException(e, "failed to build dependency-tree graph", e.getMessage());
+    }
+  }
+
+  /**
+   * A resolved graph.
+   *
+   * @param entry the graph and the serialized tree.
+   * @param versionRange true when a version of the graph was resolved from a version range.
+   */
+  private record Resolved(@NotNull DependencyGraphCache.Entry entry, boolean versionRange) {}
 }
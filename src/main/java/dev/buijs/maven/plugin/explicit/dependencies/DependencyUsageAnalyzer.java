@@ -0,0 +1,248 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Utility to find the missing explicit dependencies which are actually used by the compiled
+ * classes of the project. A dependency is used when its jar contains a class which is referenced
+ * by one of the class files.
+ *
+ * <p>Jars are looked up in the local repository and their classes in the {@link JarClassIndex}
+ * when it is available, so a jar is only listed when it is new or changed. A dependency is always
+ * considered used when its jar can not be found or read (e.g. a pom or a dependency with a
+ * classifier), so the analysis never hides a missing dependency it can not prove unused. The
+ * unreferenced dependencies are stored as JSON in file.
+ *
+ * @see ClassFileScanner
+ * @see DependencyUsageAnalyzer#JSON_FILENAME
+ */
+final class DependencyUsageAnalyzer {
+
+  /**
+   * The name of the JSON file with the missing dependencies which are not referenced.
+   *
+   * @see DependencyUsageAnalyzer#getReferencedDependencies(Set, Set)
+   */
+  private static final String JSON_FILENAME = "dependenciesUnreferenced.json";
+
+  /** The extension of an artifact with classes in the local repository. */
+  private static final String JAR_EXTENSION = ".jar";
+
+  /** The directory of the version specific classes in a multi-release jar. */
+  private static final String VERSIONS_DIRECTORY = "META-INF/versions/";
+
+  @NotNull private final DependencyWriter writer;
+
+  @NotNull private final Path localRepository;
+
+  /** The persistent index of the jars, or null to list every jar. */
+  @Nullable private final JarClassIndex indexOrNull;
+
+  DependencyUsageAnalyzer(@NotNull DependencyWriter writer, @NotNull Path localRepository) {
+    this(writer, localRepository, null);
+  }
+
+  DependencyUsageAnalyzer(
+      @NotNull DependencyWriter writer,
+      @NotNull Path localRepository,
+      @Nullable JarClassIndex indexOrNull) {
+    this.writer = writer;
+    this.localRepository = localRepository;
+    this.indexOrNull = indexOrNull;
+  }
+
+  /**
+   * Get the dependencies which contain at least one referenced class. The jars are inspected in
+   * parallel and only their central directory is read.
+   *
+   * @param missing Set of DependencyRecord containing all missing explicit dependencies.
+   * @param referencedClasses Set of internal class names found by the {@link ClassFileScanner}.
+   * @return Set of DependencyRecord which are used, in the order of the missing dependencies.
+   * @throws PluginException when storing the output failed.
+   */
+  @NotNull
+  Set<DependencyRecord> getReferencedDependencies(
+      @NotNull Set<DependencyRecord> missing, @NotNull Set<String> referencedClasses)
+      throws PluginException {
+    return getReferencedDependencies(missing, referencedClasses, Set.of(), null);
+  }
+
+  /**
+   * Get the dependencies which contain at least one referenced class, where the test dependencies
+   * may also be referenced by the test classes. A dependency is always considered used when the
+   * classes it is checked against were not scanned.
+   *
+   * @param missing Set of DependencyRecord containing all missing explicit dependencies.
+   * @param referencedClassesOrNull Set of internal class names referenced by the classes, or null
+   *     when there are no classes.
+   * @param testDependencies the missing dependencies which are only used by the tests.
+   * @param testReferencedClassesOrNull Set of internal class names referenced by the classes and
+   *     the test classes, or null when there are no test classes.
+   * @return Set of DependencyRecord which are used, in the order of the missing dependencies.
+   * @throws PluginException when storing the output failed.
+   */
+  @NotNull
+  Set<DependencyRecord> getReferencedDependencies(
+      @NotNull Set<DependencyRecord> missing,
+      @Nullable Set<String> referencedClassesOrNull,
+      @NotNull Set<DependencyRecord> testDependencies,
+      @Nullable Set<String> testReferencedClassesOrNull)
+      throws PluginException {
+    var references = toReferencesOrNull(referencedClassesOrNull);
+    var testReferences =
+        testDependencies.isEmpty() ? null : toReferencesOrNull(testReferencedClassesOrNull);
+    var unreferenced =
+        missing.parallelStream()
+            .filter(
+                dependency -> {
+                  var referencesOrNull =
+                      testDependencies.contains(dependency) ? testReferences : references;
+                  return referencesOrNull != null && !isReferenced(dependency, referencesOrNull);
+                })
+            .collect(Collectors.toSet());
+    var referenced = new LinkedHashSet<DependencyRecord>();
+    var unreferencedSorted = new LinkedHashSet<DependencyRecord>();
+    for (var dependency : missing) {
+      (unreferenced.contains(dependency) ? unreferencedSorted : referenced).add(dependency);
+    }
+    writer.writeNewFile(JSON_FILENAME, unreferencedSorted);
+    return referenced;
+  }
+
+  /**
+   * Get the path of the jar of a dependency in the local repository.
+   *
+   * @param dependency the dependency.
+   * @return Path groupId/as/path/artifactId/version/artifactId-version.jar.
+   */
+  @NotNull
+  Path getJar(@NotNull DependencyRecord dependency) {
+    return localRepository
+        .resolve(dependency.groupId().replace('.', '/'))
+        .resolve(dependency.artifactId())
+        .resolve(dependency.version())
+        .resolve(dependency.artifactId() + "-" + dependency.version() + JAR_EXTENSION);
+  }
+
+  /** Get the referenced classes and their index queries, or null when nothing was scanned. */
+  @Nullable
+  private References toReferencesOrNull(@Nullable Set<String> referencedClassesOrNull) {
+    if (referencedClassesOrNull == null) {
+      return null;
+    }
+    var queries =
+        indexOrNull == null ? List.<PackageQuery>of() : toQueries(referencedClassesOrNull);
+    return new References(referencedClassesOrNull, queries);
+  }
+
+  private boolean isReferenced(
+      @NotNull DependencyRecord dependency, @NotNull References references) {
+    var jar = getJar(dependency);
+    if (!Files.isRegularFile(jar)) {
+      return true;
+    }
+
+    var entryOrNull = indexOrNull == null ? null : indexOrNull.get(jar);
+    if (entryOrNull != null) {
+      return isReferenced(entryOrNull, references.queries());
+    }
+
+    try (var zip = new ZipFile(jar.toFile())) {
+      return zip.stream()
+          .map(ZipEntry::getName)
+          .filter(name -> name.endsWith(ClassFileScanner.CLASS_EXTENSION))
+          .anyMatch(name -> references.classes().contains(toClassName(name)));
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  /** Check the referenced classes of every package which is in the indexed jar. */
+  private static boolean isReferenced(
+      @NotNull JarClassIndex.Entry entry, @NotNull List<PackageQuery> queries) {
+    for (var query : queries) {
+      if (!entry.containsPackage(query.packageName())) {
+        continue;
+      }
+      for (var className : query.classNames()) {
+        if (entry.containsClass(className)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Group the referenced classes by package and encode them once for all index lookups. */
+  @NotNull
+  private static List<PackageQuery> toQueries(@NotNull Set<String> referencedClasses) {
+    var byPackage = new HashMap<String, List<byte[]>>();
+    for (var className : referencedClasses) {
+      byPackage
+          .computeIfAbsent(JarClassIndex.toPackage(className), key -> new ArrayList<>())
+          .add(className.getBytes(StandardCharsets.UTF_8));
+    }
+
+    var queries = new ArrayList<PackageQuery>(byPackage.size());
+    byPackage.forEach(
+        (packageName, classNames) ->
+            queries.add(
+                new PackageQuery(
+                    packageName.getBytes(StandardCharsets.UTF_8),
+                    classNames.toArray(byte[][]::new))));
+    return queries;
+  }
+
+  /**
+   * Get the internal class name of a jar entry, which is the same for all versions of a class in
+   * a multi-release jar.
+   */
+  @NotNull
+  static String toClassName(@NotNull String entryName) {
+    var start = 0;
+    if (entryName.startsWith(VERSIONS_DIRECTORY)) {
+      start = entryName.indexOf('/', VERSIONS_DIRECTORY.length()) + 1;
+    }
+    return entryName.substring(
+        start, entryName.length() - ClassFileScanner.CLASS_EXTENSION.length());
+  }
+
+  /** The referenced classes and the queries of the same classes for the index. */
+  private record References(@NotNull Set<String> classes, @NotNull List<PackageQuery> queries) {}
+
+  /** The encoded referenced classes of a single package. */
+  private record PackageQuery(@NotNull byte[] packageName, @NotNull byte[][] classNames) {}
+}
@@ -0,0 +1,238 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.Locale;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Pre-parsed dependency version which orders versions from newest to oldest.
+ *
+ * <p>A version is split once into its numeric components and a qualifier, so comparing two
+ * versions does not need any parsing or allocation. The ordering follows Maven's {@code
+ * ComparableVersion}:
+ *
+ * <ul>
+ *   <li>numeric components are compared as numbers and missing components count as zero (1.0 equals
+ *       1.0.0 and 1.0.10 is newer than 1.0.9).
+ *   <li>qualifiers are ordered alpha &lt; beta &lt; milestone &lt; rc &lt; snapshot &lt; release.
+ *       Unknown qualifiers are ordered between rc and snapshot (ComparableVersion orders them after
+ *       release), because versions without suffix are preferred.
+ *   <li>versions which do not start with a number are ordered after all numeric versions,
+ *       alphabetically.
+ * </ul>
+ *
+ * <p>When two versions are equivalent but not equal (like 1.0 and 1.0.0) the raw version string is
+ * compared, so the ordering stays consistent with {@link Object#equals(Object)}.
+ */
+final class DependencyVersion implements Comparable<DependencyVersion> {
+
+  /** The rank of a qualifier which is not known. */
+  private static final int RANK_UNKNOWN = 5;
+
+  /** The rank of a release version (no qualifier or ga/final/release). */
+  private static final int RANK_RELEASE = 7;
+
+  /** The raw version. */
+  @NotNull private final String version;
+
+  /** The numeric components or an empty array when the version does not start with a digit. */
+  @NotNull private final long[] components;
+
+  /** The rank of the qualifier, higher is newer. */
+  private final int qualifierRank;
+
+  /** The number following the qualifier, e.g. 2 for RC2. */
+  private final long qualifierNumber;
+
+  /** The lower case suffix (qualifier and number) without leading or trailing separators. */
+  @NotNull private final String suffix;
+
+  private DependencyVersion(
+      @NotNull String version,
+      @NotNull long[] components,
+      int qualifierRank,
+      long qualifierNumber,
+      @NotNull String suffix) {
+    this.version = version;
+    this.components = components;
+    this.qualifierRank = qualifierRank;
+    this.qualifierNumber = qualifierNumber;
+    this.suffix = suffix;
+  }
+
+  /**
+   * Parse a version.
+   *
+   * @param version the raw version string.
+   * @return DependencyVersion.
+   */
+  @NotNull
+  static DependencyVersion parse(@NotNull String version) {
+    if (version.isEmpty() || !isDigit(version.charAt(0))) {
+      return new DependencyVersion(version, new long[0], 0, 0, version);
+    }
+
+    var count = 1;
+    var end = 0;
+    while (end < version.length()) {
+      var character = version.charAt(end);
+      if (character == '.' && end + 1 < version.length() && isDigit(version.charAt(end + 1))) {
+        count++;
+      } else if (!isDigit(character)) {
+        break;
+      }
+      end++;
+    }
+
+    var components = new long[count];
+    var index = 0;
+    for (var position = 0; position < end; position++) {
+      var character = version.charAt(position);
+      if (character == '.') {
+        index++;
+      } else {
+        components[index] = saturatedAppend(components[index], character);
+      }
+    }
+
+    var suffix = stripSeparators(version.substring(end)).toLowerCase(Locale.ROOT);
+    var digits = suffix.length();
+    while (digits > 0 && isDigit(suffix.charAt(digits - 1))) {
+      digits--;
+    }
+
+    var qualifier = stripSeparators(suffix.substring(0, digits));
+    var qualifierNumber = 0L;
+    for (var position = digits; position < suffix.length(); position++) {
+      qualifierNumber = saturatedAppend(qualifierNumber, suffix.charAt(position));
+    }
+
+    var hasNumber = digits < suffix.length();
+    return new DependencyVersion(
+        version, components, rank(qualifier, hasNumber), qualifierNumber, suffix);
+  }
+
+  /**
+   * Compare two versions where the newest version has the highest priority (lowest value).
+   *
+   * @param other the version to be compared.
+   * @return int negative when this version is newer.
+   */
+  @Override
+  public int compareTo(@NotNull DependencyVersion other) {
+    var thisIsNumeric = components.length > 0;
+    var otherIsNumeric = other.components.length > 0;
+    if (!thisIsNumeric || !otherIsNumeric) {
+      if (thisIsNumeric) {
+        return -1;
+      }
+      if (otherIsNumeric) {
+        return 1;
+      }
+      return version.compareTo(other.version);
+    }
+
+    var length = Math.max(components.length, other.components.length);
+    for (var index = 0; index < length; index++) {
+      var thisComponent = index < components.length ? components[index] : 0;
+      var otherComponent = index < other.components.length ? other.components[index] : 0;
+      if (thisComponent != otherComponent) {
+        return Long.compare(otherComponent, thisComponent);
+      }
+    }
+
+    if (qualifierRank != other.qualifierRank) {
+      return Integer.compare(other.qualifierRank, qualifierRank);
+    }
+
+    if (qualifierNumber != other.qualifierNumber) {
+      return Long.compare(other.qualifierNumber, qualifierNumber);
+    }
+
+    var suffixComparison = other.suffix.compareTo(suffix);
+    if (suffixComparison != 0) {
+      return suffixComparison;
+    }
+
+    return version.compareTo(other.version);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof DependencyVersion that && version.equals(that.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return version.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return version;
+  }
+
+  /** Get the rank of a qualifier as defined by Maven's ComparableVersion. */
+  private static int rank(@NotNull String qualifier, boolean followedByNumber) {
+    return switch (qualifier) {
+      case "alpha" -> 1;
+      case "beta" -> 2;
+      case "milestone" -> 3;
+      case "a" -> followedByNumber ? 1 : RANK_UNKNOWN;
+      case "b" -> followedByNumber ? 2 : RANK_UNKNOWN;
+      case "m" -> followedByNumber ? 3 : RANK_UNKNOWN;
+      case "rc", "cr" -> 4;
+      case "snapshot" -> 6;
+      case "", "ga", "final", "release" -> RANK_RELEASE;
+      default -> RANK_UNKNOWN;
+    };
+  }
+
+  /** Remove leading and trailing separators ('.', '-' and '_'). */
+  @NotNull
+  private static String stripSeparators(@NotNull String suffix) {
+    var start = 0;
+    var end = suffix.length();
+    while (start < end && isSeparator(suffix.charAt(start))) {
+      start++;
+    }
+    while (end > start && isSeparator(suffix.charAt(end - 1))) {
+      end--;
+    }
+    return suffix.substring(start, end);
+  }
+
+  private static long saturatedAppend(long value, char digit) {
+    if (value > (Long.MAX_VALUE - 9) / 10) {
+      return Long.MAX_VALUE;
+    }
+    return value * 10 + (digit - '0');
+  }
+
+  private static boolean isDigit(char character) {
+    return character >= '0' && character <= '9';
+  }
+
+  private static boolean isSeparator(char character) {
+    return character == '.' || character == '-' || character == '_';
+  }
+}
@@ -20,29 +20,326 @@
  */
 package dev.buijs.maven.plugin.explicit.dependencies;
 
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Utility to store the plugin output in the log directory.
+ *
+ * <p>Content is streamed to a buffered writer, so large collections of records are never
+ * converted to a single String. When compression is enabled every file is gzipped and gets the
+ * {@link DependencyWriter#GZIP_EXTENSION} extension.
+ *
+ * <p>An asynchronous writer hands every file to a background thread, so writing overlaps with the
+ * remaining analysis. Errors are not thrown by writeNewFile but by {@link
+ * DependencyWriter#awaitWrites()}, which must be called once all files are submitted. An
+ * asynchronous writer should be used by a single thread. A synchronous writer only holds
+ * immutable state, so it is safe to use from multiple threads as long as they write different
+ * files.
+ *
+ * <p>Reports can be disabled by name (the filename without extension), in which case they are
+ * never written.
+ */
 public class DependencyWriter {
 
+  /** The extension which is appended to the filename of compressed files. */
+  static final String GZIP_EXTENSION = ".gz";
+
+  /** The size of the write buffer in characters. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /** The error message when writing a file has failed. */
+  private static final String WRITE_ERROR_MESSAGE = "failed to write log files";
+
+  /** The separator between two records in a JSON array, the same as Collection#toString. */
+  private static final String JSON_SEPARATOR = ", ";
+
+  /** The name of the background thread of an asynchronous writer. */
+  private static final String THREAD_NAME = "explicit-dependencies-writer";
+
   @NotNull private final Path outputDirectory;
 
+  private final boolean compress;
+
+  private final boolean async;
+
+  @NotNull private final Set<String> disabledReports;
+
+  /** The writes which are submitted but not yet awaited. */
+  @NotNull private final List<Future<?>> pending = new ArrayList<>();
+
+  /** The background thread, which is started by the first asynchronous write. */
+  @Nullable private ExecutorService executorOrNull;
+
   DependencyWriter(@NotNull Path outputDirectory) {
+    this(outputDirectory, false);
+  }
+
+  DependencyWriter(@NotNull Path outputDirectory, boolean compress) {
+    this(outputDirectory, compress, false, Set.of());
+  }
+
+  /**
+   * Create a writer which is configured by the plugin configuration.
+   *
+   * @param outputDirectory where all files are written to.
+   * @param configuration which determines compression, asynchronous writing and disabled reports.
+   */
+  DependencyWriter(@NotNull Path outputDirectory, @NotNull PluginConfiguration configuration) {
+    this(
+        outputDirectory,
+        configuration.isGzip(),
+        configuration.isAsyncWrites(),
+        configuration.getDisabledReports());
+  }
+
+  private DependencyWriter(
+      @NotNull Path outputDirectory,
+      boolean compress,
+      boolean async,
+      @NotNull Set<String> disabledReports) {
     this.outputDirectory = outputDirectory;
+    this.compress = compress;
+    this.async = async;
+    this.disabledReports = Set.copyOf(disabledReports);
+  }
+
+  /**
+   * Check if a report should be written.
+   *
+   * @param filename the name of the (uncompressed) file.
+   * @return true when the report is not disabled.
+   */
+  boolean isEnabled(@NotNull final String filename) {
+    var extension = filename.indexOf('.');
+    var name = extension < 0 ? filename : filename.substring(0, extension);
+    return !disabledReports.contains(name);
+  }
+
+  /**
+   * Get the path of a file as it is written by this writer.
+   *
+   * @param filename the name of the (uncompressed) file.
+   * @return Path in the output directory, with the gzip extension when compression is enabled.
+   */
+  @NotNull
+  Path resolve(@NotNull final String filename) {
+    var name = compress ? filename + GZIP_EXTENSION : filename;
+    return outputDirectory.resolve(name).toAbsolutePath();
   }
 
+  /**
+   * Get the path of a binary file, which is never compressed by this writer.
+   *
+   * @param filename the name of the file.
+   * @return Path in the output directory.
+   */
+  @NotNull
+  Path resolveUncompressed(@NotNull final String filename) {
+    return outputDirectory.resolve(filename).toAbsolutePath();
+  }
+
+  /**
+   * Write the String value of the content to a new file.
+   *
+   * @param filename the name of the (uncompressed) file.
+   * @param content which is written using its toString method.
+   * @throws PluginException when writing the file failed.
+   */
   void writeNewFile(@NotNull final String filename, @NotNull final Object content)
       throws PluginException {
-    var json = outputDirectory.resolve(filename).toAbsolutePath();
+    var value = content.toString();
+    writeNewFile(filename, (Content) writer -> writer.write(value));
+  }
+
+  /**
+   * Write the records as a JSON array to a new file. The output is identical to the String value
+   * of the collection, but every record is written directly to the file.
+   *
+   * @param filename the name of the (uncompressed) file.
+   * @param records which are written in iteration order.
+   * @throws PluginException when writing the file failed.
+   */
+  void writeNewFile(
+      @NotNull final String filename, @NotNull final Collection<DependencyRecord> records)
+      throws PluginException {
+    var snapshot = async ? List.copyOf(records) : records;
+    writeNewFile(filename, (Content) writer -> writeJsonArray(writer, snapshot));
+  }
 
+  /**
+   * Write a new file by streaming the content to a buffered (and optionally compressed) writer.
+   * Nothing is written when the report is disabled.
+   *
+   * @param filename the name of the (uncompressed) file.
+   * @param content which writes the file content.
+   * @throws PluginException when writing the file failed (synchronous writer only).
+   * @see DependencyWriter#awaitWrites()
+   */
+  void writeNewFile(@NotNull final String filename, @NotNull final Content content)
+      throws PluginException {
+    if (!isEnabled(filename)) {
+      return;
+    }
+
+    if (!async) {
+      write(resolve(filename), content);
+      return;
+    }
+
+    var file = resolve(filename);
+    pending.add(
+        getExecutor()
+            .submit(
+                () -> {
+                  write(file, content);
+                  return null;
+                }));
+  }
+
+  /**
+   * Wait until all asynchronous writes are completed and stop the background thread. Returns
+   * immediately for a synchronous writer.
+   *
+   * @throws PluginException the first error of all writes.
+   */
+  void awaitWrites() throws PluginException {
+    PluginException errorOrNull = null;
+    try {
+      for (var write : pending) {
+        try {
+          write.get();
+        } catch (ExecutionException e) {
+          if (errorOrNull == null) {
+            errorOrNull =
+                e.getCause() instanceof PluginException pluginException
+                    ? pluginException
+                    : new PluginException(e.getCause(), WRITE_ERROR_MESSAGE);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new PluginException(e, WRITE_ERROR_MESSAGE);
+        }
+      }
+    } finally {
+      discardWrites();
+    }
+
+    if (errorOrNull != null) {
+      throw errorOrNull;
+    }
+  }
+
+  /** Cancel all asynchronous writes which are not started yet and stop the background thread. */
+  void discardWrites() {
+    pending.clear();
+    if (executorOrNull != null) {
+      executorOrNull.shutdownNow();
+      executorOrNull = null;
+    }
+  }
+
+  /**
+   * Write a file on the current thread.
+   *
+   * @see PluginEvents.Write
+   */
+  private void write(@NotNull Path file, @NotNull Content content) throws PluginException {
+    var event = new PluginEvents.Write();
+    event.begin();
+    try (var writer = newWriter(file)) {
+      content.writeTo(writer);
+    } catch (IOException e) {
+      throw new PluginException(e, WRITE_ERROR_MESSAGE);
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.file = file.toString();
+      event.bytesWritten = sizeOrUnknown(file);
+      event.compressed = compress;
+      event.commit();
+    }
+  }
+
+  private static long sizeOrUnknown(@NotNull Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  @NotNull
+  private ExecutorService getExecutor() {
+    if (executorOrNull == null) {
+      executorOrNull =
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                var thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return executorOrNull;
+  }
+
+  /**
+   * Write the records as JSON array in the same format as Collection#toString.
+   *
+   * @param writer where the JSON is written to.
+   * @param records which are written in iteration order.
+   * @throws IOException when writing failed.
+   */
+  static void writeJsonArray(
+      @NotNull Writer writer, @NotNull Collection<DependencyRecord> records) throws IOException {
+    writer.write('[');
+    var first = true;
+    for (var record : records) {
+      if (!first) {
+        writer.write(JSON_SEPARATOR);
+      }
+      record.writeJson(writer);
+      first = false;
+    }
+    writer.write(']');
+  }
+
+  @NotNull
+  private Writer newWriter(@NotNull Path file) throws IOException {
+    var output = Files.newOutputStream(file, CREATE, TRUNCATE_EXISTING, WRITE);
     try {
-      //noinspection ResultOfMethodCallIgnored
-      json.toFile().createNewFile();
-      Files.writeString(json, content.toString());
+      var stream = compress ? new GZIPOutputStream(output, BUFFER_SIZE) : output;
+      return new BufferedWriter(
+          new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
     } catch (IOException e) {
-      throw new PluginException(e, "failed to write log files");
+      output.close();
+      throw e;
     }
   }
+
+  /** The content of a file which is written directly to the (buffered) file writer. */
+  @FunctionalInterface
+  interface Content {
+    void writeTo(@NotNull Writer writer) throws IOException;
+  }
 }
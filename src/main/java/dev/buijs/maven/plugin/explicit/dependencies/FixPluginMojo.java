@@ -0,0 +1,195 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Future;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.project.MavenProject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Add the missing explicit dependencies to the pom of every module of the reactor in one
+ * execution. The modules are analyzed and their poms are edited concurrently on a bounded thread
+ * pool, every pom once.
+ *
+ * <p>Every missing dependency is added to the project dependencies with the version and scope it
+ * has in the dependency-tree. The version is left out when it is managed, by the pom, a parent or
+ * an imported BOM, so the dependency keeps following the management. A baseline is not applied:
+ * all missing dependencies are added, except those of the system scope and those which are not a
+ * plain jar, like a test-jar or a jar with a classifier. These are reported instead. The poms are
+ * edited as text, so formatting and comments are kept, and a pom without missing dependencies is
+ * not written at all.
+ *
+ * @see PomEditor
+ */
+@Mojo(name = "fix", aggregator = true, threadSafe = true)
+public class FixPluginMojo extends AbstractReactorMojo {
+
+  /** The message logged when dependencies are added to a pom. */
+  private static final String INFO_FIXED_TEMPLATE = "%s: added %d dependencies to %s";
+
+  /** The message logged when no dependencies are added to a pom. */
+  private static final String INFO_UNCHANGED_TEMPLATE = "%s: %s";
+
+  /** The message logged when a system dependency is missing, which has no repository path. */
+  private static final String WARN_SYSTEM_TEMPLATE =
+      "%s: system dependencies can not be added automatically: %s";
+
+  /** The message logged when a dependency is missing which has another type or a classifier. */
+  private static final String WARN_NON_JAR_TEMPLATE =
+      "%s: dependencies with a type or classifier can not be added automatically: %s";
+
+  @Override
+  public void execute() throws PluginException {
+    var configuration = configuration();
+
+    // A module can occur more than once in the reactor, but its pom is only edited once.
+    var modules = new LinkedHashMap<String, MavenProject>();
+    for (var module : session.getProjects()) {
+      modules.putIfAbsent(PluginContext.moduleId(module), module);
+    }
+
+    var executor = newExecutor(modules.size());
+    try {
+      var futures = new LinkedHashMap<String, Future<ModuleFix>>();
+      for (var module : modules.entrySet()) {
+        futures.put(
+            module.getKey(), executor.submit(() -> fix(module.getValue(), configuration)));
+      }
+
+      for (var future : futures.entrySet()) {
+        log(future.getKey(), await(future.getKey(), future.getValue()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Analyze a module and add its missing dependencies to its pom.
+   *
+   * @return ModuleFix the outcome.
+   * @throws PluginException when the analysis failed or the pom can not be edited.
+   */
+  @NotNull
+  private ModuleFix fix(@NotNull MavenProject module, @NotNull PluginConfiguration configuration)
+      throws PluginException {
+    var context = new PluginContext(module, session, dependencyGraphBuilder, configuration);
+    var missing = context.getMissingExplicitDependencies().stream().sorted().toList();
+    var dependencies = new LinkedHashMap<DependencyRecord, DependencyScope>();
+    var system = new LinkedHashSet<DependencyRecord>();
+    var nonJar = new LinkedHashSet<DependencyRecord>();
+    for (var dependency : missing) {
+      var scope = context.getScope(dependency);
+      if (scope == DependencyScope.SYSTEM) {
+        system.add(dependency);
+      } else if (!context.isJar(dependency)) {
+        nonJar.add(dependency);
+      } else {
+        dependencies.put(dependency, scope);
+      }
+    }
+
+    var pomOrNull = module.getFile();
+    var added =
+        pomOrNull == null
+            ? 0
+            : new PomEditor(getManaged(module)).addDependencies(pomOrNull.toPath(), dependencies);
+    return new ModuleFix(pomOrNull, added, system, nonJar);
+  }
+
+  /**
+   * Get the groupId:artifactId of the dependencies of which the version is managed, by the pom, a
+   * parent or an imported BOM. Pinning their version in the pom would bypass the management.
+   */
+  @NotNull
+  static Set<String> getManaged(@NotNull MavenProject module) {
+    var managed = new HashSet<String>();
+    var managementOrNull = module.getDependencyManagement();
+    if (managementOrNull != null) {
+      for (var dependency : managementOrNull.getDependencies()) {
+        managed.add(dependency.getGroupId() + ":" + dependency.getArtifactId());
+      }
+    }
+    var versionMapOrNull = module.getManagedVersionMap();
+    if (versionMapOrNull != null) {
+      for (var artifact : versionMapOrNull.values()) {
+        managed.add(artifact.getGroupId() + ":" + artifact.getArtifactId());
+      }
+    }
+    return managed;
+  }
+
+  private void log(@NotNull String moduleId, @NotNull ModuleFix fix) {
+    if (fix.added() > 0) {
+      getLog().info(String.format(INFO_FIXED_TEMPLATE, moduleId, fix.added(), fix.pomOrNull()));
+    } else {
+      getLog()
+          .info(String.format(INFO_UNCHANGED_TEMPLATE, moduleId, PluginMojo.INFO_SUCCESS_MESSAGE));
+    }
+    if (!fix.system().isEmpty()) {
+      getLog()
+          .warn(
+              String.format(
+                  WARN_SYSTEM_TEMPLATE, moduleId, PluginMojo.prettyPrint(fix.system())));
+    }
+    if (!fix.nonJar().isEmpty()) {
+      getLog()
+          .warn(
+              String.format(
+                  WARN_NON_JAR_TEMPLATE, moduleId, PluginMojo.prettyPrint(fix.nonJar())));
+    }
+  }
+
+  /**
+   * The verdict never fails the build and a baseline is not applied, so it is never updated. A
+   * reused verdict does not know the scope of its dependencies, so the full analysis always runs.
+   */
+  @NotNull
+  @Override
+  PluginConfiguration configuration() throws PluginException {
+    return super.configuration()
+        .force(false)
+        .incremental(false)
+        .baseline(null)
+        .updateBaseline(false);
+  }
+
+  /**
+   * The outcome of fixing a single module.
+   *
+   * @param pomOrNull the pom of the module.
+   * @param added the number of dependencies which are added to the pom.
+   * @param system the missing system dependencies which are not added.
+   * @param nonJar the missing dependencies with a type or classifier which are not added.
+   */
+  private record ModuleFix(
+      @Nullable File pomOrNull,
+      int added,
+      @NotNull Set<DependencyRecord> system,
+      @NotNull Set<DependencyRecord> nonJar) {}
+}
@@ -1,12 +1,41 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
 package dev.buijs.maven.plugin.explicit.dependencies;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * File system operations used by the plugin.
+ *
+ * <p>The class is stateless and all operations tolerate files being created or deleted
+ * concurrently, so a single instance can be shared between threads.
+ */
 public class IOUtil {
 
   @NotNull
@@ -18,18 +47,96 @@ public class IOUtil {
     return Files.exists(path);
   }
 
+  /**
+   * Delete a file or directory including all of its content.
+   *
+   * @param file the file or directory to delete.
+   * @return true if the file existed and is deleted.
+   * @throws IOException when a file could not be deleted.
+   */
   public boolean delete(@NotNull File file) throws IOException {
-    if (file.isDirectory()) {
-      var files = Optional.of(file).map(File::listFiles).stream().flatMap(Arrays::stream).toList();
-
-      for (var child : files) {
-        delete(child);
-      }
+    var path = file.toPath();
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      return false;
     }
-    return file.delete();
+
+    Files.walkFileTree(
+        path,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+              throws IOException {
+            Files.deleteIfExists(file);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException exception)
+              throws IOException {
+            if (exception instanceof NoSuchFileException) {
+              return FileVisitResult.CONTINUE;
+            }
+            throw exception;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path directory, IOException exception)
+              throws IOException {
+            if (exception != null && !(exception instanceof NoSuchFileException)) {
+              throw exception;
+            }
+            Files.deleteIfExists(directory);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return true;
   }
 
+  /**
+   * Create a directory including all missing parent directories.
+   *
+   * @param path the directory to create.
+   * @return the path of the created (or already existing) directory.
+   * @throws IOException when the directory could not be created.
+   */
   public Path create(@NotNull Path path) throws IOException {
-    return Files.createDirectory(path);
+    return Files.createDirectories(path);
+  }
+
+  /** Move a completed file into place, atomically when the file system supports it. */
+  static void move(@NotNull Path source, @NotNull Path target) throws IOException {
+    try {
+      Files.move(source, target, ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Replace the content of a file with a completed file, which keeps the file what it was: a
+   * symbolic link keeps pointing to the same file and the POSIX permissions are kept.
+   *
+   * @param source the completed file, in the same directory as the real file of the target.
+   * @param target the file of which the content is replaced.
+   * @throws IOException when the file could not be replaced.
+   */
+  static void replace(@NotNull Path source, @NotNull Path target) throws IOException {
+    var real = target.toRealPath();
+    if (real.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.setPosixFilePermissions(source, Files.getPosixFilePermissions(real));
+    }
+    move(source, real);
+  }
+
+  /** Delete a file when it exists, a failure is ignored. */
+  static void deleteQuietly(@Nullable Path fileOrNull) {
+    if (fileOrNull == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(fileOrNull);
+    } catch (IOException e) {
+      // Left behind, it is replaced or cleaned up by a next run.
+    }
   }
 }
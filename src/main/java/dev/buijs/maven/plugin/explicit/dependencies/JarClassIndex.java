@@ -0,0 +1,319 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Persistent index of the packages and classes in the jars of the local repository, which can be
+ * shared by all builds on a machine.
+ *
+ * <p>Every jar has its own index file at the same relative path as the jar in the local
+ * repository. The file holds the size and last modified time of the jar and the sorted names of
+ * its packages and classes, so a lookup is a binary search in the memory-mapped file. A jar is
+ * only listed again when its size or last modified time changed.
+ *
+ * <p>Index files are written to a temporary file and moved into place atomically, so concurrent
+ * builds never read a partial file. An index file which can not be read or written is ignored:
+ * the index never fails the build.
+ *
+ * @see DependencyUsageAnalyzer
+ */
+final class JarClassIndex {
+
+  /** The extension of an index file. */
+  static final String EXTENSION = ".classes";
+
+  /** The extension of an index file which is being written. */
+  private static final String TEMP_EXTENSION = ".tmp";
+
+  /** Identifies the file format, bump the last byte when the format changes. */
+  private static final int MAGIC = 0x45444901;
+
+  /** The size of the header: magic, jar size, jar last modified, package and class count. */
+  private static final int HEADER_SIZE = Integer.BYTES + 2 * Long.BYTES + 2 * Integer.BYTES;
+
+  @NotNull private final Path directory;
+
+  @NotNull private final Path localRepository;
+
+  /**
+   * Create an index.
+   *
+   * @param directory where the index files are stored, which is created when it does not exist.
+   * @param localRepository the local repository which contains the indexed jars.
+   */
+  JarClassIndex(@NotNull Path directory, @NotNull Path localRepository) {
+    this.directory = directory;
+    this.localRepository = localRepository;
+  }
+
+  /**
+   * Get the index of a jar, which is created or updated when the jar is new or changed.
+   *
+   * @param jar a jar in the local repository.
+   * @return Entry or null when the jar is not in the local repository or can not be read.
+   */
+  @Nullable
+  Entry get(@NotNull Path jar) {
+    var relative = localRepository.relativize(jar);
+    if (relative.startsWith("..") || relative.isAbsolute()) {
+      return null;
+    }
+
+    var file = directory.resolve(relative + EXTENSION);
+    try {
+      var size = Files.size(jar);
+      var modified = Files.getLastModifiedTime(jar).toMillis();
+      var cachedOrNull = read(file, size, modified);
+      if (cachedOrNull != null) {
+        return cachedOrNull;
+      }
+
+      var encoded = encode(jar, size, modified);
+      write(file, encoded);
+      return Entry.decode(ByteBuffer.wrap(encoded), size, modified);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** Read an index file, which is only valid for the same size and last modified time. */
+  @Nullable
+  private static Entry read(@NotNull Path file, long size, long modified) {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (var channel = FileChannel.open(file)) {
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return Entry.decode(buffer, size, modified);
+    } catch (IOException | RuntimeException e) {
+      // Replaced by a concurrent build or corrupt, both are rebuilt.
+      return null;
+    }
+  }
+
+  /** Store an index file, a failure only means the jar is listed again by the next build. */
+  private static void write(@NotNull Path file, @NotNull byte[] encoded) {
+    Path temp = null;
+    try {
+      Files.createDirectories(file.getParent());
+      temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_EXTENSION);
+      Files.write(temp, encoded);
+      IOUtil.move(temp, file);
+    } catch (IOException e) {
+      IOUtil.deleteQuietly(temp);
+    }
+  }
+
+  /** List the packages and classes of a jar in the index file format. */
+  @NotNull
+  private static byte[] encode(@NotNull Path jar, long size, long modified) throws IOException {
+    var classes = new TreeSet<byte[]>(Arrays::compareUnsigned);
+    var packages = new TreeSet<byte[]>(Arrays::compareUnsigned);
+    try (var zip = new ZipFile(jar.toFile())) {
+      zip.stream()
+          .map(ZipEntry::getName)
+          .filter(name -> name.endsWith(ClassFileScanner.CLASS_EXTENSION))
+          .map(DependencyUsageAnalyzer::toClassName)
+          .forEach(
+              name -> {
+                classes.add(name.getBytes(StandardCharsets.UTF_8));
+                packages.add(toPackage(name).getBytes(StandardCharsets.UTF_8));
+              });
+    }
+
+    var namesSize = 0;
+    for (var name : packages) {
+      namesSize += name.length;
+    }
+    for (var name : classes) {
+      namesSize += name.length;
+    }
+
+    var offsetsSize = (packages.size() + classes.size() + 2) * Integer.BYTES;
+    var buffer = ByteBuffer.allocate(HEADER_SIZE + offsetsSize + namesSize);
+    buffer.putInt(MAGIC).putLong(size).putLong(modified);
+    buffer.putInt(packages.size()).putInt(classes.size());
+    var offset = 0;
+    for (var name : packages) {
+      buffer.putInt(offset);
+      offset += name.length;
+    }
+    buffer.putInt(offset);
+    for (var name : classes) {
+      buffer.putInt(offset);
+      offset += name.length;
+    }
+    buffer.putInt(offset);
+    packages.forEach(buffer::put);
+    classes.forEach(buffer::put);
+    return buffer.array();
+  }
+
+  /**
+   * Get the package of an internal class name.
+   *
+   * @param className e.g. java/lang/String.
+   * @return String e.g. java/lang, or an empty String for the default package.
+   */
+  @NotNull
+  static String toPackage(@NotNull String className) {
+    var separator = className.lastIndexOf('/');
+    return separator < 0 ? "" : className.substring(0, separator);
+  }
+
+  /** The sorted packages and classes of a single jar. */
+  static final class Entry {
+
+    @NotNull private final ByteBuffer buffer;
+
+    private final int packageCount;
+
+    private final int classCount;
+
+    /** The position of the first offset of the packages. */
+    private final int offsets;
+
+    /** The position of the first name, all offsets are relative to this position. */
+    private final int names;
+
+    private Entry(@NotNull ByteBuffer buffer, int packageCount, int classCount) {
+      this.buffer = buffer;
+      this.packageCount = packageCount;
+      this.classCount = classCount;
+      this.offsets = HEADER_SIZE;
+      this.names = HEADER_SIZE + (packageCount + classCount + 2) * Integer.BYTES;
+    }
+
+    /**
+     * Read an entry in the index file format.
+     *
+     * @return Entry or null when the buffer is not a valid index of the jar.
+     */
+    @Nullable
+    private static Entry decode(@NotNull ByteBuffer buffer, long size, long modified) {
+      try {
+        if (buffer.getInt(0) != MAGIC
+            || buffer.getLong(Integer.BYTES) != size
+            || buffer.getLong(Integer.BYTES + Long.BYTES) != modified) {
+          return null;
+        }
+
+        var packageCount = buffer.getInt(Integer.BYTES + 2 * Long.BYTES);
+        var classCount = buffer.getInt(2 * Integer.BYTES + 2 * Long.BYTES);
+        if (packageCount < 0 || classCount < 0) {
+          return null;
+        }
+
+        var entry = new Entry(buffer, packageCount, classCount);
+        if (entry.names < 0 || entry.offset(0) != 0) {
+          return null;
+        }
+        for (var index = 1; index <= packageCount + classCount + 1; index++) {
+          if (entry.offset(index) < entry.offset(index - 1)) {
+            return null;
+          }
+        }
+        var last = entry.offset(packageCount + classCount + 1);
+        return entry.names + (long) last == buffer.limit() ? entry : null;
+      } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+        return null;
+      }
+    }
+
+    int packageCount() {
+      return packageCount;
+    }
+
+    int classCount() {
+      return classCount;
+    }
+
+    /**
+     * Check if the jar contains a package.
+     *
+     * @param name the UTF-8 bytes of the package, e.g. java/lang.
+     */
+    boolean containsPackage(@NotNull byte[] name) {
+      return binarySearch(0, packageCount, name);
+    }
+
+    /**
+     * Check if the jar contains a class.
+     *
+     * @param name the UTF-8 bytes of the internal class name, e.g. java/lang/String.
+     */
+    boolean containsClass(@NotNull byte[] name) {
+      return binarySearch(packageCount + 1, packageCount + 1 + classCount, name);
+    }
+
+    /** Search the names in [from, to) of the offset table. */
+    private boolean binarySearch(int from, int to, @NotNull byte[] name) {
+      var low = from;
+      var high = to - 1;
+      while (low <= high) {
+        var middle = (low + high) >>> 1;
+        var compared = compare(middle, name);
+        if (compared < 0) {
+          low = middle + 1;
+        } else if (compared > 0) {
+          high = middle - 1;
+        } else {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Compare the name at an index of the offset table with a name, as unsigned bytes. */
+    private int compare(int index, @NotNull byte[] name) {
+      var start = names + offset(index);
+      var length = offset(index + 1) - offset(index);
+      var common = Math.min(length, name.length);
+      for (var position = 0; position < common; position++) {
+        var compared =
+            Integer.compare(buffer.get(start + position) & 0xFF, name[position] & 0xFF);
+        if (compared != 0) {
+          return compared;
+        }
+      }
+      return Integer.compare(length, name.length);
+    }
+
+    private int offset(int index) {
+      return buffer.getInt(offsets + index * Integer.BYTES);
+    }
+  }
+}
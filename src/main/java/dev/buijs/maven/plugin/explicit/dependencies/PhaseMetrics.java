@@ -0,0 +1,246 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Instrumentation which records the wall time and allocated bytes of every phase of the analysis.
+ *
+ * <p>Allocated bytes are measured for the thread which executes the phase and only when the JVM
+ * supports it (com.sun.management.ThreadMXBean). Writes which are executed on the background
+ * writer thread are measured by the time spent waiting for them. A phase which is measured
+ * multiple times accumulates.
+ *
+ * <p>Metrics are collected by the thread which runs the analysis and are not thread-safe.
+ *
+ * @see PhaseMetrics#FILENAME
+ */
+final class PhaseMetrics {
+
+  /**
+   * The name of the JSON file which is created after the analysis.
+   *
+   * @see PluginContext#getMissingExplicitDependencies()
+   */
+  static final String FILENAME = "metrics.json";
+
+  /** Resolving the dependency-tree with the DependencyGraphBuilder. */
+  static final String RESOLVE = "resolve";
+
+  /** Traversing the dependency-tree into a DependencyGraph. */
+  static final String TRAVERSE = "traverse";
+
+  /** Sorting the dependencies in the graph. */
+  static final String SORT = "sort";
+
+  /** Collecting the explicit dependencies from the pom. */
+  static final String COLLECT = "collect";
+
+  /** Finding the missing explicit dependencies. */
+  static final String ANALYZE = "analyze";
+
+  /** Writing the log files (or waiting for asynchronous writes to complete). */
+  static final String WRITE = "write";
+
+  /** Reading and storing the dependency graph in the persistent graph cache. */
+  static final String GRAPH_CACHE = "graphCache";
+
+  /** Reading the dependencies from a snapshot instead of resolving the dependency-tree. */
+  static final String REPLAY = "replay";
+
+  /** Scanning the compiled classes and the jars of the missing dependencies. */
+  static final String BYTECODE = "bytecode";
+
+  /** Computing the fingerprint and reading the previous verdict in incremental mode. */
+  static final String INCREMENTAL = "incremental";
+
+  @Nullable private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+  /** The measured phases in order of first measurement. */
+  @NotNull private final Map<String, long[]> phases = new LinkedHashMap<>();
+
+  /**
+   * Measure a phase.
+   *
+   * @param phase the name of the phase.
+   * @param action which is executed.
+   * @return the result of the action.
+   * @throws PluginException the exception thrown by the action.
+   */
+  <T> T measure(@NotNull String phase, @NotNull Phase<T> action) throws PluginException {
+    var allocatedBefore = allocatedBytes();
+    var started = System.nanoTime();
+    try {
+      return action.run();
+    } finally {
+      var nanos = System.nanoTime() - started;
+      var allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+      var totals = phases.computeIfAbsent(phase, key -> new long[] {0, 0});
+      totals[0] += nanos;
+      totals[1] = totals[1] < 0 || allocated < 0 ? -1 : totals[1] + allocated;
+    }
+  }
+
+  /** Measure a phase which has no result. */
+  void run(@NotNull String phase, @NotNull VoidPhase action) throws PluginException {
+    measure(
+        phase,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /** Get the names of all measured phases in order of first measurement. */
+  @NotNull
+  List<String> getPhases() {
+    return new ArrayList<>(phases.keySet());
+  }
+
+  /** Get the wall time of a phase in nanoseconds, 0 when it was not measured. */
+  long getNanos(@NotNull String phase) {
+    var totals = phases.get(phase);
+    return totals == null ? 0 : totals[0];
+  }
+
+  /** Get the allocated bytes of a phase, -1 when it was not measured or is not supported. */
+  long getAllocatedBytes(@NotNull String phase) {
+    var totals = phases.get(phase);
+    return totals == null ? -1 : totals[1];
+  }
+
+  /** Get the wall time of all phases in nanoseconds. */
+  long getTotalNanos() {
+    return phases.values().stream().mapToLong(totals -> totals[0]).sum();
+  }
+
+  /**
+   * Get the metrics as a JSON object.
+   *
+   * @return String JSON.
+   * @see PhaseMetrics#writeJson(Writer)
+   */
+  @NotNull
+  String toJson() {
+    var json = new StringWriter();
+    try {
+      writeJson(json);
+    } catch (IOException e) {
+      // StringWriter never throws IOException.
+      throw new IllegalStateException(e);
+    }
+    return json.toString();
+  }
+
+  /**
+   * Write the metrics as a JSON object. Allocated bytes are left out when they are not measured.
+   *
+   * @param writer where the JSON is written to.
+   * @throws IOException when writing failed.
+   */
+  void writeJson(@NotNull Writer writer) throws IOException {
+    writer.write("{\n\"totalMillis\": ");
+    writer.write(millis(getTotalNanos()));
+    writer.write(",\n\"phases\": [");
+    var first = true;
+    for (var phase : phases.entrySet()) {
+      writer.write(first ? "\n" : ",\n");
+      writer.write("{\"name\": \"");
+      writer.write(phase.getKey());
+      writer.write("\", \"millis\": ");
+      writer.write(millis(phase.getValue()[0]));
+      if (phase.getValue()[1] >= 0) {
+        writer.write(", \"allocatedBytes\": ");
+        writer.write(Long.toString(phase.getValue()[1]));
+      }
+      writer.write('}');
+      first = false;
+    }
+    writer.write("\n]\n}");
+  }
+
+  /**
+   * Summarize all phases in one line.
+   *
+   * @return String like "total 120.4 ms: resolve 80.1 ms 12.3 MB, traverse 20.2 ms 4.0 MB".
+   */
+  @NotNull
+  String summary() {
+    var summary = new StringJoiner(", ", "total " + millis(getTotalNanos()) + " ms: ", "");
+    for (var phase : phases.entrySet()) {
+      var allocated = phase.getValue()[1];
+      summary.add(
+          phase.getKey()
+              + " "
+              + millis(phase.getValue()[0])
+              + " ms"
+              + (allocated < 0 ? "" : String.format(Locale.ROOT, " %.1f MB", allocated / 1e6)));
+    }
+    return summary.toString();
+  }
+
+  @NotNull
+  static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+
+  private static long allocatedBytes() {
+    return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+  }
+
+  @Nullable
+  private static com.sun.management.ThreadMXBean getThreadBean() {
+    try {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+          && threads.isThreadAllocatedMemorySupported()
+          && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads;
+      }
+    } catch (LinkageError | UnsupportedOperationException e) {
+      // The JVM does not provide the com.sun.management extension.
+    }
+    return null;
+  }
+
+  /** A phase which returns a result. */
+  @FunctionalInterface
+  interface Phase<T> {
+    T run() throws PluginException;
+  }
+
+  /** A phase without result. */
+  @FunctionalInterface
+  interface VoidPhase {
+    void run() throws PluginException;
+  }
+}
@@ -0,0 +1,505 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The plugin configuration which is passed from the Mojo to the {@link PluginContext}.
+ *
+ * <p>Every option has a sensible default, so a new instance can be used as-is.
+ */
+final class PluginConfiguration {
+
+  /**
+   * Throw an exception when dependencies are missing.
+   *
+   * @see PluginMojo#force
+   */
+  private boolean force = true;
+
+  /**
+   * Reuse the verdict of the previous run when the analysis inputs did not change.
+   *
+   * @see DependencyFingerprint
+   */
+  private boolean incremental = false;
+
+  /**
+   * Ignore the verdict of the previous run even when {@link PluginConfiguration#incremental} is
+   * enabled.
+   */
+  private boolean forceFullRun = false;
+
+  /**
+   * Compress all log files with gzip.
+   *
+   * @see DependencyWriter#GZIP_EXTENSION
+   */
+  private boolean gzip = false;
+
+  /**
+   * Write the log files on a background thread, so writing overlaps with the analysis.
+   *
+   * @see DependencyWriter#awaitWrites()
+   */
+  private boolean asyncWrites = true;
+
+  /**
+   * The names of the reports which are not written (filename without extension).
+   *
+   * @see DependencyWriter#isEnabled(String)
+   */
+  @NotNull private Set<String> disabledReports = Set.of();
+
+  /**
+   * Visit the subtree of every dependency only once when building the dependency graph.
+   *
+   * @see DependencyGraphNodeVisitor
+   */
+  private boolean pruneDuplicateSubtrees = false;
+
+  /**
+   * Reuse dependency graphs which were resolved by a previous build with the same fingerprint.
+   *
+   * @see DependencyGraphCache
+   */
+  private boolean graphCache = false;
+
+  /** The directory of the graph cache, or null to use the default directory in ~/.m2. */
+  @Nullable private Path graphCacheDirectoryOrNull;
+
+  /** The maximum total size of the graph cache in megabytes. */
+  private long graphCacheMaxSize = 256;
+
+  /**
+   * Keep dependency graphs and verdicts in memory across sessions in the same JVM.
+   *
+   * @see WarmCache
+   */
+  private boolean warmCache = false;
+
+  /** The maximum number of modules in the warm cache. */
+  private int warmCacheMaxEntries = 1000;
+
+  /** The maximum estimated size of the warm cache in megabytes. */
+  private long warmCacheMaxSize = 64;
+
+  /**
+   * Write the dependency graph as a binary snapshot which can be replayed without resolution.
+   *
+   * @see DependencyTreeCollector#GRAPH_SNAPSHOT_FILENAME
+   * @see PluginContext#replay(Path)
+   */
+  private boolean graphSnapshot = false;
+
+  /**
+   * The path of the baseline file, relative to the base directory of the module, or null when no
+   * baseline is used.
+   *
+   * @see PluginContext#getBaselineDeltaOrNull()
+   */
+  @Nullable private String baselineOrNull = null;
+
+  /** Write all missing dependencies to the baseline file instead of failing on them. */
+  private boolean updateBaseline = false;
+
+  /**
+   * Only report missing dependencies which contain a class that is referenced by the compiled
+   * classes.
+   *
+   * @see DependencyUsageAnalyzer
+   */
+  private boolean bytecodeScan = false;
+
+  /**
+   * The directory of the persistent class index of the local repository jars, or null for the
+   * default directory.
+   *
+   * @see JarClassIndex
+   */
+  @Nullable private Path classIndexDirectoryOrNull;
+
+  /** Use the persistent class index instead of listing every jar in the bytecode scan. */
+  private boolean classIndex = true;
+
+  /**
+   * The scopes of which the missing dependencies count towards the verdict.
+   *
+   * @see DependencyGraph#getDependencyIdsByScope()
+   */
+  @NotNull private Set<DependencyScope> scopes = EnumSet.allOf(DependencyScope.class);
+
+  /**
+   * The patterns of the artifacts which are kept in the dependency-tree, empty to keep all.
+   *
+   * @see DependencyArtifactFilter
+   */
+  @NotNull private List<String> artifactIncludes = List.of();
+
+  /**
+   * The patterns of the artifacts which are pruned from the dependency-tree.
+   *
+   * @see DependencyArtifactFilter
+   */
+  @NotNull private List<String> artifactExcludes = List.of();
+
+  /** The scopes of which the artifacts are pruned from the dependency-tree. */
+  @NotNull private Set<DependencyScope> excludedScopes = EnumSet.noneOf(DependencyScope.class);
+
+  /** Prune optional artifacts from the dependency-tree. */
+  private boolean excludeOptional = false;
+
+  boolean isForce() {
+    return force;
+  }
+
+  @NotNull
+  PluginConfiguration force(boolean force) {
+    this.force = force;
+    return this;
+  }
+
+  boolean isIncremental() {
+    return incremental;
+  }
+
+  @NotNull
+  PluginConfiguration incremental(boolean incremental) {
+    this.incremental = incremental;
+    return this;
+  }
+
+  boolean isForceFullRun() {
+    return forceFullRun;
+  }
+
+  @NotNull
+  PluginConfiguration forceFullRun(boolean forceFullRun) {
+    this.forceFullRun = forceFullRun;
+    return this;
+  }
+
+  boolean isGzip() {
+    return gzip;
+  }
+
+  @NotNull
+  PluginConfiguration gzip(boolean gzip) {
+    this.gzip = gzip;
+    return this;
+  }
+
+  boolean isAsyncWrites() {
+    return asyncWrites;
+  }
+
+  @NotNull
+  PluginConfiguration asyncWrites(boolean asyncWrites) {
+    this.asyncWrites = asyncWrites;
+    return this;
+  }
+
+  @NotNull
+  Set<String> getDisabledReports() {
+    return disabledReports;
+  }
+
+  @NotNull
+  PluginConfiguration disabledReports(@Nullable Collection<String> disabledReportsOrNull) {
+    var names = new HashSet<String>();
+    if (disabledReportsOrNull != null) {
+      for (var name : disabledReportsOrNull) {
+        if (name != null && !name.isBlank()) {
+          names.add(name.trim());
+        }
+      }
+    }
+    this.disabledReports = Set.copyOf(names);
+    return this;
+  }
+
+  boolean isPruneDuplicateSubtrees() {
+    return pruneDuplicateSubtrees;
+  }
+
+  @NotNull
+  PluginConfiguration pruneDuplicateSubtrees(boolean pruneDuplicateSubtrees) {
+    this.pruneDuplicateSubtrees = pruneDuplicateSubtrees;
+    return this;
+  }
+
+  boolean isGraphCache() {
+    return graphCache;
+  }
+
+  @NotNull
+  PluginConfiguration graphCache(boolean graphCache) {
+    this.graphCache = graphCache;
+    return this;
+  }
+
+  /**
+   * Get the directory of the graph cache.
+   *
+   * @return Path to the configured directory or ~/.m2/explicit-dependencies/graphs by default.
+   */
+  @NotNull
+  Path getGraphCacheDirectory() {
+    if (graphCacheDirectoryOrNull != null) {
+      return graphCacheDirectoryOrNull;
+    }
+    return Path.of(System.getProperty("user.home"), ".m2", "explicit-dependencies", "graphs");
+  }
+
+  @NotNull
+  PluginConfiguration graphCacheDirectory(@Nullable Path graphCacheDirectoryOrNull) {
+    this.graphCacheDirectoryOrNull = graphCacheDirectoryOrNull;
+    return this;
+  }
+
+  /** Get the maximum total size of the graph cache in bytes. */
+  long getGraphCacheMaxBytes() {
+    return graphCacheMaxSize * 1024 * 1024;
+  }
+
+  @NotNull
+  PluginConfiguration graphCacheMaxSize(long megabytes) {
+    this.graphCacheMaxSize = Math.max(0, megabytes);
+    return this;
+  }
+
+  boolean isWarmCache() {
+    return warmCache;
+  }
+
+  @NotNull
+  PluginConfiguration warmCache(boolean warmCache) {
+    this.warmCache = warmCache;
+    return this;
+  }
+
+  int getWarmCacheMaxEntries() {
+    return warmCacheMaxEntries;
+  }
+
+  @NotNull
+  PluginConfiguration warmCacheMaxEntries(int warmCacheMaxEntries) {
+    this.warmCacheMaxEntries = Math.max(0, warmCacheMaxEntries);
+    return this;
+  }
+
+  /** Get the maximum estimated size of the warm cache in bytes. */
+  long getWarmCacheMaxBytes() {
+    return warmCacheMaxSize * 1024 * 1024;
+  }
+
+  @NotNull
+  PluginConfiguration warmCacheMaxSize(long megabytes) {
+    this.warmCacheMaxSize = Math.max(0, megabytes);
+    return this;
+  }
+
+  boolean isGraphSnapshot() {
+    return graphSnapshot;
+  }
+
+  @NotNull
+  PluginConfiguration graphSnapshot(boolean graphSnapshot) {
+    this.graphSnapshot = graphSnapshot;
+    return this;
+  }
+
+  @Nullable
+  String getBaselineOrNull() {
+    return baselineOrNull;
+  }
+
+  @NotNull
+  PluginConfiguration baseline(@Nullable String baselineOrNull) {
+    this.baselineOrNull =
+        baselineOrNull == null || baselineOrNull.isBlank() ? null : baselineOrNull.trim();
+    return this;
+  }
+
+  boolean isUpdateBaseline() {
+    return updateBaseline;
+  }
+
+  @NotNull
+  PluginConfiguration updateBaseline(boolean updateBaseline) {
+    this.updateBaseline = updateBaseline;
+    return this;
+  }
+
+  boolean isBytecodeScan() {
+    return bytecodeScan;
+  }
+
+  @NotNull
+  PluginConfiguration bytecodeScan(boolean bytecodeScan) {
+    this.bytecodeScan = bytecodeScan;
+    return this;
+  }
+
+  boolean isClassIndex() {
+    return classIndex;
+  }
+
+  @NotNull
+  PluginConfiguration classIndex(boolean classIndex) {
+    this.classIndex = classIndex;
+    return this;
+  }
+
+  /** Get the directory of the class index, defaults to ~/.m2/explicit-dependencies/classes. */
+  @NotNull
+  Path getClassIndexDirectory() {
+    if (classIndexDirectoryOrNull != null) {
+      return classIndexDirectoryOrNull;
+    }
+    return Path.of(System.getProperty("user.home"), ".m2", "explicit-dependencies", "classes");
+  }
+
+  @NotNull
+  PluginConfiguration classIndexDirectory(@Nullable Path classIndexDirectoryOrNull) {
+    this.classIndexDirectoryOrNull = classIndexDirectoryOrNull;
+    return this;
+  }
+
+  @NotNull
+  Set<DependencyScope> getScopes() {
+    return scopes;
+  }
+
+  @NotNull
+  PluginConfiguration scopes(@NotNull Set<DependencyScope> scopes) {
+    this.scopes =
+        scopes.isEmpty() ? EnumSet.allOf(DependencyScope.class) : EnumSet.copyOf(scopes);
+    return this;
+  }
+
+  @NotNull
+  List<String> getArtifactIncludes() {
+    return artifactIncludes;
+  }
+
+  @NotNull
+  PluginConfiguration artifactIncludes(@Nullable Collection<String> patternsOrNull) {
+    this.artifactIncludes = trim(patternsOrNull);
+    return this;
+  }
+
+  @NotNull
+  List<String> getArtifactExcludes() {
+    return artifactExcludes;
+  }
+
+  @NotNull
+  PluginConfiguration artifactExcludes(@Nullable Collection<String> patternsOrNull) {
+    this.artifactExcludes = trim(patternsOrNull);
+    return this;
+  }
+
+  @NotNull
+  Set<DependencyScope> getExcludedScopes() {
+    return excludedScopes;
+  }
+
+  @NotNull
+  PluginConfiguration excludedScopes(@NotNull Set<DependencyScope> excludedScopes) {
+    this.excludedScopes =
+        excludedScopes.isEmpty()
+            ? EnumSet.noneOf(DependencyScope.class)
+            : EnumSet.copyOf(excludedScopes);
+    return this;
+  }
+
+  boolean isExcludeOptional() {
+    return excludeOptional;
+  }
+
+  @NotNull
+  PluginConfiguration excludeOptional(boolean excludeOptional) {
+    this.excludeOptional = excludeOptional;
+    return this;
+  }
+
+  /**
+   * Get all options which influence the outcome of the analysis. Options which only control how
+   * the analysis is executed (like {@link PluginConfiguration#incremental}) or how the verdict is
+   * reported (like {@link PluginConfiguration#force}) are left out.
+   *
+   * @return List of String in the format name=value.
+   * @see DependencyFingerprint#compute()
+   */
+  @NotNull
+  List<String> getAnalysisOptions() {
+    var options = new ArrayList<>(getGraphOptions());
+    options.add("scopes=" + ids(scopes));
+    return List.copyOf(options);
+  }
+
+  /**
+   * Get the options which influence the resolved dependency graph. The scopes only select which
+   * part of the graph counts towards the verdict, so they are left out.
+   *
+   * @return List of String in the format name=value.
+   * @see DependencyFingerprint#computeGraphKey()
+   */
+  @NotNull
+  List<String> getGraphOptions() {
+    return List.of(
+        "pruneDuplicateSubtrees=" + pruneDuplicateSubtrees,
+        "artifactIncludes=" + String.join(",", artifactIncludes),
+        "artifactExcludes=" + String.join(",", artifactExcludes),
+        "excludedScopes=" + ids(excludedScopes),
+        "excludeOptional=" + excludeOptional);
+  }
+
+  @NotNull
+  private static String ids(@NotNull Set<DependencyScope> scopes) {
+    var ids = new StringJoiner(",");
+    scopes.forEach(scope -> ids.add(scope.id()));
+    return ids.toString();
+  }
+
+  /** Get the non-blank values without surrounding whitespace. */
+  @NotNull
+  private static List<String> trim(@Nullable Collection<String> valuesOrNull) {
+    if (valuesOrNull == null) {
+      return List.of();
+    }
+    return valuesOrNull.stream()
+        .filter(value -> value != null && !value.isBlank())
+        .map(String::trim)
+        .toList();
+  }
+}
@@ -21,9 +21,16 @@
 package dev.buijs.maven.plugin.explicit.dependencies;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
@@ -43,21 +50,127 @@ public class PluginContext {
   private static final String LOG_DIRECTORY_DELETION_ERROR_MESSAGE =
       "failed to delete log directory";
 
+  /** The error message when a snapshot can not be replayed. */
+  private static final String SNAPSHOT_ERROR_MESSAGE = "failed to read snapshot";
+
+  /** The error message when the compiled classes can not be scanned. */
+  private static final String BYTECODE_SCAN_ERROR_MESSAGE = "failed to scan bytecode";
+
+  /** The error message when the baseline can not be updated. */
+  private static final String BASELINE_ERROR_MESSAGE = "failed to update baseline";
+
+  /** The message when the baseline is replaced by the current verdict. */
+  private static final String BASELINE_UPDATED_TEMPLATE = "baseline updated: %s";
+
+  /** The message when dependencies in the baseline are no longer missing. */
+  private static final String BASELINE_FIXED_TEMPLATE =
+      "%d dependencies in the baseline are no longer missing, remove them from %s";
+
+  /** Serialization template to identify a module. */
+  private static final String MODULE_ID_TEMPLATE = "%s:%s:%s";
+
+  /** The name of the file which holds the verdict of the last completed analysis. */
+  private static final String VERDICT_FILENAME = "dependenciesMissing.json";
+
+  /**
+   * Locks to make sure a log directory is only written by one execution at a time, even when
+   * modules share a build directory or the compile and aggregate goals run concurrently.
+   */
+  private static final ConcurrentMap<Path, Object> LOG_DIRECTORY_LOCKS = new ConcurrentHashMap<>();
+
+  @NotNull private final MavenProject project;
+  @NotNull private final MavenSession session;
+  @NotNull private final PluginConfiguration configuration;
+  @NotNull private final Path logDirectory;
+  @NotNull private final DependencyWriter writer;
   @NotNull private final DependencyCollector dependenciesCollector;
   @NotNull private final DependencyTreeCollector dependencyTreeCollector;
   @NotNull private final DependencyAnalyzer dependencyAnalyzer;
+  @NotNull private final DependencyRecordPool pool;
+  @NotNull private final PhaseMetrics metrics = new PhaseMetrics();
+
+  /** True when the last analysis reused the verdict of the previous run. */
+  private boolean verdictReused;
+
+  /** The delta between the last verdict and the baseline, or null when no baseline is used. */
+  @Nullable private DependencyAnalyzer.BaselineDelta baselineDeltaOrNull;
+
+  /** True when the last analysis replaced the baseline with its verdict. */
+  private boolean baselineUpdated;
+
+  /** The dependency ids per scope of the last analysis, empty when the verdict was reused. */
+  @NotNull private Map<DependencyScope, BitSet> implicitIdsByScope = Map.of();
+
+  /** The ids of the dependencies of the last analysis which are not a plain jar. */
+  @NotNull private BitSet nonJarIds = new BitSet();
 
   PluginContext(
       @NotNull MavenProject project,
       @NotNull MavenSession session,
       @NotNull DependencyGraphBuilder graphBuilder)
       throws PluginException {
-    @NotNull DependencyRecordConverter factory = new DependencyRecordConverter();
-    @NotNull DependencyWriter writer = new DependencyWriter(getLogDirectory(project, new IOUtil()));
-    this.dependencyAnalyzer = new DependencyAnalyzer(writer);
+    this(project, session, graphBuilder, new PluginConfiguration());
+  }
+
+  /**
+   * Create a context which can only replay a snapshot, because it can not resolve the
+   * dependency-tree.
+   *
+   * @see PluginContext#replay(Path)
+   */
+  PluginContext(
+      @NotNull MavenProject project,
+      @NotNull MavenSession session,
+      @NotNull PluginConfiguration configuration)
+      throws PluginException {
+    this(project, session, (DependencyGraphBuilder) null, configuration);
+  }
+
+  PluginContext(
+      @NotNull MavenProject project,
+      @NotNull MavenSession session,
+      @Nullable DependencyGraphBuilder graphBuilderOrNull,
+      @NotNull PluginConfiguration configuration)
+      throws PluginException {
+    var pool = DependencyRecordPool.forSession(session);
+    var factory = new DependencyRecordConverter(pool);
+    this.logDirectory = getLogDirectoryPath(project);
+    this.writer = new DependencyWriter(logDirectory, configuration);
+    this.project = project;
+    this.session = session;
+    this.configuration = configuration;
+    this.pool = pool;
+    this.dependencyAnalyzer = new DependencyAnalyzer(writer, moduleId(project), pool);
     this.dependenciesCollector = new DependencyCollector(project, factory, writer);
     this.dependencyTreeCollector =
-        new DependencyTreeCollector(project, session, graphBuilder, factory, writer);
+        new DependencyTreeCollector(
+            project, session, graphBuilderOrNull, writer, configuration, metrics);
+  }
+
+  /**
+   * Get the id of a module as used in reports, log messages and events.
+   *
+   * @param module the maven project.
+   * @return String groupId:artifactId:version.
+   */
+  @NotNull
+  static String moduleId(@NotNull MavenProject module) {
+    return String.format(
+        MODULE_ID_TEMPLATE, module.getGroupId(), module.getArtifactId(), module.getVersion());
+  }
+
+  /**
+   * Get the path to the log directory in the maven project build directory without creating it.
+   *
+   * @param project which is being analyzed and where the log should be stored.
+   * @return path to the log directory.
+   */
+  @NotNull
+  private static Path getLogDirectoryPath(@NotNull MavenProject project) {
+    return Path.of(project.getBuild().getDirectory())
+        .resolve(LOG_DIRECTORY)
+        .toAbsolutePath()
+        .normalize();
   }
 
   /**
@@ -93,17 +206,493 @@ public class PluginContext {
 
   @NotNull
   Set<DependencyRecord> getDependencies() throws PluginException {
-    return dependenciesCollector.getDependencies();
+    return metrics.measure(PhaseMetrics.COLLECT, dependenciesCollector::getDependencies);
+  }
+
+  /**
+   * Get all transitive dependencies that are not explicitly added.
+   *
+   * <p>When {@link PluginConfiguration#isIncremental()} is enabled and the fingerprint of the
+   * analysis inputs equals the fingerprint stored by the previous run, then the verdict of the
+   * previous run is returned without resolving the dependency-tree. The fingerprint is not stored
+   * when the dependency-tree has a SNAPSHOT, a version range or another module of the reactor,
+   * because then the tree can change without a change to the fingerprint.
+   *
+   * <p>When {@link PluginConfiguration#isBytecodeScan()} is enabled, only the missing
+   * dependencies which are referenced by the compiled classes are returned. When a baseline is
+   * configured, only the missing dependencies which are not in the baseline are returned.
+   *
+   * @return Set of DependencyRecord containing all missing explicit dependencies.
+   * @throws PluginException when the analysis failed.
+   * @see DependencyFingerprint
+   * @see PluginEvents.ModuleAnalysis
+   * @see PluginContext#getBaselineDeltaOrNull()
+   */
+  @NotNull
+  Set<DependencyRecord> getMissingExplicitDependencies() throws PluginException {
+    var event = new PluginEvents.ModuleAnalysis();
+    event.begin();
+    Set<DependencyRecord> dependencies;
+    synchronized (LOG_DIRECTORY_LOCKS.computeIfAbsent(logDirectory, path -> new Object())) {
+      try {
+        dependencies =
+            applyBaseline(applyBytecodeScan(getMissingExplicitDependenciesExclusively()));
+        writeMetrics();
+      } finally {
+        // Stops the background thread of the writer when a phase failed before its writes.
+        writer.discardWrites();
+      }
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.moduleId = moduleId(project);
+      event.missingCount = dependencies.size();
+      event.cached = verdictReused;
+      event.commit();
+    }
+    return dependencies;
   }
 
+  /**
+   * Get all transitive dependencies that are not explicitly added while holding the lock of the
+   * log directory.
+   *
+   * @see PluginContext#getMissingExplicitDependencies()
+   */
   @NotNull
-  Set<DependencyRecord> getDependenciesFromTree() throws PluginException {
-    return dependencyTreeCollector.getDependencies();
+  private Set<DependencyRecord> getMissingExplicitDependenciesExclusively()
+      throws PluginException {
+    verdictReused = false;
+    implicitIdsByScope = Map.of();
+    nonJarIds = new BitSet();
+    if (!configuration.isIncremental()) {
+      getLogDirectory(project, null);
+      return analyze();
+    }
+
+    var fingerprint =
+        metrics.measure(
+            PhaseMetrics.INCREMENTAL, new DependencyFingerprint(project, configuration)::compute);
+    if (!configuration.isForceFullRun()) {
+      var cachedOrNull =
+          metrics.measure(PhaseMetrics.INCREMENTAL, () -> getCachedVerdict(fingerprint));
+      if (cachedOrNull != null) {
+        verdictReused = true;
+        return cachedOrNull;
+      }
+    }
+
+    getLogDirectory(project, null);
+    var dependencies = analyze();
+    if (!dependencyTreeCollector.isStable()) {
+      // The graph can change without a change to the fingerprint, so the verdict is not reused.
+      return dependencies;
+    }
+    writeFingerprint(logDirectory, fingerprint);
+    if (configuration.isWarmCache()) {
+      WarmCache.VERDICTS.put(
+          fingerprint,
+          Set.copyOf(dependencies),
+          configuration.getWarmCacheMaxEntries(),
+          configuration.getWarmCacheMaxBytes());
+    }
+    return dependencies;
   }
 
+  /**
+   * Get all transitive dependencies that are not explicitly added, based on a snapshot of the
+   * dependency-tree of a previous run instead of resolving it. The snapshot is either the
+   * flattened dependency-tree (JSON, optionally gzipped) or the binary graph snapshot. Both are
+   * streamed into dependency ids, so the snapshot is never held in memory as a whole.
+   *
+   * <p>The existing log files are kept, except the fingerprint: a replayed verdict is never reused
+   * in incremental mode. A configured baseline is applied in the same way as for a full analysis.
+   *
+   * @param snapshot the flattened dependency-tree or graph snapshot of a previous run.
+   * @return Set of DependencyRecord containing all missing explicit dependencies.
+   * @throws PluginException when the snapshot can not be read or the analysis failed.
+   * @see DependencyTreeCollector#GRAPH_SNAPSHOT_FILENAME
+   */
   @NotNull
-  Set<DependencyRecord> getMissingExplicitDependencies() throws PluginException {
-    return dependencyAnalyzer.getMissingExplicitDependencies(
-        getDependencies(), getDependenciesFromTree());
+  Set<DependencyRecord> replay(@NotNull Path snapshot) throws PluginException {
+    synchronized (LOG_DIRECTORY_LOCKS.computeIfAbsent(logDirectory, path -> new Object())) {
+      try {
+        return replayExclusively(snapshot);
+      } finally {
+        // Stops the background thread of the writer when a phase failed before its writes.
+        writer.discardWrites();
+      }
+    }
+  }
+
+  /**
+   * Get all transitive dependencies that are not explicitly added, based on a snapshot of the
+   * dependency-tree of a previous run, while holding the lock of the log directory.
+   *
+   * @see PluginContext#replay(Path)
+   */
+  @NotNull
+  private Set<DependencyRecord> replayExclusively(@NotNull Path snapshot) throws PluginException {
+    verdictReused = false;
+    var implicit = metrics.measure(PhaseMetrics.REPLAY, () -> readSnapshot(snapshot));
+    implicitIdsByScope = implicit.implicitIdsByScope();
+    nonJarIds = implicit.nonJarIds();
+    try {
+      Files.createDirectories(logDirectory);
+      Files.deleteIfExists(logDirectory.resolve(DependencyFingerprint.FILENAME));
+    } catch (IOException e) {
+      throw new PluginException(e, LOG_DIRECTORY_CREATION_ERROR_MESSAGE);
+    }
+
+    var explicitIds = pool.ids(getDependencies());
+    var dependencies =
+        metrics.measure(
+            PhaseMetrics.ANALYZE,
+            () ->
+                dependencyAnalyzer.getMissingExplicitDependencies(
+                    explicitIds, implicit.implicitIds(), implicit.implicitIdsByScope()));
+    metrics.run(PhaseMetrics.WRITE, writer::awaitWrites);
+    var verdict = applyBaseline(applyBytecodeScan(dependencies));
+    writeMetrics();
+    return verdict;
+  }
+
+  /**
+   * Get the delta between the last verdict and the baseline.
+   *
+   * @return BaselineDelta or null when no baseline is configured, the baseline file does not exist
+   *     or the baseline was updated.
+   * @see PluginConfiguration#getBaselineOrNull()
+   */
+  @Nullable
+  DependencyAnalyzer.BaselineDelta getBaselineDeltaOrNull() {
+    return baselineDeltaOrNull;
+  }
+
+  /**
+   * Describe the outcome of the baseline of the last analysis for the build log.
+   *
+   * @return String or null when there is nothing to report.
+   */
+  @Nullable
+  String describeBaselineOrNull() {
+    var baselineOrNull = getBaselineFileOrNull();
+    if (baselineUpdated) {
+      return String.format(BASELINE_UPDATED_TEMPLATE, baselineOrNull);
+    }
+    if (baselineDeltaOrNull == null || baselineDeltaOrNull.fixed().isEmpty()) {
+      return null;
+    }
+    return String.format(
+        BASELINE_FIXED_TEMPLATE, baselineDeltaOrNull.fixed().size(), baselineOrNull);
+  }
+
+  /**
+   * Keep the missing dependencies which are referenced by the compiled classes. Dependencies of
+   * the test scope are kept when they are referenced by the compiled test classes as well. The
+   * full verdict is stored (and reused in incremental mode) before the classes are scanned,
+   * because the classes change without any change to the fingerprint.
+   *
+   * <p>Dependencies are kept when the classes they are checked against do not exist, e.g. the
+   * test classes when the compile goal runs before test-compile. The scope of a dependency is not
+   * known when the verdict is reused, so then every dependency may be referenced by the tests.
+   *
+   * @param missing Set of DependencyRecord containing all missing explicit dependencies.
+   * @return Set of DependencyRecord which are referenced, or all of them when the scan is
+   *     disabled or there are no compiled classes.
+   * @see ClassFileScanner
+   * @see DependencyUsageAnalyzer
+   */
+  @NotNull
+  private Set<DependencyRecord> applyBytecodeScan(@NotNull Set<DependencyRecord> missing)
+      throws PluginException {
+    var classesOrNull = getDirectoryOrNull(project.getBuild().getOutputDirectory());
+    var testClassesOrNull = getDirectoryOrNull(project.getBuild().getTestOutputDirectory());
+    if (!configuration.isBytecodeScan()
+        || missing.isEmpty()
+        || (classesOrNull == null && testClassesOrNull == null)) {
+      return missing;
+    }
+
+    var repositoryOrNull = session.getLocalRepository();
+    var basedirOrNull = repositoryOrNull == null ? null : repositoryOrNull.getBasedir();
+    if (basedirOrNull == null || basedirOrNull.isBlank()) {
+      throw new PluginException(session, BYTECODE_SCAN_ERROR_MESSAGE, "unknown local repository");
+    }
+
+    var testDependencies =
+        missing.stream()
+            .filter(
+                dependency ->
+                    implicitIdsByScope.isEmpty() || getScope(dependency) == DependencyScope.TEST)
+            .collect(Collectors.toSet());
+    var localRepository = Path.of(basedirOrNull);
+    var indexOrNull =
+        configuration.isClassIndex()
+            ? new JarClassIndex(configuration.getClassIndexDirectory(), localRepository)
+            : null;
+    var analyzer = new DependencyUsageAnalyzer(writer, localRepository, indexOrNull);
+    var referenced =
+        metrics.measure(
+            PhaseMetrics.BYTECODE,
+            () -> {
+              var scanner = new ClassFileScanner();
+              var classReferencesOrNull =
+                  classesOrNull == null ? null : scanner.scan(classesOrNull);
+              Set<String> testReferencesOrNull = null;
+              if (testClassesOrNull != null && !testDependencies.isEmpty()) {
+                testReferencesOrNull = new HashSet<>(scanner.scan(testClassesOrNull));
+                if (classReferencesOrNull != null) {
+                  testReferencesOrNull.addAll(classReferencesOrNull);
+                }
+              }
+              return analyzer.getReferencedDependencies(
+                  missing, classReferencesOrNull, testDependencies, testReferencesOrNull);
+            });
+    metrics.run(PhaseMetrics.WRITE, writer::awaitWrites);
+    return referenced;
+  }
+
+  /** Get a directory of compiled classes, or null when it is not configured or does not exist. */
+  @Nullable
+  private static Path getDirectoryOrNull(@Nullable String directoryOrNull) {
+    if (directoryOrNull == null || !Files.isDirectory(Path.of(directoryOrNull))) {
+      return null;
+    }
+    return Path.of(directoryOrNull);
+  }
+
+  /**
+   * Compare the missing dependencies with the baseline, or replace the baseline with them when
+   * {@link PluginConfiguration#isUpdateBaseline()} is enabled.
+   *
+   * @param missing Set of DependencyRecord containing all missing explicit dependencies.
+   * @return Set of DependencyRecord which counts towards the verdict.
+   */
+  @NotNull
+  private Set<DependencyRecord> applyBaseline(@NotNull Set<DependencyRecord> missing)
+      throws PluginException {
+    baselineDeltaOrNull = null;
+    baselineUpdated = false;
+    var baselineOrNull = getBaselineFileOrNull();
+    if (baselineOrNull == null) {
+      return missing;
+    }
+
+    if (configuration.isUpdateBaseline()) {
+      var sorted = missing.stream().sorted().toList();
+      try {
+        Files.createDirectories(baselineOrNull.toAbsolutePath().getParent());
+      } catch (IOException e) {
+        throw new PluginException(e, BASELINE_ERROR_MESSAGE, e.getMessage());
+      }
+      new DependencyWriter(baselineOrNull.toAbsolutePath().getParent())
+          .writeNewFile(baselineOrNull.getFileName().toString(), sorted);
+      baselineUpdated = true;
+      return Set.of();
+    }
+
+    if (!Files.isRegularFile(baselineOrNull)) {
+      return missing;
+    }
+
+    var delta =
+        metrics.measure(
+            PhaseMetrics.ANALYZE,
+            () -> dependencyAnalyzer.getBaselineDelta(missing, baselineOrNull));
+    metrics.run(PhaseMetrics.WRITE, writer::awaitWrites);
+    baselineDeltaOrNull = delta;
+    return delta.introduced();
+  }
+
+  /** Get the baseline file of this module, relative to its base directory. */
+  @Nullable
+  private Path getBaselineFileOrNull() {
+    var baselineOrNull = configuration.getBaselineOrNull();
+    if (baselineOrNull == null) {
+      return null;
+    }
+    var basedirOrNull = project.getBasedir();
+    return basedirOrNull == null
+        ? Path.of(baselineOrNull)
+        : basedirOrNull.toPath().resolve(baselineOrNull).normalize();
+  }
+
+  /**
+   * Read the ids of all dependencies in a snapshot. Only a graph snapshot knows the scope of the
+   * dependencies, every dependency of a flattened dependency-tree counts towards the verdict.
+   *
+   * @see PluginContext#replay(Path)
+   */
+  @NotNull
+  private Snapshot readSnapshot(@NotNull Path snapshot) throws PluginException {
+    if (!Files.isRegularFile(snapshot)) {
+      throw new PluginException(
+          snapshot, SNAPSHOT_ERROR_MESSAGE, "snapshot not found, run the compile goal first");
+    }
+
+    if (!snapshot.getFileName().toString().endsWith(DependencyGraphCache.EXTENSION)) {
+      return new Snapshot(new DependencyReader().readIds(snapshot, pool), Map.of(), new BitSet());
+    }
+
+    try {
+      var entryOrNull = DependencyGraphCache.readFile(snapshot, pool);
+      if (entryOrNull == null) {
+        throw new PluginException(snapshot, SNAPSHOT_ERROR_MESSAGE, "invalid graph snapshot");
+      }
+      var implicitIdsByScope = entryOrNull.graph().getDependencyIdsByScope();
+      return new Snapshot(
+          DependencyScope.union(implicitIdsByScope, configuration.getScopes()),
+          implicitIdsByScope,
+          entryOrNull.graph().getNonJarDependencyIds());
+    } catch (IOException e) {
+      throw new PluginException(e, SNAPSHOT_ERROR_MESSAGE, e.getMessage());
+    }
+  }
+
+  /**
+   * Get the scope of a dependency in the dependency-tree of the last analysis. When the dependency
+   * occurs with multiple scopes, the widest scope is returned (compile before provided, runtime
+   * and test).
+   *
+   * @param dependency one of the missing explicit dependencies.
+   * @return DependencyScope or COMPILE when the scope is unknown, e.g. when the verdict is reused.
+   */
+  @NotNull
+  DependencyScope getScope(@NotNull DependencyRecord dependency) {
+    var id = pool.id(dependency);
+    for (var scope : DependencyScope.values()) {
+      var idsOrNull = implicitIdsByScope.get(scope);
+      if (idsOrNull != null && idsOrNull.get(id)) {
+        return scope;
+      }
+    }
+    return DependencyScope.COMPILE;
+  }
+
+  /**
+   * Check if a dependency is a plain jar in the dependency-tree of the last analysis, so its
+   * coordinate identifies the artifact.
+   *
+   * @param dependency one of the missing explicit dependencies.
+   * @return false when the dependency has another type than jar or a classifier, true when it is a
+   *     plain jar or when that is unknown, e.g. when the verdict is reused.
+   */
+  boolean isJar(@NotNull DependencyRecord dependency) {
+    return !nonJarIds.get(pool.id(dependency));
+  }
+
+  /**
+   * Get the metrics of every phase of the analysis, which accumulate when the analysis is executed
+   * more than once.
+   *
+   * @return PhaseMetrics.
+   * @see PhaseMetrics#FILENAME
+   */
+  @NotNull
+  PhaseMetrics getMetrics() {
+    return metrics;
   }
+
+  /**
+   * Run the full analysis and wait for all log files to be written, so the log directory is
+   * complete before the lock is released.
+   */
+  @NotNull
+  private Set<DependencyRecord> analyze() throws PluginException {
+    var explicitIds = pool.ids(getDependencies());
+    implicitIdsByScope = dependencyTreeCollector.getDependencyIdsByScope();
+    nonJarIds = dependencyTreeCollector.getNonJarDependencyIds();
+    var implicitIds = DependencyScope.union(implicitIdsByScope, configuration.getScopes());
+    var dependencies =
+        metrics.measure(
+            PhaseMetrics.ANALYZE,
+            () ->
+                dependencyAnalyzer.getMissingExplicitDependencies(
+                    explicitIds, implicitIds, this.implicitIdsByScope));
+    metrics.run(PhaseMetrics.WRITE, writer::awaitWrites);
+    return dependencies;
+  }
+
+  /**
+   * Store the metrics of all phases, which is the last log file that is written.
+   *
+   * @see PhaseMetrics#FILENAME
+   */
+  private void writeMetrics() throws PluginException {
+    writer.writeNewFile(PhaseMetrics.FILENAME, metrics.toJson());
+    writer.awaitWrites();
+  }
+
+  /**
+   * Get the verdict of the previous run if it was computed from the same inputs. The verdict is
+   * taken from the warm cache when it is enabled, instead of reading the stored verdict. The warm
+   * cache also holds the verdicts of earlier runs, e.g. of a pom which is changed back: the log
+   * directory is then written again with that verdict.
+   *
+   * @param fingerprint of the current analysis inputs.
+   * @return Set of DependencyRecord or null when there is no reusable verdict.
+   * @throws PluginException when the stored verdict can not be read or written.
+   */
+  @Nullable
+  private Set<DependencyRecord> getCachedVerdict(@NotNull String fingerprint)
+      throws PluginException {
+    var fingerprintFile = logDirectory.resolve(DependencyFingerprint.FILENAME);
+    var verdictFile = writer.resolve(VERDICT_FILENAME);
+    var stored =
+        Files.isRegularFile(verdictFile) && fingerprint.equals(readFingerprint(fingerprintFile));
+
+    var warmOrNull = configuration.isWarmCache() ? WarmCache.VERDICTS.get(fingerprint) : null;
+    if (warmOrNull != null) {
+      var verdict = pool.records(pool.ids(warmOrNull));
+      if (!stored) {
+        getLogDirectory(project, null);
+        writer.writeNewFile(VERDICT_FILENAME, verdict);
+        writer.awaitWrites();
+        writeFingerprint(logDirectory, fingerprint);
+      }
+      return verdict;
+    }
+    return stored ? new DependencyReader().read(verdictFile) : null;
+  }
+
+  /** Read a stored fingerprint, which is empty when it is not stored or can not be read. */
+  @NotNull
+  private static String readFingerprint(@NotNull Path fingerprintFile) {
+    if (!Files.isRegularFile(fingerprintFile)) {
+      return "";
+    }
+    try {
+      return Files.readString(fingerprintFile).trim();
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Store the fingerprint after the analysis and all log files are completed, so an interrupted
+   * run is never reused.
+   */
+  private static void writeFingerprint(@NotNull Path logDirectory, @NotNull String fingerprint)
+      throws PluginException {
+    try {
+      Files.writeString(logDirectory.resolve(DependencyFingerprint.FILENAME), fingerprint);
+    } catch (IOException e) {
+      throw new PluginException(e, "failed to write fingerprint");
+    }
+  }
+
+  /**
+   * The dependencies of a snapshot.
+   *
+   * @param implicitIds BitSet of the ids of the dependencies which count towards the verdict.
+   * @param implicitIdsByScope BitSet of the ids of all dependencies per scope, which is empty when
+   *     the snapshot does not know the scopes.
+   * @param nonJarIds BitSet of the ids of the dependencies which are not a plain jar, which is
+   *     empty when the snapshot does not know the types.
+   */
+  private record Snapshot(
+      @NotNull BitSet implicitIds,
+      @NotNull Map<DependencyScope, BitSet> implicitIdsByScope,
+      @NotNull BitSet nonJarIds) {}
 }
@@ -0,0 +1,146 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events which show where the plugin spends its time in a recording, next to
+ * GC and I/O events of the same thread.
+ *
+ * <p>Every event is used in the same way: begin, do the work, end and only fill and commit the
+ * event when {@link Event#shouldCommit()} returns true. Without an active recording (or when the
+ * event is disabled) begin, end and shouldCommit are no-ops, so the values of an event are never
+ * computed.
+ *
+ * <pre>
+ * var event = new PluginEvents.Analyze();
+ * event.begin();
+ * var missing = ...;
+ * event.end();
+ * if (event.shouldCommit()) {
+ *   event.missingCount = missing.size();
+ *   event.commit();
+ * }
+ * </pre>
+ */
+final class PluginEvents {
+
+  /** The category of all plugin events in JDK Mission Control. */
+  private static final String CATEGORY_MAVEN = "Maven";
+
+  /** The sub category of all plugin events in JDK Mission Control. */
+  private static final String CATEGORY_PLUGIN = "Explicit Dependencies";
+
+  private PluginEvents() {}
+
+  /** The analysis of a single module, which encloses all other events of that module. */
+  @Name("dev.buijs.explicitdependencies.ModuleAnalysis")
+  @Label("Module Analysis")
+  @Category({CATEGORY_MAVEN, CATEGORY_PLUGIN})
+  @Description("Find the missing explicit dependencies of a module")
+  @StackTrace(false)
+  static final class ModuleAnalysis extends Event {
+
+    @Label("Module")
+    String moduleId;
+
+    @Label("Missing Dependencies")
+    int missingCount;
+
+    @Label("Cached")
+    @Description("The verdict of the previous run is reused in incremental mode")
+    boolean cached;
+  }
+
+  /** Resolving and traversing the dependency-tree into a DependencyGraph. */
+  @Name("dev.buijs.explicitdependencies.DependencyTree")
+  @Label("Dependency Tree")
+  @Category({CATEGORY_MAVEN, CATEGORY_PLUGIN})
+  @Description("Resolve the dependency-tree and convert it to a dependency graph")
+  @StackTrace(false)
+  static final class DependencyTree extends Event {
+
+    @Label("Module")
+    String moduleId;
+
+    @Label("Nodes")
+    @Description("The number of traversed nodes, including the module itself")
+    int nodeCount;
+
+    @Label("Dependencies")
+    @Description("The number of distinct dependencies, including the module itself")
+    int dependencyCount;
+
+    @Label("Pruned")
+    boolean pruned;
+
+    @Label("Cached")
+    @Description("The graph is read from the persistent graph cache")
+    boolean cached;
+  }
+
+  /** Comparing the explicit dependencies with the dependency-tree. */
+  @Name("dev.buijs.explicitdependencies.Analyze")
+  @Label("Analyze")
+  @Category({CATEGORY_MAVEN, CATEGORY_PLUGIN})
+  @Description("Compare the explicit dependencies with the dependency-tree")
+  @StackTrace(false)
+  static final class Analyze extends Event {
+
+    @Label("Module")
+    String moduleId;
+
+    @Label("Explicit Dependencies")
+    int explicitCount;
+
+    @Label("Implicit Dependencies")
+    int implicitCount;
+
+    @Label("Missing Dependencies")
+    int missingCount;
+  }
+
+  /** Writing a single log file, which happens on the writer thread for asynchronous writes. */
+  @Name("dev.buijs.explicitdependencies.Write")
+  @Label("Write Log File")
+  @Category({CATEGORY_MAVEN, CATEGORY_PLUGIN})
+  @Description("Write a log file of the analysis")
+  @StackTrace(false)
+  static final class Write extends Event {
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes Written")
+    @DataAmount(DataAmount.BYTES)
+    long bytesWritten;
+
+    @Label("Compressed")
+    boolean compressed;
+  }
+}
@@ -22,27 +22,23 @@ package dev.buijs.maven.plugin.explicit.dependencies;
 
 import java.util.Set;
 import java.util.function.Function;
-import org.apache.maven.execution.MavenSession;
-import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
-import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
 import org.jetbrains.annotations.NotNull;
 
-@Mojo(name = "compile", defaultPhase = LifecyclePhase.COMPILE)
-public class PluginMojo extends AbstractMojo {
+@Mojo(name = "compile", defaultPhase = LifecyclePhase.COMPILE, threadSafe = true)
+public class PluginMojo extends AbstractPluginMojo {
 
   /** The message logged when all dependencies are explicit. */
-  private static final String INFO_SUCCESS_MESSAGE = "dependency-tree is fully explicit";
+  static final String INFO_SUCCESS_MESSAGE = "dependency-tree is fully explicit";
 
   /** The message logged when not all dependencies are explicit. */
-  private static final String WARN_MISSING_EXPLICITS_MESSAGE = "missing explicit dependencies: %s";
+  static final String WARN_MISSING_EXPLICITS_MESSAGE = "missing explicit dependencies: %s";
 
   /** The exception message when not all dependencies are explicit. */
-  private static final String EXCEPTION_MISSING_EXPLICITS_MESSAGE =
+  static final String EXCEPTION_MISSING_EXPLICITS_MESSAGE =
       "fix this error by adding all missing dependencies to your pom explicitly";
 
   /** Serialization template to pretty print dependency records. */
@@ -58,19 +54,19 @@ public class PluginMojo extends AbstractMojo {
 
   @Component DependencyGraphBuilder dependencyGraphBuilder;
 
-  @Parameter(defaultValue = "${session}", readonly = true)
-  MavenSession session;
-
-  @Parameter(defaultValue = "${project}", required = true, readonly = true)
-  MavenProject project;
-
-  @Parameter(property = "force", defaultValue = "true")
-  Boolean force;
-
   @Override
   public void execute() throws PluginException {
-    var context = new PluginContext(project, session, dependencyGraphBuilder);
+    var configuration = configuration();
+    var context = new PluginContext(project, session, dependencyGraphBuilder, configuration);
     var dependencies = context.getMissingExplicitDependencies();
+    if (getLog().isDebugEnabled()) {
+      getLog().debug("metrics " + context.getMetrics().summary());
+      getLog().debug(DependencyRecordPool.forSession(session).describeMetrics());
+    }
+    var baselineMessageOrNull = context.describeBaselineOrNull();
+    if (baselineMessageOrNull != null) {
+      getLog().info(baselineMessageOrNull);
+    }
     if (dependencies.isEmpty()) {
       onSuccess();
     } else {
@@ -92,7 +88,7 @@ public class PluginMojo extends AbstractMojo {
    *
    * @see PluginMojo#WARN_MISSING_EXPLICITS_MESSAGE
    * @param dependencies the implicit dependencies that should be added explicitly.
-   * @throws PluginException when {@link PluginMojo#force} is set to true.
+   * @throws PluginException when {@link AbstractPluginMojo#force} is set to true.
    */
   private void onFailure(@NotNull Set<DependencyRecord> dependencies) throws PluginException {
     var prettyPrinted = prettyPrint(dependencies);
@@ -103,7 +99,7 @@ public class PluginMojo extends AbstractMojo {
     }
   }
 
-  private String prettyPrint(@NotNull Set<DependencyRecord> dependencies) {
+  static String prettyPrint(@NotNull Set<DependencyRecord> dependencies) {
     var builder = new StringBuilder();
     dependencies.stream()
         .map(prettyPrint)
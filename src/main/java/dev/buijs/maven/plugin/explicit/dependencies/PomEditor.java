@@ -0,0 +1,481 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Utility to add dependencies to the project dependencies of a pom without changing anything else.
+ *
+ * <p>The pom is validated with a streaming XML parser and scanned as text to find the offset of
+ * the project dependencies (or the end of the project when it has none), then the new
+ * dependencies are spliced into the original text. Comments, whitespace and the order of
+ * elements are kept exactly as they are, unlike a DOM round-trip. The new dependencies follow the
+ * indentation and line separator of the pom.
+ *
+ * <p>A pom is read and written in the encoding of its XML declaration, which is UTF-8 when it
+ * declares none. A pom is only written when a dependency is added, so an unchanged pom keeps its
+ * last modified time. A pom which is a symbolic link stays a link and its permissions are kept.
+ *
+ * @see FixPluginMojo
+ */
+final class PomEditor {
+
+  /** The indentation which is used when the pom is not indented. */
+  private static final String DEFAULT_INDENT = "    ";
+
+  private static final String PROJECT = "project";
+
+  private static final String DEPENDENCIES = "dependencies";
+
+  private static final String DEPENDENCY = "dependency";
+
+  private static final String GROUP_ID = "groupId";
+
+  private static final String ARTIFACT_ID = "artifactId";
+
+  private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+  /** The exception message when a pom can not be edited. */
+  private static final String EXCEPTION_MESSAGE = "failed to add dependencies to pom";
+
+  private final XMLInputFactory factory;
+
+  /** The groupId:artifactId of the dependencies which get their version from management. */
+  @NotNull private final Set<String> managed;
+
+  PomEditor() {
+    this(Set.of());
+  }
+
+  /**
+   * Create an editor for a pom with dependency management.
+   *
+   * @param managed the groupId:artifactId of the dependencies of which the version is managed, by
+   *     the pom, a parent or an imported BOM. They are added without a version.
+   */
+  PomEditor(@NotNull Set<String> managed) {
+    this.managed = managed;
+    factory = XMLInputFactory.newDefaultFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  /**
+   * Add dependencies to the project dependencies of a pom. Dependencies of which the groupId and
+   * artifactId are already declared are skipped.
+   *
+   * @param pom Path to the pom.xml file.
+   * @param dependencies the dependencies to add and their scope, in the order they are added.
+   * @return int the number of added dependencies, the pom is not written when it is 0.
+   * @throws PluginException when the pom can not be read, parsed or written.
+   */
+  int addDependencies(
+      @NotNull Path pom, @NotNull Map<DependencyRecord, DependencyScope> dependencies)
+      throws PluginException {
+    if (dependencies.isEmpty()) {
+      return 0;
+    }
+
+    Path temp = null;
+    try {
+      var bytes = Files.readAllBytes(pom);
+      var charset = charsetOf(bytes);
+      var content = new String(bytes, charset);
+      var scanned = scan(content);
+      var added = undeclared(dependencies, scanned);
+      if (added.isEmpty()) {
+        return 0;
+      }
+      temp = Files.createTempFile(pom.toRealPath().getParent(), ".pom", ".xml");
+      Files.writeString(temp, splice(content, scanned, added), charset);
+      IOUtil.replace(temp, pom);
+      return added.size();
+    } catch (IOException e) {
+      IOUtil.deleteQuietly(temp);
+      throw new PluginException(e, EXCEPTION_MESSAGE, pom.toString());
+    } catch (XMLStreamException e) {
+      throw new PluginException(e, EXCEPTION_MESSAGE, pom + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Add dependencies to the project dependencies of a pom.
+   *
+   * @param content the text of the pom.
+   * @param dependencies the dependencies to add and their scope.
+   * @return String the edited pom, which is the same instance when nothing is added.
+   * @throws XMLStreamException when the pom is not valid XML.
+   */
+  @NotNull
+  String addDependencies(
+      @NotNull String content, @NotNull Map<DependencyRecord, DependencyScope> dependencies)
+      throws XMLStreamException {
+    var pom = scan(content);
+    var added = undeclared(dependencies, pom);
+    return added.isEmpty() ? content : splice(content, pom, added);
+  }
+
+  /** Get the dependencies of which the groupId and artifactId are not declared in the pom. */
+  @NotNull
+  private static Map<DependencyRecord, DependencyScope> undeclared(
+      @NotNull Map<DependencyRecord, DependencyScope> dependencies, @NotNull Pom pom) {
+    var undeclared = new LinkedHashMap<DependencyRecord, DependencyScope>();
+    dependencies.forEach(
+        (record, scope) -> {
+          if (!pom.declared().contains(record.groupId() + ":" + record.artifactId())) {
+            undeclared.put(record, scope);
+          }
+        });
+    return undeclared;
+  }
+
+  /** Insert the dependencies in the text of the pom. */
+  @NotNull
+  private String splice(
+      @NotNull String content,
+      @NotNull Pom pom,
+      @NotNull Map<DependencyRecord, DependencyScope> dependencies) {
+    var lineSeparator = content.contains("\r\n") ? "\r\n" : "\n";
+    var unit = pom.indentOrNull() == null ? DEFAULT_INDENT : pom.indentOrNull();
+    var indent = unit + unit;
+    var block = new StringBuilder();
+    dependencies.forEach(
+        (record, scope) -> {
+          var versionOrNull =
+              managed.contains(record.groupId() + ":" + record.artifactId())
+                  ? null
+                  : record.version();
+          appendDependency(block, record, versionOrNull, scope, indent, unit, lineSeparator);
+        });
+
+    if (pom.dependenciesEnd() < 0) {
+      var element = new StringBuilder();
+      element.append(unit).append("<dependencies>").append(lineSeparator);
+      element.append(block);
+      element.append(unit).append("</dependencies>").append(lineSeparator);
+      return insertBefore(content, pom.projectEnd(), element.toString(), lineSeparator);
+    }
+
+    if (pom.selfClosing()) {
+      // <dependencies/> is replaced with an element which holds the new dependencies.
+      var element = new StringBuilder(content.substring(0, pom.dependenciesStart()));
+      element.append("<dependencies>").append(lineSeparator);
+      element.append(block);
+      element.append(unit).append("</dependencies>");
+      return element.append(content, pom.dependenciesEnd(), content.length()).toString();
+    }
+
+    return insertBefore(content, pom.dependenciesStart(), block.toString(), lineSeparator);
+  }
+
+  /**
+   * Insert lines before a closing tag. The lines are inserted at the start of the line of the tag
+   * when only whitespace precedes it, otherwise on a new line right before the tag.
+   */
+  @NotNull
+  private static String insertBefore(
+      @NotNull String content,
+      int closingTag,
+      @NotNull String lines,
+      @NotNull String lineSeparator) {
+    var lineStart = closingTag;
+    while (lineStart > 0 && isIndent(content.charAt(lineStart - 1))) {
+      lineStart--;
+    }
+    if (lineStart > 0 && content.charAt(lineStart - 1) == '\n') {
+      return content.substring(0, lineStart) + lines + content.substring(lineStart);
+    }
+    return content.substring(0, closingTag) + lineSeparator + lines + content.substring(closingTag);
+  }
+
+  private static void appendDependency(
+      @NotNull StringBuilder block,
+      @NotNull DependencyRecord record,
+      @Nullable String versionOrNull,
+      @NotNull DependencyScope scope,
+      @NotNull String indent,
+      @NotNull String unit,
+      @NotNull String lineSeparator) {
+    var childIndent = indent + unit;
+    block.append(indent).append("<dependency>").append(lineSeparator);
+    appendElement(block, childIndent, GROUP_ID, record.groupId(), lineSeparator);
+    appendElement(block, childIndent, ARTIFACT_ID, record.artifactId(), lineSeparator);
+    if (versionOrNull != null) {
+      appendElement(block, childIndent, "version", versionOrNull, lineSeparator);
+    }
+    if (scope != DependencyScope.COMPILE) {
+      appendElement(block, childIndent, "scope", scope.id(), lineSeparator);
+    }
+    block.append(indent).append("</dependency>").append(lineSeparator);
+  }
+
+  private static void appendElement(
+      @NotNull StringBuilder block,
+      @NotNull String indent,
+      @NotNull String name,
+      @NotNull String value,
+      @NotNull String lineSeparator) {
+    block.append(indent).append('<').append(name).append('>');
+    for (var index = 0; index < value.length(); index++) {
+      var character = value.charAt(index);
+      switch (character) {
+        case '&' -> block.append("&amp;");
+        case '<' -> block.append("&lt;");
+        case '>' -> block.append("&gt;");
+        default -> block.append(character);
+      }
+    }
+    block.append("</").append(name).append('>').append(lineSeparator);
+  }
+
+  /**
+   * Find the offsets and indentation of the project dependencies.
+   *
+   * <p>The offsets are found by scanning the raw text for tags, skipping comments, CDATA,
+   * processing instructions and the document type. The offsets which a streaming XML parser
+   * reports are not offsets in the text once it contains CRLF, entities, CDATA or a byte order
+   * mark, so the parser is only used to validate the pom and read the declared dependencies.
+   */
+  @NotNull
+  private Pom scan(@NotNull String content) throws XMLStreamException {
+    var declared = readDeclared(content);
+    var depth = 0;
+    String indentOrNull = null;
+    var dependenciesStart = -1;
+    var dependenciesEnd = -1;
+    var selfClosing = false;
+    var projectEnd = -1;
+    var start = content.indexOf('<');
+    while (start >= 0) {
+      var end = tagEnd(content, start);
+      if (content.startsWith("</", start)) {
+        var name = tagName(content, start + 2);
+        if (depth == 2 && DEPENDENCIES.equals(name)) {
+          dependenciesStart = start;
+          dependenciesEnd = end;
+        } else if (depth == 1 && PROJECT.equals(name)) {
+          projectEnd = start;
+        }
+        depth--;
+      } else if (!isMarkup(content, start)) {
+        depth++;
+        var name = tagName(content, start + 1);
+        var empty = content.startsWith("/>", end - 2);
+        if (depth == 2 && indentOrNull == null) {
+          indentOrNull = indentOf(content, start);
+        }
+        if (depth == 2 && DEPENDENCIES.equals(name) && empty) {
+          dependenciesStart = start;
+          dependenciesEnd = end;
+          selfClosing = true;
+        }
+        if (empty) {
+          depth--;
+        }
+      }
+      start = content.indexOf('<', end);
+    }
+    if (projectEnd < 0) {
+      throw new XMLStreamException("not a pom, missing project element");
+    }
+    return new Pom(
+        indentOrNull, dependenciesStart, dependenciesEnd, selfClosing, projectEnd, declared);
+  }
+
+  /**
+   * Get the encoding of a pom as reported by the XML parser, which reads the XML declaration and
+   * the byte order mark.
+   *
+   * @param content the bytes of the pom.
+   * @return Charset of the pom, UTF-8 when the parser can not tell.
+   * @throws XMLStreamException when the XML declaration is not valid.
+   */
+  @NotNull
+  private Charset charsetOf(byte[] content) throws XMLStreamException {
+    var reader = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+    try {
+      var encodingOrNull = reader.getEncoding();
+      return encodingOrNull != null ? Charset.forName(encodingOrNull) : StandardCharsets.UTF_8;
+    } catch (IllegalArgumentException e) {
+      throw new XMLStreamException("unsupported encoding", e);
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** Get the groupId:artifactId of all project dependencies with a streaming XML parser. */
+  @NotNull
+  private Set<String> readDeclared(@NotNull String content) throws XMLStreamException {
+    var xml = content.startsWith(BYTE_ORDER_MARK) ? content.substring(1) : content;
+    var reader = factory.createXMLStreamReader(new StringReader(xml));
+    try {
+      var depth = 0;
+      var inDependencies = false;
+      String groupIdOrNull = null;
+      String artifactIdOrNull = null;
+      var declared = new HashSet<String>();
+      while (reader.hasNext()) {
+        var event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+          var name = reader.getLocalName();
+          if (depth == 2 && DEPENDENCIES.equals(name)) {
+            inDependencies = true;
+          } else if (inDependencies && depth == 3 && DEPENDENCY.equals(name)) {
+            groupIdOrNull = null;
+            artifactIdOrNull = null;
+          } else if (inDependencies && depth == 4 && GROUP_ID.equals(name)) {
+            groupIdOrNull = reader.getElementText().trim();
+            depth--;
+          } else if (inDependencies && depth == 4 && ARTIFACT_ID.equals(name)) {
+            artifactIdOrNull = reader.getElementText().trim();
+            depth--;
+          }
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          var name = reader.getLocalName();
+          if (inDependencies && depth == 3 && DEPENDENCY.equals(name)) {
+            declared.add(groupIdOrNull + ":" + artifactIdOrNull);
+          } else if (depth == 2 && DEPENDENCIES.equals(name)) {
+            inDependencies = false;
+          }
+          depth--;
+        }
+      }
+      return declared;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /** True when a tag is a comment, CDATA, processing instruction or document type. */
+  private static boolean isMarkup(@NotNull String content, int tag) {
+    return content.startsWith("<!", tag) || content.startsWith("<?", tag);
+  }
+
+  /**
+   * Get the offset after a tag, skipping the quoted attribute values of an element and the whole
+   * content of markup like comments and CDATA.
+   */
+  private static int tagEnd(@NotNull String content, int tag) throws XMLStreamException {
+    var end = -1;
+    if (content.startsWith("<!--", tag)) {
+      end = endOf(content, tag + 4, "-->");
+    } else if (content.startsWith("<![CDATA[", tag)) {
+      end = endOf(content, tag + 9, "]]>");
+    } else if (content.startsWith("<?", tag)) {
+      end = endOf(content, tag + 2, "?>");
+    } else {
+      char quote = 0;
+      var brackets = 0;
+      for (var index = tag + 1; index < content.length() && end < 0; index++) {
+        var character = content.charAt(index);
+        if (quote != 0) {
+          quote = character == quote ? 0 : quote;
+        } else if (character == '"' || character == '\'') {
+          quote = character;
+        } else if (character == '[') {
+          // The internal subset of a document type may contain tags.
+          brackets++;
+        } else if (character == ']') {
+          brackets--;
+        } else if (character == '>' && brackets <= 0) {
+          end = index + 1;
+        }
+      }
+    }
+    if (end < 0) {
+      throw new XMLStreamException("unterminated tag at offset " + tag);
+    }
+    return end;
+  }
+
+  private static int endOf(@NotNull String content, int from, @NotNull String terminator) {
+    var index = content.indexOf(terminator, from);
+    return index < 0 ? -1 : index + terminator.length();
+  }
+
+  /** Get the local name of an element, without its prefix. */
+  @NotNull
+  private static String tagName(@NotNull String content, int nameStart) {
+    var nameEnd = nameStart;
+    while (nameEnd < content.length() && isNameCharacter(content.charAt(nameEnd))) {
+      nameEnd++;
+    }
+    var name = content.substring(nameStart, nameEnd);
+    return name.substring(name.indexOf(':') + 1);
+  }
+
+  private static boolean isNameCharacter(char character) {
+    return !Character.isWhitespace(character) && character != '/' && character != '>';
+  }
+
+  /** Get the whitespace which precedes a tag on its line, or null when the tag is not indented. */
+  @Nullable
+  private static String indentOf(@NotNull String content, int tag) {
+    var lineStart = tag;
+    while (lineStart > 0 && isIndent(content.charAt(lineStart - 1))) {
+      lineStart--;
+    }
+    if (lineStart == tag || (lineStart > 0 && content.charAt(lineStart - 1) != '\n')) {
+      return null;
+    }
+    return content.substring(lineStart, tag);
+  }
+
+  private static boolean isIndent(char character) {
+    return character == ' ' || character == '\t';
+  }
+
+  /**
+   * The offsets in a pom which are needed to add dependencies.
+   *
+   * @param indentOrNull the indentation of the children of the project.
+   * @param dependenciesStart the offset of the closing tag of the project dependencies, or the
+   *     offset of the whole element when it is self-closing.
+   * @param dependenciesEnd the offset after the project dependencies or -1 when there are none.
+   * @param selfClosing true when the project dependencies are written as {@code <dependencies/>}.
+   * @param projectEnd the offset of the closing tag of the project.
+   * @param declared the groupId:artifactId of all project dependencies.
+   */
+  private record Pom(
+      @Nullable String indentOrNull,
+      int dependenciesStart,
+      int dependenciesEnd,
+      boolean selfClosing,
+      int projectEnd,
+      @NotNull Set<String> declared) {}
+}
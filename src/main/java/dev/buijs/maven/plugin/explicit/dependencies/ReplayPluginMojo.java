@@ -0,0 +1,86 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.io.File;
+import java.util.Set;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Verify the explicit dependencies of the pom against a snapshot of the dependency-tree of a
+ * previous run, without resolving the dependency-tree. This is meant for pull request builds
+ * where only the pom changed: the snapshot is produced by the compile goal on the base branch.
+ *
+ * <p>This goal does not inject a DependencyGraphBuilder, so it can never resolve a
+ * dependency-tree. Only a graph snapshot knows the scope of its dependencies, so every dependency
+ * of a flattened dependency-tree counts regardless of the scopes.
+ *
+ * @see ReplayPluginMojo#snapshot
+ * @see PluginContext#replay(java.nio.file.Path)
+ */
+@Mojo(name = "replay", threadSafe = true)
+public class ReplayPluginMojo extends AbstractPluginMojo {
+
+  /**
+   * The snapshot to verify against: the flattened dependency-tree (dependencyTreeFlattened.json,
+   * optionally gzipped) or the binary graph snapshot (dependencyGraph.graph) of the compile goal.
+   */
+  @Parameter(
+      property = "snapshot",
+      defaultValue =
+          "${project.build.directory}/maven-explicit-dependencies/dependencyTreeFlattened.json")
+  File snapshot;
+
+  @Override
+  public void execute() throws PluginException {
+    var configuration = configuration();
+    var context = new PluginContext(project, session, configuration);
+    var dependencies = context.replay(snapshot.toPath());
+    if (getLog().isDebugEnabled()) {
+      getLog().debug("metrics " + context.getMetrics().summary());
+    }
+    var baselineMessageOrNull = context.describeBaselineOrNull();
+    if (baselineMessageOrNull != null) {
+      getLog().info(baselineMessageOrNull);
+    }
+    if (dependencies.isEmpty()) {
+      getLog().info(PluginMojo.INFO_SUCCESS_MESSAGE);
+    } else {
+      onFailure(dependencies);
+    }
+  }
+
+  /**
+   * Log warning message when not all dependencies in the snapshot are explicit.
+   *
+   * @param dependencies the implicit dependencies that should be added explicitly.
+   * @throws PluginException when {@link AbstractPluginMojo#force} is set to true.
+   */
+  private void onFailure(@NotNull Set<DependencyRecord> dependencies) throws PluginException {
+    var prettyPrinted = PluginMojo.prettyPrint(dependencies);
+    getLog().warn(String.format(PluginMojo.WARN_MISSING_EXPLICITS_MESSAGE, prettyPrinted));
+    if (force) {
+      throw new PluginException(dependencies, PluginMojo.EXCEPTION_MISSING_EXPLICITS_MESSAGE);
+    }
+  }
+}
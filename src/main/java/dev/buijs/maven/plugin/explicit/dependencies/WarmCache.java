@@ -0,0 +1,163 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory cache which survives across sessions in the same JVM, e.g. in a Maven daemon (mvnd)
+ * where the plugin classes stay loaded between builds.
+ *
+ * <p>Values are keyed by the {@link DependencyFingerprint} of a module, so a changed POM is never
+ * served from the cache. The cache is bounded by the number of entries and by the estimated size
+ * of all values: the least recently used entries are removed first. Values are softly
+ * referenced, so the garbage collector clears them before the JVM runs out of memory.
+ *
+ * <p>A cache is safe for concurrent use.
+ *
+ * @see WarmCache#GRAPHS
+ * @see WarmCache#VERDICTS
+ */
+final class WarmCache<V> {
+
+  /** The estimated size of a reference to a record in a collection. */
+  private static final long BYTES_PER_RECORD = 48;
+
+  /** The estimated size of an int in one of the graph arrays. */
+  private static final long BYTES_PER_INT = Integer.BYTES;
+
+  /**
+   * The resolved dependency graphs and serialized dependency-trees.
+   *
+   * @see DependencyTreeCollector#getDependencyGraph()
+   */
+  static final WarmCache<DependencyGraphCache.Entry> GRAPHS =
+      new WarmCache<>(WarmCache::estimateBytes);
+
+  /**
+   * The verdicts of the analysis.
+   *
+   * @see PluginContext#getMissingExplicitDependencies()
+   */
+  static final WarmCache<Set<DependencyRecord>> VERDICTS =
+      new WarmCache<>(verdict -> BYTES_PER_RECORD * (verdict.size() + 1));
+
+  /** The entries in access order, so the first entry is the least recently used. */
+  @NotNull
+  private final LinkedHashMap<String, CachedValue<V>> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  @NotNull private final ToLongFunction<V> estimator;
+
+  /** The estimated size of all entries, including entries which are cleared by the GC. */
+  private long totalBytes;
+
+  WarmCache(@NotNull ToLongFunction<V> estimator) {
+    this.estimator = estimator;
+  }
+
+  /**
+   * Get a cached value.
+   *
+   * @param key the fingerprint of the module.
+   * @return V or null when the value is not cached or cleared by the garbage collector.
+   */
+  @Nullable
+  synchronized V get(@NotNull String key) {
+    var cached = entries.get(key);
+    if (cached == null) {
+      return null;
+    }
+
+    var valueOrNull = cached.reference().get();
+    if (valueOrNull == null) {
+      remove(key);
+    }
+    return valueOrNull;
+  }
+
+  /**
+   * Cache a value and remove the least recently used values until the cache is within bounds.
+   *
+   * @param key the fingerprint of the module.
+   * @param value which is cached.
+   * @param maxEntries the maximum number of entries.
+   * @param maxBytes the maximum estimated size of all values.
+   */
+  synchronized void put(@NotNull String key, @NotNull V value, int maxEntries, long maxBytes) {
+    remove(key);
+    var bytes = estimator.applyAsLong(value);
+    if (maxEntries <= 0 || bytes > maxBytes) {
+      return;
+    }
+
+    entries.put(key, new CachedValue<>(new SoftReference<>(value), bytes));
+    totalBytes += bytes;
+    var iterator = entries.entrySet().iterator();
+    while (iterator.hasNext() && (entries.size() > maxEntries || totalBytes > maxBytes)) {
+      totalBytes -= iterator.next().getValue().bytes();
+      iterator.remove();
+    }
+  }
+
+  /** Get the number of cached entries, including entries which are cleared by the GC. */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /** Get the estimated size of all cached values. */
+  synchronized long estimatedBytes() {
+    return totalBytes;
+  }
+
+  /** Remove all entries. */
+  synchronized void clear() {
+    entries.clear();
+    totalBytes = 0;
+  }
+
+  private void remove(@NotNull String key) {
+    var removed = entries.remove(key);
+    if (removed != null) {
+      totalBytes -= removed.bytes();
+    }
+  }
+
+  /**
+   * Estimate the retained size of a graph, which is dominated by its arrays and records. Every
+   * node takes three ints and one scope byte.
+   */
+  private static long estimateBytes(@NotNull DependencyGraphCache.Entry entry) {
+    var graph = entry.graph();
+    var tree = entry.treeOrNull();
+    return (BYTES_PER_INT * 3L + Byte.BYTES) * graph.nodeCount()
+        + BYTES_PER_RECORD * graph.coordinateCount()
+        + (tree == null ? 0 : 2L * tree.length());
+  }
+
+  /** A softly referenced value and its estimated size. */
+  private record CachedValue<V>(@NotNull SoftReference<V> reference, long bytes) {}
+}
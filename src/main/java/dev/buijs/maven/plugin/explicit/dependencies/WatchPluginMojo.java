@@ -0,0 +1,313 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Analyze every module of the reactor and keep analyzing the modules of which the pom changes,
+ * until the build is stopped.
+ *
+ * <p>The directories of all poms are watched with a WatchService. When a pom changes, the module
+ * and the modules which inherit from it are built again from their poms and analyzed together
+ * with the modules which depend on them, so only the affected modules are analyzed. The rebuilt
+ * modules are analyzed with the warm cache, so a pom which is changed back to an earlier version
+ * gets its verdict from memory. A graph with SNAPSHOTs, version ranges or other modules of the
+ * reactor is never cached, so it is resolved again. Any other change resolves the graph, even when
+ * only dependencies are declared: a direct declaration can change which version of a transitive
+ * dependency wins. The modules which depend on them are always resolved again, because their own
+ * pom (and so their fingerprint) did not change.
+ *
+ * @see WatchPluginMojo#idleTimeout
+ */
+@Mojo(name = "watch", aggregator = true, threadSafe = true)
+public class WatchPluginMojo extends AbstractReactorMojo {
+
+  /** The time to wait for more changes after a change, so one save is analyzed once. */
+  private static final long DEBOUNCE_MILLIS = 100;
+
+  /** The message logged once all poms are watched. */
+  private static final String INFO_WATCHING_TEMPLATE = "watching %d poms for changes";
+
+  /** The message logged when poms changed. */
+  private static final String INFO_CHANGED_TEMPLATE = "%s changed, analyzing %d modules";
+
+  /** The message logged when the watch stops because nothing changed. */
+  private static final String INFO_IDLE_TEMPLATE = "no changes for %d seconds, stopped watching";
+
+  /** The message logged for a single module. */
+  private static final String MODULE_MESSAGE_TEMPLATE = "%s: %s (%d ms)";
+
+  /** The exception message when the poms can not be watched. */
+  private static final String EXCEPTION_WATCH_MESSAGE = "failed to watch poms";
+
+  @Component ProjectBuilder projectBuilder;
+
+  /** Stop watching after this many seconds without changes, 0 to watch until the build stops. */
+  @Parameter(property = "idleTimeout", defaultValue = "0")
+  int idleTimeout;
+
+  @Override
+  public void execute() throws PluginException {
+    var configuration = configuration().incremental(true).warmCache(true);
+    // The pom of a dependent module did not change, so its graph and verdict are never reused.
+    var dependentConfiguration = configuration().incremental(true).forceFullRun(true);
+
+    var reactor = new LinkedHashMap<Path, MavenProject>();
+    for (var module : session.getProjects()) {
+      var pomOrNull = module.getFile();
+      if (pomOrNull != null) {
+        reactor.putIfAbsent(pomOrNull.toPath().toAbsolutePath().normalize(), module);
+      }
+    }
+
+    var executor = newExecutor(reactor.size());
+    try (var watchService = FileSystems.getDefault().newWatchService()) {
+      for (var pom : reactor.keySet()) {
+        pom.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+      }
+      var modules = new LinkedHashMap<>(reactor);
+      analyze(executor, modules.values(), configuration);
+      getLog().info(String.format(INFO_WATCHING_TEMPLATE, reactor.size()));
+      watch(watchService, executor, reactor, modules, configuration, dependentConfiguration);
+    } catch (IOException e) {
+      throw new PluginException(e, EXCEPTION_WATCH_MESSAGE, e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Analyze the affected modules every time poms change, until the idle timeout expires.
+   *
+   * @param reactor the modules as they are built by maven, which know their dependents.
+   * @param modules the modules as they are built from the current poms.
+   */
+  private void watch(
+      @NotNull WatchService watchService,
+      @NotNull ExecutorService executor,
+      @NotNull Map<Path, MavenProject> reactor,
+      @NotNull Map<Path, MavenProject> modules,
+      @NotNull PluginConfiguration configuration,
+      @NotNull PluginConfiguration dependentConfiguration)
+      throws InterruptedException {
+    while (true) {
+      var key =
+          idleTimeout > 0 ? watchService.poll(idleTimeout, TimeUnit.SECONDS) : watchService.take();
+      if (key == null) {
+        getLog().info(String.format(INFO_IDLE_TEMPLATE, idleTimeout));
+        return;
+      }
+
+      var changed = new LinkedHashSet<Path>();
+      collect(key, reactor, changed);
+      while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+        collect(key, reactor, changed);
+      }
+      if (changed.isEmpty()) {
+        continue;
+      }
+
+      // A module which inherits from a changed pom has a changed effective pom as well.
+      var reloaded = new LinkedHashSet<>(changed);
+      reloaded.addAll(getInheriting(reactor, changed));
+      var changedModules = new ArrayList<MavenProject>();
+      for (var pom : reloaded) {
+        var reloadedOrNull = reload(pom);
+        if (reloadedOrNull != null) {
+          modules.put(pom, reloadedOrNull);
+          changedModules.add(reloadedOrNull);
+        }
+      }
+      var dependents = getDependents(reactor, reloaded);
+      var dependentModules = dependents.stream().map(modules::get).toList();
+
+      getLog()
+          .info(
+              String.format(
+                  INFO_CHANGED_TEMPLATE,
+                  changed,
+                  changedModules.size() + dependentModules.size()));
+      analyze(executor, changedModules, configuration);
+      analyze(executor, dependentModules, dependentConfiguration);
+    }
+  }
+
+  /** Add the reactor poms of which a watch key has events. */
+  private static void collect(
+      @NotNull WatchKey key, @NotNull Map<Path, MavenProject> reactor, @NotNull Set<Path> changed) {
+    var directory = (Path) key.watchable();
+    for (var event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        for (var pom : reactor.keySet()) {
+          if (pom.getParent().equals(directory)) {
+            changed.add(pom);
+          }
+        }
+      } else if (reactor.containsKey(directory.resolve((Path) event.context()))) {
+        changed.add(directory.resolve((Path) event.context()));
+      }
+    }
+    key.reset();
+  }
+
+  /**
+   * Build a module again from its changed pom.
+   *
+   * @return MavenProject or null when the pom can not be built, e.g. while it is being edited.
+   */
+  @Nullable
+  private MavenProject reload(@NotNull Path pom) {
+    var request = new DefaultProjectBuildingRequest(session.getProjectBuildingRequest());
+    request.setResolveDependencies(false);
+    try {
+      return projectBuilder.build(pom.toFile(), request).getProject();
+    } catch (ProjectBuildingException e) {
+      getLog().warn(pom + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /** Get the poms of all modules which inherit from a changed pom, excluding the changed ones. */
+  @NotNull
+  private static Set<Path> getInheriting(
+      @NotNull Map<Path, MavenProject> reactor, @NotNull Set<Path> changed) {
+    var inheriting = new LinkedHashSet<Path>();
+    reactor.forEach(
+        (pom, module) -> {
+          for (var parent = module.getParent(); parent != null; parent = parent.getParent()) {
+            var parentPomOrNull = parent.getFile();
+            if (parentPomOrNull != null
+                && changed.contains(parentPomOrNull.toPath().toAbsolutePath().normalize())
+                && !changed.contains(pom)) {
+              inheriting.add(pom);
+              return;
+            }
+          }
+        });
+    return inheriting;
+  }
+
+  /** Get the poms of all modules which depend on a changed module, excluding the changed ones. */
+  @NotNull
+  private Set<Path> getDependents(
+      @NotNull Map<Path, MavenProject> reactor, @NotNull Set<Path> changed) {
+    var dependents = new LinkedHashSet<Path>();
+    var graphOrNull = session.getProjectDependencyGraph();
+    if (graphOrNull == null) {
+      return dependents;
+    }
+    for (var pom : changed) {
+      for (var dependent : graphOrNull.getDownstreamProjects(reactor.get(pom), true)) {
+        var dependentPomOrNull = dependent.getFile();
+        if (dependentPomOrNull == null) {
+          continue;
+        }
+        var dependentPom = dependentPomOrNull.toPath().toAbsolutePath().normalize();
+        if (reactor.containsKey(dependentPom) && !changed.contains(dependentPom)) {
+          dependents.add(dependentPom);
+        }
+      }
+    }
+    return dependents;
+  }
+
+  /**
+   * Analyze modules concurrently and log their verdicts. A failed module is logged, so the watch
+   * continues.
+   */
+  private void analyze(
+      @NotNull ExecutorService executor,
+      @NotNull Collection<MavenProject> modules,
+      @NotNull PluginConfiguration configuration) {
+    var futures = new LinkedHashMap<String, Future<Verdict>>();
+    for (var module : modules) {
+      futures.put(
+          PluginContext.moduleId(module),
+          executor.submit(
+              () -> {
+                var start = System.nanoTime();
+                var context =
+                    new PluginContext(module, session, dependencyGraphBuilder, configuration);
+                var dependencies = context.getMissingExplicitDependencies();
+                return new Verdict(dependencies, System.nanoTime() - start);
+              }));
+    }
+
+    for (var future : futures.entrySet()) {
+      var moduleId = future.getKey();
+      try {
+        var verdict = await(moduleId, future.getValue());
+        var millis = TimeUnit.NANOSECONDS.toMillis(verdict.nanos());
+        if (verdict.dependencies().isEmpty()) {
+          getLog()
+              .info(
+                  String.format(
+                      MODULE_MESSAGE_TEMPLATE, moduleId, PluginMojo.INFO_SUCCESS_MESSAGE, millis));
+        } else {
+          var prettyPrinted = PluginMojo.prettyPrint(verdict.dependencies());
+          var warning = String.format(PluginMojo.WARN_MISSING_EXPLICITS_MESSAGE, prettyPrinted);
+          getLog().warn(String.format(MODULE_MESSAGE_TEMPLATE, moduleId, warning, millis));
+        }
+      } catch (PluginException e) {
+        getLog().error(moduleId + ": " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /** The verdicts are only logged, so they never fail the build. */
+  @NotNull
+  @Override
+  PluginConfiguration configuration() throws PluginException {
+    return super.configuration().force(false);
+  }
+
+  /** The verdict of a single module and the time it took. */
+  private record Verdict(@NotNull Set<DependencyRecord> dependencies, long nanos) {}
+}
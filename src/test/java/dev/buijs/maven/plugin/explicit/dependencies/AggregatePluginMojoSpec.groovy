@@ -0,0 +1,124 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import groovy.json.JsonSlurper
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.model.Dependency
+import org.apache.maven.plugin.logging.Log
+import org.apache.maven.project.MavenProject
+import org.apache.maven.project.ProjectBuildingRequest
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.logDirectory
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.module
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.rootNode
+
+class AggregatePluginMojoSpec extends Specification {
+
+    def graphBuilder = Stub(DependencyGraphBuilder) {
+        it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { arguments ->
+            //noinspection GroovyAssignabilityCheck
+            rootNode(arguments[0].project as MavenProject)
+        }
+    }
+
+    def "Verify all modules are analyzed and combined in one report"() {
+        given:
+        def root = module("root")
+        def modules = [root, module("pizza"), module("burger"), module("fries")]
+        modules[1].dependencies = [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        def log = Mock(Log)
+        def mojo = mojo(root, modules, false)
+        mojo.log = log
+
+        when:
+        mojo.execute()
+
+        then:
+        1 * log.info("my.favorite.food:pizza:1.0.0: dependency-tree is fully explicit")
+        1 * log.warn("my.favorite.food:root:1.0.0: missing explicit dependencies: \n -  foo.groupie.bar:1.2.3")
+        1 * log.warn("my.favorite.food:burger:1.0.0: missing explicit dependencies: \n -  foo.groupie.bar:1.2.3")
+        1 * log.warn("my.favorite.food:fries:1.0.0: missing explicit dependencies: \n -  foo.groupie.bar:1.2.3")
+
+        and:
+        def report = logDirectory(root).resolve("reactorDependenciesMissing.json")
+        with(new JsonSlurper().parse(report.toFile()) as Map) {
+            it.keySet().toList() == modules.collect { "my.favorite.food:${it.artifactId}:1.0.0".toString() }
+            it["my.favorite.food:pizza:1.0.0"] == []
+            it["my.favorite.food:burger:1.0.0"] == [[groupId: "foo.groupie", artifactId: "bar", version: "1.2.3"]]
+        }
+
+        and:
+        modules.every { Files.exists(logDirectory(it).resolve("dependenciesMissing.json")) }
+
+        and: "the metrics of all modules are combined with the slowest module first"
+        1 * log.info({ it.startsWith("slowest modules: ") })
+        1 * log.info("most common missing dependencies: foo.groupie:bar:1.2.3 (3 modules)")
+        def metrics = new JsonSlurper().parse(logDirectory(root).resolve("reactorMetrics.json").toFile()) as Map
+        metrics.keySet() == modules.collect { "my.favorite.food:${it.artifactId}:1.0.0".toString() } as Set
+        metrics.values()*.totalMillis == metrics.values()*.totalMillis.sort(false).reverse()
+    }
+
+    def "Verify a PluginException is thrown when dependencies are missing in any module and force is true"() {
+        given:
+        def root = module("root")
+        def modules = [root, module("pizza")]
+
+        when:
+        mojo(root, modules, true).execute()
+
+        then:
+        PluginException e = thrown()
+        e.message == "fix this error by adding all missing dependencies to your pom explicitly"
+    }
+
+    def "Verify a failing module analysis is reported"() {
+        given:
+        def root = module("root")
+        def failingBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { throw new IllegalStateException("BOOM!") }
+        }
+        def mojo = new AggregatePluginMojo(project: root,
+                session: Stub(MavenSession) { it.projects >> [root] },
+                dependencyGraphBuilder: failingBuilder,
+                force: true)
+
+        when:
+        mojo.execute()
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to analyze module"
+        e.longMessage == "my.favorite.food:root:1.0.0"
+    }
+
+    def mojo(MavenProject root, List<MavenProject> modules, boolean force) {
+        new AggregatePluginMojo(project: root,
+                session: Stub(MavenSession) { it.projects >> modules },
+                dependencyGraphBuilder: graphBuilder,
+                force: force,
+                threads: 2)
+    }
+}
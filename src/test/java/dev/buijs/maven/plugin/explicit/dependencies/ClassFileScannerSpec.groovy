@@ -0,0 +1,75 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class ClassFileScannerSpec extends Specification {
+
+    def sut = new ClassFileScanner()
+
+    def "Verify classes referenced by class entries, descriptors and annotations are found"() {
+        given:
+        def directory = Files.createTempDirectory("cfs")
+        def classes = Path.of(PluginContext.protectionDomain.codeSource.location.toURI())
+        def nested = directory.resolve("dev/buijs")
+        Files.createDirectories(nested)
+        Files.copy(classes.resolve("dev/buijs/maven/plugin/explicit/dependencies/PluginContext.class"), nested.resolve("PluginContext.class"))
+        Files.writeString(nested.resolve("NotAClass.class"), "pizza")
+
+        when:
+        def names = sut.scan(directory)
+
+        then: "a class entry"
+        names.contains("org/apache/maven/project/MavenProject")
+
+        and: "a method descriptor and a class retention annotation"
+        names.contains("org/apache/maven/shared/dependency/graph/DependencyGraphBuilder")
+        names.contains("org/jetbrains/annotations/NotNull")
+
+        and: "a field descriptor"
+        names.contains("java/util/concurrent/ConcurrentMap")
+
+        and: "no names of strings or members"
+        !names.any { it.contains(" ") || it.contains(".") }
+    }
+
+    def "Verify the classes of a whole output directory are scanned in parallel"() {
+        given:
+        def classes = Path.of(PluginContext.protectionDomain.codeSource.location.toURI())
+
+        when:
+        def names = sut.scan(classes)
+
+        then:
+        names.contains("dev/buijs/maven/plugin/explicit/dependencies/DependencyRecord")
+        names.contains("jdk/jfr/Event")
+        names.contains("java/util/BitSet")
+    }
+
+    def "Verify no classes are found when the directory does not exist"() {
+        expect:
+        sut.scan(Files.createTempDirectory("cfs").resolve("classes")).isEmpty()
+    }
+}
@@ -0,0 +1,118 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.shared.dependency.graph.DependencyNode
+import org.apache.maven.shared.dependency.graph.traversal.CollectingDependencyNodeVisitor
+import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor
+import spock.lang.Specification
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
+class CompositeDependencyNodeVisitorSpec extends Specification {
+
+    def root = tree("my:root:1",
+            ["my:pizza:1", "my:cheese:1", "my:tomato:1"],
+            ["my:burger:1", "my:bun:1"],
+            "my:fries:1")
+
+    def "Verify every visitor receives every node in the same order as a separate traversal"() {
+        given:
+        def expected = new CollectingDependencyNodeVisitor()
+        root.accept(expected)
+
+        and:
+        def first = new CollectingDependencyNodeVisitor()
+        def second = new CollectingDependencyNodeVisitor()
+
+        when:
+        root.accept(new CompositeDependencyNodeVisitor(first, second))
+
+        then:
+        first.nodes == expected.nodes
+        second.nodes == expected.nodes
+        first.nodes.size() == 7
+    }
+
+    def "Verify a visitor which skips children does not see them while other visitors do"() {
+        given:
+        def pruning = new RecordingVisitor(skipChildrenOf: "pizza")
+        def full = new RecordingVisitor()
+
+        when:
+        root.accept(new CompositeDependencyNodeVisitor(pruning, full))
+
+        then:
+        pruning.visited == ["root", "pizza", "burger", "bun", "fries"]
+        pruning.ended == ["pizza", "bun", "burger", "fries", "root"]
+        full.visited == ["root", "pizza", "cheese", "tomato", "burger", "bun", "fries"]
+    }
+
+    def "Verify a visitor which skips siblings does not see them while other visitors do"() {
+        given:
+        def pruning = new RecordingVisitor(skipSiblingsOf: "cheese")
+        def full = new RecordingVisitor()
+
+        when:
+        root.accept(new CompositeDependencyNodeVisitor(pruning, full))
+
+        then:
+        pruning.visited == ["root", "pizza", "cheese", "burger", "bun", "fries"]
+        full.visited == ["root", "pizza", "cheese", "tomato", "burger", "bun", "fries"]
+    }
+
+    def "Verify the traversal skips a subtree when no visitor is interested"() {
+        given:
+        def first = new RecordingVisitor(skipChildrenOf: "pizza")
+        def second = new RecordingVisitor(skipChildrenOf: "pizza")
+        def traversed = []
+        def spy = new DependencyNodeVisitor() {
+            boolean visit(DependencyNode node) { traversed << node.artifact.artifactId; true }
+            boolean endVisit(DependencyNode node) { true }
+        }
+
+        when:
+        root.accept(new CompositeDependencyNodeVisitor(first, second))
+        root.accept(new CompositeDependencyNodeVisitor(first, spy))
+
+        then:
+        first.visited.count("cheese") == 0
+        second.visited.count("cheese") == 0
+        traversed.contains("cheese")
+    }
+
+    static class RecordingVisitor implements DependencyNodeVisitor {
+        String skipChildrenOf
+        String skipSiblingsOf
+        def visited = []
+        def ended = []
+
+        boolean visit(DependencyNode node) {
+            visited << node.artifact.artifactId
+            node.artifact.artifactId != skipChildrenOf
+        }
+
+        boolean endVisit(DependencyNode node) {
+            ended << node.artifact.artifactId
+            node.artifact.artifactId != skipSiblingsOf
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+class CoordinateTableSpec extends Specification {
+
+    def sut = new CoordinateTable()
+
+    def "Verify every unique coordinate gets the next id"() {
+        expect:
+        sut.intern("my", "pizza", "1") == 0
+        sut.intern("my", "cheese", "1") == 1
+        sut.intern("my", "pizza", "1") == 0
+        sut.intern("my", "pizza", "2") == 2
+        sut.size() == 3
+        sut.record(2) == new DependencyRecord("my", "pizza", "2")
+    }
+
+    def "Verify the same record is returned for every lookup of a coordinate"() {
+        when:
+        def id = sut.intern("my", "pizza", "1")
+
+        then:
+        sut.record(id).is(sut.record(sut.intern(new String("my"), new String("pizza"), new String("1"))))
+    }
+
+    def "Verify ids are stable when the table grows"() {
+        given:
+        def ids = (0..<10_000).collect { sut.intern("group${it % 100}", "artifact${it}", "1.0.${it % 7}") }
+
+        expect:
+        ids == (0..<10_000).toList()
+        (0..<10_000).every { sut.intern("group${it % 100}", "artifact${it}", "1.0.${it % 7}") == it }
+        sut.size() == 10_000
+    }
+
+    def "Verify an exception is thrown for an unknown id"() {
+        when:
+        sut.record(0)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+}
@@ -22,6 +22,8 @@ package dev.buijs.maven.plugin.explicit.dependencies
 
 import spock.lang.Specification
 
+import java.nio.file.Files
+
 class DependencyAnalyzerSpec extends Specification {
 
     def static dependency1 =
@@ -32,12 +34,14 @@ class DependencyAnalyzerSpec extends Specification {
 
     def writer = Mock(DependencyWriter.class)
 
-    def sut = new DependencyAnalyzer(writer)
+    def pool = new DependencyRecordPool()
+
+    def sut = new DependencyAnalyzer(writer, null, pool)
 
     def "Verify an empty list is returned when all dependencies are explicit"() {
         given:
-        Set<DependencyRecord> explicit = Set.of(dependency1)
-        Set<DependencyRecord> implicit = Set.of(dependency1)
+        def explicit = pool.ids([dependency1])
+        def implicit = pool.ids([dependency1])
 
         when:
         def missing = sut
@@ -52,8 +56,8 @@ class DependencyAnalyzerSpec extends Specification {
 
     def "Verify al missing dependencies are returned when dependencies are missing"() {
         given:
-        Set<DependencyRecord> explicit = Set.of()
-        Set<DependencyRecord> implicit = Set.of(dependency1, dependency2)
+        def explicit = pool.ids([])
+        def implicit = pool.ids([dependency1, dependency2])
 
         when:
         def missing = sut
@@ -66,4 +70,47 @@ class DependencyAnalyzerSpec extends Specification {
         and:
         1 * writer.writeNewFile("dependenciesMissing.json", _)
     }
+
+    def "Verify the missing dependencies are found by their ids"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def sut = new DependencyAnalyzer(writer, "my:module:1", pool)
+        def explicit = pool.ids([dependency1])
+        def implicit = pool.ids([dependency1, dependency2, new DependencyRecord("com.example", "baz", "1")])
+
+        when:
+        def missing = sut.getMissingExplicitDependencies(explicit, implicit)
+
+        then:
+        missing.toList() == [dependency2, new DependencyRecord("com.example", "baz", "1")]
+        implicit.cardinality() == 3
+
+        and:
+        1 * writer.writeNewFile("dependenciesMissing.json", { it.size() == 2 })
+    }
+
+    def "Verify only the delta with the baseline is returned, also when the baseline is not sorted"() {
+        given:
+        def directory = Files.createTempDirectory("das")
+        def baz = new DependencyRecord("com.example", "baz", "1")
+        def qux = new DependencyRecord("com.example", "qux", "1")
+        Files.writeString(directory.resolve("baseline.json"), baseline.collect { it.toString() }.toString())
+        def missing = [dependency2, baz, dependency1] as LinkedHashSet
+
+        when:
+        def delta = sut.getBaselineDelta(missing, directory.resolve("baseline.json"))
+
+        then:
+        delta.introduced().toList() == [baz]
+        delta.fixed().toList() == [qux]
+
+        and:
+        1 * writer.writeNewFile("dependenciesIntroduced.json", [baz] as Set)
+        1 * writer.writeNewFile("dependenciesFixed.json", [qux] as Set)
+
+        where:
+        baseline << [
+                [new DependencyRecord("com.example", "bar", "1.2.3"), new DependencyRecord("com.example", "foo", "1.2.3"), new DependencyRecord("com.example", "qux", "1")],
+                [new DependencyRecord("com.example", "qux", "1"), new DependencyRecord("com.example", "foo", "1.2.3"), new DependencyRecord("com.example", "bar", "1.2.3")]]
+    }
 }
@@ -0,0 +1,107 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.eclipse.aether.artifact.DefaultArtifact
+import org.eclipse.aether.graph.Dependency
+import spock.lang.Specification
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.artifact
+
+class DependencyArtifactFilterSpec extends Specification {
+
+    def "Verify no filter is used when nothing is excluded, so the whole tree is built"() {
+        expect:
+        DependencyArtifactFilter.ofOrNull(new PluginConfiguration().artifactIncludes([" "])) == null
+    }
+
+    def "Verify an artifact is included unless it is excluded by one of the rules"() {
+        given:
+        def configuration = new PluginConfiguration()
+                .artifactIncludes(includes)
+                .artifactExcludes(excludes)
+                .excludedScopes(DependencyScope.parse(scopes))
+
+        expect:
+        DependencyArtifactFilter.ofOrNull(configuration).include(artifact(coordinates)) == included
+
+        where:
+        includes            | excludes                      | scopes             | coordinates                   | included
+        []                  | ["org.springframework*"]      | []                 | "org.springframework:core:6"  | false
+        []                  | ["org.springframework*"]      | []                 | "org.spring:core:6"           | true
+        []                  | ["my:pizza"]                  | []                 | "my:pizza:1"                  | false
+        []                  | ["my:pizza"]                  | []                 | "my:pizzas:1"                 | true
+        []                  | ["my:*:1"]                    | []                 | "my:pizza:1"                  | false
+        []                  | ["my:*:1"]                    | []                 | "my:pizza:2"                  | true
+        []                  | []                            | ["provided"]       | "my:servlet:1:provided"       | false
+        []                  | []                            | ["provided"]       | "my:servlet:1:runtime"        | true
+        ["my"]              | []                            | []                 | "my:pizza:1"                  | true
+        ["my"]              | []                            | []                 | "other:pizza:1"               | false
+        ["my"]              | ["my:pizza"]                  | []                 | "my:pizza:1"                  | false
+    }
+
+    def "Verify optional artifacts are excluded when configured"() {
+        given:
+        def optional = artifact("my:pizza:1")
+        optional.optional = true
+
+        expect:
+        DependencyArtifactFilter.ofOrNull(new PluginConfiguration().excludeOptional(true)).include(optional) == false
+        DependencyArtifactFilter.ofOrNull(new PluginConfiguration().excludeOptional(true)).include(artifact("my:pizza:1"))
+    }
+
+    def "Verify an exception is thrown when a pattern is invalid"() {
+        when:
+        DependencyArtifactFilter.ofOrNull(new PluginConfiguration().artifactExcludes([pattern]))
+
+        then:
+        PluginException e = thrown()
+        e.message == "invalid artifact pattern $pattern"
+
+        where:
+        pattern << ["my:pizza:1:jar", "my::1", ":pizza"]
+    }
+
+    def "Verify the selector only prunes artifacts by groupId and artifactId"() {
+        given:
+        def configuration = new PluginConfiguration()
+                .artifactIncludes(includes)
+                .artifactExcludes(excludes)
+                .excludedScopes(DependencyScope.parse(scopes))
+        def selectorOrNull = DependencyArtifactFilter.ofOrNull(configuration).toSelectorOrNull()
+
+        expect:
+        (selectorOrNull == null ? null : selectorOrNull.selectDependency(
+                new Dependency(new DefaultArtifact(coordinates), "compile"))) == selected
+
+        where:
+        includes            | excludes                      | scopes             | coordinates                   | selected
+        []                  | ["org.springframework*"]      | []                 | "org.springframework:core:6"  | false
+        []                  | ["org.springframework*"]      | []                 | "org.spring:core:6"           | true
+        []                  | ["my:pizza", "my:*:1"]        | []                 | "my:pizza:2"                  | false
+        []                  | ["my:pizza", "my:*:1"]        | []                 | "my:pasta:1"                  | true
+        []                  | ["my:*:1"]                    | []                 | "my:pizza:1"                  | null
+        []                  | []                            | ["provided"]       | "my:servlet:1"                | null
+        ["my"]              | []                            | []                 | "other:pizza:1"               | false
+        ["my", "other:*:1"] | ["my:pizza"]                  | []                 | "other:pizza:1"               | true
+        ["my", "other:*:1"] | ["my:pizza"]                  | []                 | "my:pizza:1"                  | false
+    }
+}
@@ -0,0 +1,132 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.model.Dependency
+import org.apache.maven.model.DependencyManagement
+import org.apache.maven.model.Exclusion
+import org.apache.maven.model.Profile
+import org.apache.maven.project.MavenProject
+import spock.lang.Specification
+
+class DependencyFingerprintSpec extends Specification {
+
+    def "Verify the fingerprint is stable for the same inputs"() {
+        expect:
+        fingerprint(project([dependency("pizza")]), new PluginConfiguration()) ==
+                fingerprint(project([dependency("pizza")]), new PluginConfiguration())
+    }
+
+    def "Verify the fingerprint changes when a dependency changes"() {
+        given:
+        def configuration = new PluginConfiguration()
+        def original = fingerprint(project([dependency("pizza")]), configuration)
+
+        expect:
+        original != fingerprint(project([dependency("burger")]), configuration)
+        original != fingerprint(project([dependency("pizza", "2.0.0")]), configuration)
+        original != fingerprint(project([dependency("pizza")], [dependency("fries")]), configuration)
+        original != fingerprint(project([dependency("pizza").tap {
+            it.addExclusion(new Exclusion(groupId: "my.favorite.food", artifactId: "ketchup"))
+        }]), configuration)
+    }
+
+    def "Verify the fingerprint changes when the parent changes"() {
+        given:
+        def configuration = new PluginConfiguration()
+        def withoutParent = project([dependency("pizza")])
+        def withParent = project([dependency("pizza")])
+        withParent.parent = new MavenProject(groupId: "my.favorite", artifactId: "parent", version: "1")
+
+        expect:
+        fingerprint(withoutParent, configuration) != fingerprint(withParent, configuration)
+    }
+
+    def "Verify the fingerprint changes when the active profiles change"() {
+        given:
+        def configuration = new PluginConfiguration()
+        def withoutProfile = project([dependency("pizza")])
+        def withProfile = project([dependency("pizza")])
+        withProfile.activeProfiles = [new Profile(id: "spicy")]
+
+        expect:
+        fingerprint(withoutProfile, configuration) != fingerprint(withProfile, configuration)
+    }
+
+    def "Verify the fingerprint changes when the plugin configuration changes"() {
+        given:
+        def project = project([dependency("pizza")])
+
+        expect:
+        fingerprint(project, new PluginConfiguration()) !=
+                fingerprint(project, new PluginConfiguration().scopes(EnumSet.of(DependencyScope.COMPILE)))
+        fingerprint(project, new PluginConfiguration()) !=
+                fingerprint(project, new PluginConfiguration().artifactExcludes(["my.favorite.food:*"]))
+        fingerprint(project, new PluginConfiguration()) !=
+                fingerprint(project, new PluginConfiguration().pruneDuplicateSubtrees(true))
+    }
+
+    def "Verify execution-only options do not change the fingerprint"() {
+        given:
+        def project = project([dependency("pizza")])
+
+        expect:
+        fingerprint(project, new PluginConfiguration().incremental(true)) ==
+                fingerprint(project, new PluginConfiguration().forceFullRun(true))
+        fingerprint(project, new PluginConfiguration()) ==
+                fingerprint(project, new PluginConfiguration().graphCache(true).graphCacheMaxSize(1))
+        fingerprint(project, new PluginConfiguration().force(true)) ==
+                fingerprint(project, new PluginConfiguration().force(false))
+    }
+
+    def "Verify the graph key only changes with the options which change the graph"() {
+        given:
+        def project = project([dependency("pizza")])
+
+        expect:
+        graphKey(project, new PluginConfiguration()) ==
+                graphKey(project, new PluginConfiguration().scopes(EnumSet.of(DependencyScope.COMPILE)))
+        graphKey(project, new PluginConfiguration()) !=
+                graphKey(project, new PluginConfiguration().artifactExcludes(["my.favorite.food:*"]))
+        graphKey(project, new PluginConfiguration()) !=
+                graphKey(project, new PluginConfiguration().pruneDuplicateSubtrees(true))
+        graphKey(project, new PluginConfiguration()) != fingerprint(project, new PluginConfiguration())
+    }
+
+    def static graphKey(MavenProject project, PluginConfiguration configuration) {
+        new DependencyFingerprint(project, configuration).computeGraphKey()
+    }
+
+    def static fingerprint(MavenProject project, PluginConfiguration configuration) {
+        new DependencyFingerprint(project, configuration).compute()
+    }
+
+    def static project(List<Dependency> dependencies, List<Dependency> managed = []) {
+        def project = new MavenProject(groupId: "my.favorite", artifactId: "project", version: "1")
+        project.dependencies = dependencies
+        project.model.dependencyManagement = new DependencyManagement(dependencies: managed)
+        project
+    }
+
+    def static dependency(String artifactId, String version = "1.2.3") {
+        new Dependency(groupId: "my.favorite.food", artifactId: artifactId, version: version)
+    }
+}
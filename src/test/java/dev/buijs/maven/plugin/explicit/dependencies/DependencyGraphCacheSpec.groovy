@@ -0,0 +1,136 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
+class DependencyGraphCacheSpec extends Specification {
+
+    def directory = Files.createTempDirectory("dgcs").resolve("graphs")
+
+    def sut = new DependencyGraphCache(directory, 1024 * 1024)
+
+    def "Verify a stored graph is read with the same nodes, children, scopes, types and tree"() {
+        given:
+        def graph = graph(tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1", "my:tomato:1:test:test-jar:tests"],
+                ["my:burger:1", "my:cheese:1"],
+                "my:fries:1"))
+
+        when:
+        def stored = sut.write("abc", graph, "my:root:1\n+- my:pizza:1")
+        def cached = sut.read("abc", new DependencyRecordPool())
+
+        then:
+        stored
+        directory.toFile().list() as List == ["abc.graph"]
+
+        and:
+        cached.treeOrNull() == "my:root:1\n+- my:pizza:1"
+        with(cached.graph()) {
+            nodeCount() == graph.nodeCount()
+            coordinateCount() == graph.coordinateCount()
+            (0..<nodeCount()).every { node ->
+                record(coordinate(node)) == graph.record(graph.coordinate(node)) &&
+                        children(it, node) == children(graph, node) &&
+                        scope(node) == graph.scope(node) &&
+                        isJar(node) == graph.isJar(node)
+            }
+            dependencies == graph.dependencies
+            scope(3) == DependencyScope.TEST
+            !isJar(3)
+            nonJarDependencyIds == graph.nonJarDependencyIds
+        }
+    }
+
+    def "Verify a graph without serialized tree is stored"() {
+        when:
+        sut.write("abc", graph(tree("my:root:1", "my:pizza:1")), null)
+
+        then:
+        sut.read("abc", new DependencyRecordPool()).treeOrNull() == null
+    }
+
+    def "Verify a missing graph is a cache miss"() {
+        expect:
+        sut.read("abc", new DependencyRecordPool()) == null
+    }
+
+    def "Verify a graph with a SNAPSHOT dependency is never stored"() {
+        expect:
+        !sut.write("abc", graph(tree("my:root:1-SNAPSHOT", ["my:pizza:1", "my:cheese:2-SNAPSHOT"])), null)
+        !Files.exists(directory.resolve("abc.graph"))
+
+        and: "only the module itself may be a SNAPSHOT"
+        sut.write("abc", graph(tree("my:root:1-SNAPSHOT", "my:pizza:1")), null)
+    }
+
+    def "Verify a corrupt graph is a cache miss and deleted"() {
+        given:
+        sut.write("abc", graph(tree("my:root:1", "my:pizza:1")), null)
+        def file = directory.resolve("abc.graph")
+        def bytes = Files.readAllBytes(file)
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 6))
+
+        expect:
+        sut.read("abc", new DependencyRecordPool()) == null
+        !Files.exists(file)
+    }
+
+    def "Verify the least recently used graphs are deleted when the cache is full"() {
+        given:
+        def graph = graph(tree("my:root:1", "my:pizza:1", "my:burger:1"))
+        def cache = new DependencyGraphCache(directory, 0)
+        sut.write("first", graph, null)
+        sut.write("second", graph, null)
+        def size = Files.size(directory.resolve("first.graph"))
+        Files.setLastModifiedTime(directory.resolve("first.graph"), FileTime.fromMillis(1_000))
+        Files.setLastModifiedTime(directory.resolve("second.graph"), FileTime.fromMillis(2_000))
+
+        when: "the oldest graph is read, so the second one is least recently used"
+        sut.read("first", new DependencyRecordPool())
+        new DependencyGraphCache(directory, size * 2).write("third", graph, null)
+
+        then:
+        directory.toFile().list() as Set == ["first.graph", "third.graph"] as Set
+
+        when:
+        cache.evict()
+
+        then:
+        directory.toFile().list().length == 0
+    }
+
+    def static graph(node) {
+        def visitor = new DependencyGraphNodeVisitor()
+        node.accept(visitor)
+        visitor.toGraph()
+    }
+
+    def static children(DependencyGraph graph, int node) {
+        (0..<graph.childCount(node)).collect { graph.child(node, it) }
+    }
+}
@@ -0,0 +1,215 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.shared.dependency.graph.DependencyNode
+import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor
+import spock.lang.Specification
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
+class DependencyGraphSpec extends Specification {
+
+    def "Verify a dependency-tree is converted to nodes in depth-first order"() {
+        given:
+        def visitor = new DependencyGraphNodeVisitor()
+        tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1", "my:tomato:1"],
+                ["my:burger:1", "my:cheese:1"],
+                "my:fries:1").accept(visitor)
+
+        when:
+        def graph = visitor.toGraph()
+
+        then:
+        graph.nodeCount() == 7
+        graph.coordinateCount() == 6
+        (0..<7).collect { graph.record(graph.coordinate(it)).artifactId() } ==
+                ["root", "pizza", "cheese", "tomato", "burger", "cheese", "fries"]
+
+        and: "duplicates refer to the same coordinate"
+        graph.coordinate(2) == graph.coordinate(5)
+
+        and:
+        children(graph, DependencyGraph.ROOT) == [1, 4, 6]
+        children(graph, 1) == [2, 3]
+        children(graph, 4) == [5]
+        children(graph, 6) == []
+    }
+
+    def "Verify all dependencies except the root are returned sorted and without duplicates"() {
+        given:
+        def visitor = new DependencyGraphNodeVisitor()
+        tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1"],
+                ["my:burger:1", "my:cheese:1", "my:pizza:2"]).accept(visitor)
+
+        expect:
+        visitor.toGraph().dependencies.toList() == [
+                new DependencyRecord("my", "burger", "1"),
+                new DependencyRecord("my", "cheese", "1"),
+                new DependencyRecord("my", "pizza", "2"),
+                new DependencyRecord("my", "pizza", "1")]
+    }
+
+    def "Verify the dependency ids refer to the same dependencies in the pool"() {
+        given:
+        def pool = new DependencyRecordPool()
+        pool.get("my", "unrelated", "1")
+        def visitor = new DependencyGraphNodeVisitor(pool, false)
+        tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1", "my:root:1"],
+                ["my:burger:1", "my:cheese:1"]).accept(visitor)
+
+        when:
+        def graph = visitor.toGraph()
+
+        then:
+        graph.dependencyIds.cardinality() == 3
+        pool.records(graph.dependencyIds) == graph.dependencies
+    }
+
+    def "Verify the dependencies are partitioned by the scope of their nodes"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def visitor = new DependencyGraphNodeVisitor(pool, false)
+        tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1:compile", "my:root:1:test"],
+                ["my:spock:1:test", "my:cheese:1:test"],
+                "my:servlet:1:provided",
+                "my:driver:1:runtime",
+                "my:import:1:import").accept(visitor)
+
+        when:
+        def graph = visitor.toGraph()
+        def partitions = graph.dependencyIdsByScope.collectEntries { scope, ids ->
+            [(scope): pool.records(ids).collect { it.artifactId() }]
+        }
+
+        then:
+        graph.scope(DependencyGraph.ROOT) == DependencyScope.COMPILE
+        graph.scope(3) == DependencyScope.TEST
+        partitions == [
+                (DependencyScope.COMPILE) : ["cheese", "import", "pizza"],
+                (DependencyScope.PROVIDED): ["servlet"],
+                (DependencyScope.RUNTIME) : ["driver"],
+                (DependencyScope.TEST)    : ["cheese", "spock"]]
+
+        and: "the union of all partitions are all dependencies"
+        DependencyScope.union(graph.dependencyIdsByScope, EnumSet.allOf(DependencyScope)) == graph.dependencyIds
+    }
+
+    def "Verify the dependencies which are not a plain jar are tagged by their type and classifier"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def visitor = new DependencyGraphNodeVisitor(pool, false)
+        tree("my:root:1:compile:war",
+                ["my:pizza:1", "my:oven:1:test:test-jar:tests", "my:root:1:test:war"],
+                "my:dough:1:compile:jar:linux",
+                "my:menu:1:import:pom",
+                "my:oven:1").accept(visitor)
+
+        when:
+        def graph = visitor.toGraph()
+
+        then:
+        (0..<graph.nodeCount()).findAll { !graph.isJar(it) } == [0, 2, 3, 4, 5]
+        pool.records(graph.nonJarDependencyIds).collect { it.artifactId() } == ["dough", "menu", "oven"]
+        !graph.withPool(new DependencyRecordPool()).isJar(2)
+    }
+
+    def "Verify a graph is moved to another pool without copying nodes or records"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def visitor = new DependencyGraphNodeVisitor(pool, false)
+        tree("my:root:1", ["my:pizza:1", "my:cheese:1"], "my:burger:1").accept(visitor)
+        def graph = visitor.toGraph()
+        def other = new DependencyRecordPool()
+        other.get("my", "unrelated", "1")
+
+        when:
+        def moved = graph.withPool(other)
+
+        then:
+        graph.withPool(pool).is(graph)
+        moved.nodeCount() == graph.nodeCount()
+        (0..<graph.coordinateCount()).every { moved.record(it).is(graph.record(it)) }
+        other.records(moved.dependencyIds) == graph.dependencies
+        other.size() == 5
+    }
+
+    def "Verify the root is excluded when it also occurs as dependency"() {
+        given:
+        def visitor = new DependencyGraphNodeVisitor()
+        tree("my:root:1", ["my:pizza:1", "my:root:1"]).accept(visitor)
+
+        expect:
+        visitor.toGraph().dependencies.toList() == [new DependencyRecord("my", "pizza", "1")]
+    }
+
+    def "Verify shared subtrees are walked once when pruning while the dependencies stay the same"() {
+        given:
+        def stack = ["my:stack:1", ["my:core:1", "my:util:1"], "my:json:1"]
+        def root = tree("my:root:1",
+                ["my:pizza:1", stack],
+                ["my:burger:1", stack, "my:bun:1"],
+                ["my:fries:1", ["my:core:1", "my:util:1"]])
+        def full = new DependencyGraphNodeVisitor()
+        def pruning = new DependencyGraphNodeVisitor(new DependencyRecordPool(), true)
+        def visited = []
+        def counting = new DependencyNodeVisitor() {
+            boolean visit(DependencyNode node) { visited << node.artifact.artifactId; pruning.visit(node) }
+            boolean endVisit(DependencyNode node) { pruning.endVisit(node) }
+        }
+
+        when:
+        root.accept(full)
+        root.accept(counting)
+
+        then:
+        pruning.toGraph().dependencies.toList() == full.toGraph().dependencies.toList()
+        full.toGraph().nodeCount() == 15
+        pruning.toGraph().nodeCount() == 11
+        visited == ["root", "pizza", "stack", "core", "util", "json", "burger", "stack", "bun", "fries", "core"]
+
+        and: "later occurrences are leaves"
+        children(pruning.toGraph(), 6) == [7, 8]
+        children(pruning.toGraph(), 7) == []
+        children(pruning.toGraph(), 9) == [10]
+        children(pruning.toGraph(), 10) == []
+    }
+
+    def "Verify an exception is thrown for a child index out of bounds"() {
+        given:
+        def visitor = new DependencyGraphNodeVisitor()
+        tree("my:root:1", "my:pizza:1").accept(visitor)
+
+        when:
+        visitor.toGraph().child(DependencyGraph.ROOT, 1)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    private static List<Integer> children(DependencyGraph graph, int node) {
+        (0..<graph.childCount(node)).collect { graph.child(node, it) }
+    }
+}
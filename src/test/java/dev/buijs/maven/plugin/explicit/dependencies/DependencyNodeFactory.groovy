@@ -0,0 +1,67 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.artifact.Artifact
+import org.apache.maven.artifact.DefaultArtifact
+import org.apache.maven.artifact.handler.DefaultArtifactHandler
+import org.apache.maven.shared.dependency.graph.DependencyNode
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode
+
+/**
+ * Test utility to create real dependency-trees instead of stubbing the traversal.
+ */
+class DependencyNodeFactory {
+
+    /**
+     * Create a tree where every node is described as groupId:artifactId:version, optionally
+     * followed by :scope (defaults to compile), :type (defaults to jar) and :classifier.
+     * A child is either the coordinates of a leaf or a list of coordinates followed by its children:
+     *
+     * <pre>
+     * tree("my:root:1", "my:leaf:1", ["my:parent:1", "my:child:1"])
+     * </pre>
+     */
+    static DependencyNode tree(String coordinates, Object... children) {
+        node(null, coordinates, children.toList())
+    }
+
+    /**
+     * Create an artifact which is described as groupId:artifactId:version, optionally followed by
+     * :scope (defaults to compile), :type (defaults to jar) and :classifier.
+     */
+    static Artifact artifact(String coordinates) {
+        def parts = coordinates.split(":").toList()
+        def (groupId, artifactId, version, scope, type, classifier) =
+                parts + ["compile", "jar", null].drop(parts.size() - 3)
+        new DefaultArtifact(groupId, artifactId, version, scope, type, classifier, new DefaultArtifactHandler(type))
+    }
+
+    private static DependencyNode node(DependencyNode parent, String coordinates, List children) {
+        def current = new DefaultDependencyNode(parent, artifact(coordinates), null, null, null)
+        current.children = children.collect { child ->
+            child instanceof List
+                    ? node(current, child.first() as String, child.drop(1))
+                    : node(current, child as String, [])
+        }
+        current
+    }
+}
@@ -0,0 +1,90 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class DependencyReaderSpec extends Specification {
+
+    def directory = Files.createTempDirectory("drs")
+
+    def sut = new DependencyReader()
+
+    def "Verify records written by the DependencyWriter are read back in the same order"() {
+        given:
+        def records = new LinkedHashSet([
+                new DependencyRecord("com.example", "foo", "1.2.3"),
+                new DependencyRecord("com.example", "bar", "1.0.0-SNAPSHOT"),
+                new DependencyRecord("nl.example", "baz", "abcd")])
+        new DependencyWriter(directory).writeNewFile("records.json", records)
+
+        expect:
+        sut.read(directory.resolve("records.json")).toList() == records.toList()
+    }
+
+    def "Verify the ids of all records are read into the pool"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def records = [
+                new DependencyRecord("com.example", "foo", "1.2.3"),
+                new DependencyRecord("nl.example", "baz", "abcd")]
+        new DependencyWriter(directory, true).writeNewFile("records.json", records)
+
+        when:
+        def ids = sut.readIds(directory.resolve("records.json.gz"), pool)
+
+        then:
+        ids.cardinality() == 2
+        pool.records(ids) == records.toSorted() as Set
+    }
+
+    def "Verify an empty collection is read as an empty set"() {
+        given:
+        new DependencyWriter(directory).writeNewFile("empty.json", new LinkedHashSet())
+
+        expect:
+        sut.read(directory.resolve("empty.json")).isEmpty()
+    }
+
+    def "Verify an exception is thrown when a record is incomplete"() {
+        given:
+        def file = directory.resolve("broken.json")
+        Files.writeString(file, '[{"groupId": "com.example", "version": "1.2.3"}]')
+
+        when:
+        sut.read(file)
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to parse log files"
+    }
+
+    def "Verify an exception is thrown when the file does not exist"() {
+        when:
+        sut.read(directory.resolve("doesNotExist.json"))
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to read log files"
+    }
+}
@@ -66,4 +66,25 @@ class DependencyRecordConverterSpec extends Specification {
         }
     }
 
+    def "Verify artifacts and dependencies with the same coordinates share one pooled record"() {
+        given:
+        def pool = new DependencyRecordPool()
+        def converter = new DependencyRecordConverter(pool)
+        def artifact = Stub(Artifact) {
+            it.groupId >> groupId
+            it.artifactId >> artifactId
+            it.version >> version
+        }
+        def dependency = Stub(Dependency) {
+            it.groupId >> groupId
+            it.artifactId >> artifactId
+            it.version >> version
+        }
+
+        expect:
+        converter.convert(artifact).is(converter.convert(dependency))
+        pool.hits() == 1
+        pool.misses() == 1
+    }
+
 }
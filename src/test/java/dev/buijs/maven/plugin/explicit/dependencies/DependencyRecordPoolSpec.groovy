@@ -0,0 +1,133 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest
+import org.apache.maven.execution.MavenSession
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class DependencyRecordPoolSpec extends Specification {
+
+    def sut = new DependencyRecordPool()
+
+    def "Verify the same record is returned for the same coordinates"() {
+        when:
+        def first = sut.get("my", "pizza", "1")
+        def second = sut.get(new String("my"), new String("pizza"), new String("1"))
+        def other = sut.get("my", "pizza", "2")
+
+        then:
+        first.is(second)
+        !first.is(other)
+        first == new DependencyRecord("my", "pizza", "1")
+
+        and:
+        sut.size() == 2
+        sut.hits() == 1
+        sut.misses() == 2
+        sut.hitRate() == 1 / 3d
+        sut.describeMetrics() == String.format("record pool: 2 records, 3 lookups, %.1f%% hits", 100 / 3d)
+    }
+
+    def "Verify every record gets a dense id which maps back to the pooled record"() {
+        when:
+        def pizza = sut.id(new DependencyRecord("my", "pizza", "1"))
+        def burger = sut.symbol("my", "burger", "1").id()
+        def fries = sut.get("my", "fries", "1")
+
+        then:
+        [pizza, burger, sut.id(fries)] == [0, 1, 2]
+        sut.id(new DependencyRecord("my", "pizza", "1")) == pizza
+        sut.record(burger).is(sut.get("my", "burger", "1"))
+        sut.record(2).is(fries)
+    }
+
+    def "Verify a set of records is stored as ids and converted back to sorted records"() {
+        given:
+        def records = [new DependencyRecord("my", "pizza", "1"),
+                       new DependencyRecord("my", "burger", "1"),
+                       new DependencyRecord("my", "pizza", "2")]
+
+        when:
+        def ids = sut.ids(records)
+
+        then:
+        ids == BitSet.valueOf([0b111] as long[])
+        sut.records(ids).toList() == [records[1], records[2], records[0]]
+        sut.records(new BitSet()).isEmpty()
+    }
+
+    def "Verify the hit rate is zero when nothing is looked up"() {
+        expect:
+        sut.hitRate() == 0d
+    }
+
+    def "Verify every session has its own pool which is shared by all modules"() {
+        given:
+        def session = Stub(MavenSession)
+
+        expect:
+        DependencyRecordPool.forSession(session).is(DependencyRecordPool.forSession(session))
+        !DependencyRecordPool.forSession(session).is(DependencyRecordPool.forSession(Stub(MavenSession)))
+    }
+
+    def "Verify the clones of a session which a parallel build makes share the pool of the session"() {
+        given:
+        def request = new DefaultMavenExecutionRequest()
+        def session = Stub(MavenSession) {
+            it.getRequest() >> request
+        }
+        def clone = Stub(MavenSession) {
+            it.getRequest() >> request
+        }
+        def other = Stub(MavenSession) {
+            it.getRequest() >> new DefaultMavenExecutionRequest()
+        }
+
+        expect:
+        DependencyRecordPool.forSession(session).is(DependencyRecordPool.forSession(clone))
+        !DependencyRecordPool.forSession(session).is(DependencyRecordPool.forSession(other))
+    }
+
+    def "Verify concurrent lookups return one canonical record per coordinate"() {
+        given:
+        def executor = Executors.newFixedThreadPool(8)
+        def tasks = (0..<8).collect {
+            { -> (0..<1_000).collect { sut.get("my", "artifact${it % 50}", "1") } } as Callable
+        }
+
+        when:
+        def results = executor.invokeAll(tasks)*.get()
+
+        then:
+        sut.size() == 50
+        sut.hits() + sut.misses() == 8_000
+        sut.misses() == 50
+        (0..<50).collect { sut.record(it).artifactId() } as Set == (0..<50).collect { "artifact$it".toString() } as Set
+        results.every { records -> (0..<1_000).every { records[it].is(results[0][it]) } }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+}
@@ -74,14 +74,18 @@ class DependencyRecordSpec extends Specification {
         }
     }
 
-    @SuppressWarnings('GroovyAccessibility')
-    def "Verify versions are compared correctly"() {
+    def "Verify records are equal when groupId, artifactId and version are equal"() {
         expect:
-        DependencyRecord.INNER.compareByVersion("abcde", "abcd") > 0
-        DependencyRecord.INNER.compareByVersion("1.0.1", "abcd") < 0
-        DependencyRecord.INNER.compareByVersion("1.0.1", "1.0.1") == 0
-        DependencyRecord.INNER.compareByVersion("1.0.1", "1.0.0") == -1
-        DependencyRecord.INNER.compareByVersion("1.0.1-SNAPSHOT", "1.0.1") > 0
-        DependencyRecord.INNER.compareByVersion("1.0.1-SNAPSHOT", "1.0.1-RC") < 0
+        new DependencyRecord("com.example", "foo", "1.0.0") == new DependencyRecord("com.example", "foo", "1.0.0")
+        new DependencyRecord("com.example", "foo", "1.0.0").hashCode() ==
+                new DependencyRecord("com.example", "foo", "1.0.0").hashCode()
+        new DependencyRecord("com.example", "foo", "1.0.0") != new DependencyRecord("com.example", "foo", "1.0")
+        new DependencyRecord("com.example", "foo", "1.0.0").compareTo(new DependencyRecord("com.example", "foo", "1.0")) != 0
     }
-}
\ No newline at end of file
+
+    def "Verify a record is serialized as JSON"() {
+        expect:
+        new DependencyRecord("com.example", "foo", "1.0.0").toString() ==
+                '{\n"groupId": "com.example",\n"artifactId": "foo",\n"version": "1.0.0"\n}'
+    }
+}
@@ -0,0 +1,79 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+class DependencyScopeSpec extends Specification {
+
+    def "Verify the scope of an artifact is compile when it is not set or not known"() {
+        expect:
+        DependencyScope.of(scope) == expected
+
+        where:
+        scope      | expected
+        "compile"  | DependencyScope.COMPILE
+        "provided" | DependencyScope.PROVIDED
+        "runtime"  | DependencyScope.RUNTIME
+        "test"     | DependencyScope.TEST
+        "system"   | DependencyScope.SYSTEM
+        "import"   | DependencyScope.COMPILE
+        ""         | DependencyScope.COMPILE
+        null       | DependencyScope.COMPILE
+    }
+
+    def "Verify the configured scopes are parsed"() {
+        expect:
+        DependencyScope.parse(names) == expected as Set
+
+        where:
+        names                       | expected
+        null                        | []
+        []                          | []
+        [" "]                       | []
+        ["Compile", " runtime "]    | [DependencyScope.COMPILE, DependencyScope.RUNTIME]
+    }
+
+    def "Verify the verdict counts all scopes when no scopes are configured"() {
+        expect:
+        new PluginConfiguration().scopes(DependencyScope.parse(null)).scopes == EnumSet.allOf(DependencyScope)
+    }
+
+    def "Verify an exception is thrown when a configured scope is not known"() {
+        when:
+        DependencyScope.parse(["compile", "tset"])
+
+        then:
+        PluginException e = thrown()
+        e.message == "unknown scope tset"
+        e.longMessage == "expected one of compile, provided, runtime, test, system"
+    }
+
+    def "Verify every scope is reported in a file of its own"() {
+        expect:
+        DependencyScope.values().collect { it.jsonFilename } == [
+                "dependenciesMissingCompile.json",
+                "dependenciesMissingProvided.json",
+                "dependenciesMissingRuntime.json",
+                "dependenciesMissingTest.json",
+                "dependenciesMissingSystem.json"]
+    }
+}
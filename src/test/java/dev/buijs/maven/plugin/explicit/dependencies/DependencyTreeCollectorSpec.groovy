@@ -21,24 +21,32 @@
 package dev.buijs.maven.plugin.explicit.dependencies
 
 
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter
 import org.apache.maven.execution.MavenSession
+import org.apache.maven.project.DefaultProjectBuildingRequest
 import org.apache.maven.project.MavenProject
 import org.apache.maven.project.ProjectBuildingRequest
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode
+import org.eclipse.aether.DefaultRepositorySystemSession
+import org.eclipse.aether.artifact.DefaultArtifact
+import org.eclipse.aether.graph.Dependency
 import spock.lang.Specification
 
 import java.nio.file.Files
 
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.artifact
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
 class DependencyTreeCollectorSpec extends Specification {
 
     def buildDirectory = Files.createTempDirectory("")
     def project = Stub(MavenProject.class)
     def session = Stub(MavenSession.class)
     def builder = Stub(DependencyGraphBuilder.class)
-    def converter = new DependencyRecordConverter()
     def writer = new DependencyWriter(buildDirectory)
-    def sut = new DependencyTreeCollector(project, session, builder, converter, writer)
+    def sut = new DependencyTreeCollector(project, session, builder, writer)
 
     def "Verify an exeption is thrown when the dependency-tree can not be created"() {
         given:
@@ -56,4 +64,135 @@ class DependencyTreeCollectorSpec extends Specification {
         0 * writer.writeNewFile(_, _)
     }
 
+    def "Verify the configured exclusions are passed to the graph builder to prune the tree"() {
+        given:
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration()
+                .artifactExcludes(["org.springframework*"])
+                .excludedScopes(DependencyScope.parse(["provided"]))
+        def collector = new DependencyTreeCollector(
+                project, session, graphBuilder, writer, configuration, new PhaseMetrics())
+
+        when:
+        def dependencies = collector.dependencies
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, { ArtifactFilter filter ->
+            filter.include(artifact("my:pizza:1:compile")) &&
+                    !filter.include(artifact("org.springframework.boot:core:3:compile")) &&
+                    !filter.include(artifact("my:servlet:1:provided"))
+        }) >> tree("my:root:1", "my:pizza:1")
+        dependencies == [new DependencyRecord("my", "pizza", "1")] as Set
+    }
+
+    def "Verify the exclusions by coordinates prune the dependencies while they are collected"() {
+        given:
+        def repositorySession = new DefaultRepositorySystemSession()
+        def reactorSession = Stub(MavenSession) {
+            it.getProjectBuildingRequest() >>
+                    new DefaultProjectBuildingRequest(repositorySession: repositorySession)
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().artifactExcludes(["org.springframework*"])
+        def collector = new DependencyTreeCollector(
+                project, reactorSession, graphBuilder, writer, configuration, new PhaseMetrics())
+
+        when:
+        collector.dependencies
+
+        then:
+        1 * graphBuilder.buildDependencyGraph({ ProjectBuildingRequest request ->
+            def selector = request.repositorySession.dependencySelector
+            !request.repositorySession.is(repositorySession) &&
+                    selector.selectDependency(dependency("my:pizza:1")) &&
+                    !selector.selectDependency(dependency("org.springframework.boot:core:3"))
+        }, _ as ArtifactFilter) >> tree("my:root:1", "my:pizza:1")
+        repositorySession.dependencySelector == null
+    }
+
+    def "Verify the dependency-tree is traversed once to collect and serialize all dependencies"() {
+        given:
+        def root = Spy(tree("my:root:1",
+                ["my:pizza:1", "my:cheese:1", "my:tomato:1"],
+                ["my:burger:1", "my:cheese:1"]))
+        builder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> root
+
+        when:
+        def dependencies = sut.dependencies
+
+        then:
+        1 * root.accept(_)
+
+        and:
+        dependencies.toList() == [
+                new DependencyRecord("my", "burger", "1"),
+                new DependencyRecord("my", "cheese", "1"),
+                new DependencyRecord("my", "pizza", "1"),
+                new DependencyRecord("my", "tomato", "1")]
+
+        and:
+        Files.readAllLines(buildDirectory.resolve("dependencyTree.txt")) == [
+                "my:root:jar:1:compile",
+                "+- my:pizza:jar:1:compile",
+                "|  +- my:cheese:jar:1:compile",
+                "|  \\- my:tomato:jar:1:compile",
+                "\\- my:burger:jar:1:compile",
+                "   \\- my:cheese:jar:1:compile"]
+
+        and:
+        new DependencyReader().read(buildDirectory.resolve("dependencyTreeFlattened.json")) == dependencies
+    }
+
+    def "Verify only graphs which can not change without a change to the pom are cached"() {
+        given:
+        def cacheDirectory = Files.createTempDirectory("dtcs")
+        def reactorSession = Stub(MavenSession) {
+            it.getProjects() >> [new MavenProject(groupId: "my", artifactId: "sibling", version: "1")]
+        }
+        def root = new DefaultDependencyNode(null, artifact("my:root:1"), null, null, null)
+        def child = new DefaultDependencyNode(root, artifact(coordinates), null, null, constraint)
+        child.children = []
+        root.children = [child]
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> root
+        }
+        def configuration = new PluginConfiguration().graphCache(true).graphCacheDirectory(cacheDirectory)
+
+        def sut = new DependencyTreeCollector(project, reactorSession, graphBuilder, writer, configuration, new PhaseMetrics())
+
+        when:
+        sut.dependencies
+
+        then:
+        Files.list(cacheDirectory).count() == (cached ? 1 : 0)
+        sut.stable == cached
+
+        where:
+        coordinates          | constraint | cached
+        "my:pizza:1"         | "1"        | true
+        "my:pizza:1-SNAPSHOT" | null       | false
+        "my:pizza:1.5"       | "[1,2)"    | false
+        "my:sibling:1"       | "1"        | false
+    }
+
+    def "Verify the graph key ignores the options which only change the verdict"() {
+        given:
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def cacheDirectory = Files.createTempDirectory("dtcs")
+        def collector = { PluginConfiguration configuration ->
+            new DependencyTreeCollector(project, session, graphBuilder, writer,
+                    configuration.graphCache(true).graphCacheDirectory(cacheDirectory), new PhaseMetrics())
+        }
+
+        when:
+        collector(new PluginConfiguration()).dependencies
+        collector(new PluginConfiguration().force(false).scopes(EnumSet.of(DependencyScope.COMPILE))).dependencies
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> tree("my:root:1", "my:pizza:1")
+    }
+
+    def static dependency(String coordinates) {
+        new Dependency(new DefaultArtifact(coordinates), "compile")
+    }
 }
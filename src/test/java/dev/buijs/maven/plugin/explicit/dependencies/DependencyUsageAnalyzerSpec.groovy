@@ -0,0 +1,77 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class DependencyUsageAnalyzerSpec extends Specification {
+
+    def repository = Files.createTempDirectory("duas")
+
+    def writer = Mock(DependencyWriter)
+
+    def sut = new DependencyUsageAnalyzer(writer, repository)
+
+    def "Verify only dependencies with a referenced class are kept"() {
+        given:
+        def sut = new DependencyUsageAnalyzer(writer, repository, index ? new JarClassIndex(Files.createTempDirectory("duas"), repository) : null)
+        def bar = new DependencyRecord("foo.groupie", "bar", "1.2.3")
+        def baz = new DependencyRecord("foo.groupie", "baz", "1.0.0")
+        def multi = new DependencyRecord("foo.groupie", "multi", "2.0.0")
+        def pom = new DependencyRecord("foo.groupie", "pom", "1.0.0")
+        jar(bar, "foo/Bar.class", "META-INF/MANIFEST.MF")
+        jar(baz, "foo/Baz.class")
+        jar(multi, "META-INF/versions/11/foo/Multi.class")
+
+        when:
+        def referenced = sut.getReferencedDependencies(
+                [bar, baz, multi, pom] as LinkedHashSet, ["foo/Bar", "foo/Multi", "java/lang/String"] as Set)
+
+        then:
+        referenced.toList() == [bar, multi, pom]
+        1 * writer.writeNewFile("dependenciesUnreferenced.json", [baz] as Set)
+
+        where:
+        index << [false, true]
+    }
+
+    def "Verify the jar of a dependency is resolved in the local repository layout"() {
+        expect:
+        sut.getJar(new DependencyRecord("foo.groupie", "bar", "1.2.3")) ==
+                repository.resolve("foo/groupie/bar/1.2.3/bar-1.2.3.jar")
+    }
+
+    def jar(DependencyRecord dependency, String... entries) {
+        Path file = sut.getJar(dependency)
+        Files.createDirectories(file.parent)
+        new ZipOutputStream(Files.newOutputStream(file)).withCloseable { zip ->
+            entries.each {
+                zip.putNextEntry(new ZipEntry(it))
+                zip.closeEntry()
+            }
+        }
+    }
+}
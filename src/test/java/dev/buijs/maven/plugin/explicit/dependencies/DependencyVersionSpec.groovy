@@ -0,0 +1,77 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+class DependencyVersionSpec extends Specification {
+
+    def "Verify #newer is ordered before #older"() {
+        expect:
+        DependencyVersion.parse(newer) < DependencyVersion.parse(older)
+        DependencyVersion.parse(older) > DependencyVersion.parse(newer)
+
+        where:
+        newer            | older
+        "1.0.10"         | "1.0.9"
+        "2.0"            | "1.9.9"
+        "1.0.1"          | "1.0.1-SNAPSHOT"
+        "1.0.1-SNAPSHOT" | "1.0.1-RC"
+        "1.0.1-RC2"      | "1.0.1-RC1"
+        "1.0.1-RC10"     | "1.0.1-RC9"
+        "1.0.1-rc1"      | "1.0.1-M3"
+        "1.0.1-M3"       | "1.0.1-beta-2"
+        "1.0.1-beta"     | "1.0.1-alpha"
+        "1.0.1-b1"       | "1.0.1-a1"
+        "1.0.1.Final"    | "1.0.1-SNAPSHOT"
+        "1.0.1-jre"      | "1.0.1-RC"
+        "0.0.1"          | "abcd"
+        "abcd"           | "bcde"
+        "20240101"       | "1.2.3"
+    }
+
+    def "Verify versions are compared correctly"() {
+        expect:
+        DependencyVersion.parse("abcde").compareTo(DependencyVersion.parse("abcd")) > 0
+        DependencyVersion.parse("1.0.1").compareTo(DependencyVersion.parse("abcd")) < 0
+        DependencyVersion.parse("1.0.1").compareTo(DependencyVersion.parse("1.0.1")) == 0
+        DependencyVersion.parse("1.0.1").compareTo(DependencyVersion.parse("1.0.0")) == -1
+        DependencyVersion.parse("1.0.1-SNAPSHOT").compareTo(DependencyVersion.parse("1.0.1")) > 0
+        DependencyVersion.parse("1.0.1-SNAPSHOT").compareTo(DependencyVersion.parse("1.0.1-RC")) < 0
+        DependencyVersion.parse("1.0.1").compareTo(DependencyVersion.parse("1.0.1-SNAPSHOT")) < 0
+        DependencyVersion.parse("1.0.10").compareTo(DependencyVersion.parse("1.0.9")) < 0
+    }
+
+    def "Verify equivalent versions are ordered by their raw value"() {
+        expect:
+        DependencyVersion.parse("1.0").compareTo(DependencyVersion.parse("1.0.0")) < 0
+        DependencyVersion.parse("1.0.0").compareTo(DependencyVersion.parse("1.0")) > 0
+        DependencyVersion.parse("1.0.0").compareTo(DependencyVersion.parse("1.0.0")) == 0
+    }
+
+    def "Verify versions which can not be parsed are handled"() {
+        expect:
+        DependencyVersion.parse(version).toString() == version
+
+        where:
+        version << ["", "1.", "1..2", "1.0-", "99999999999999999999999.1", "1.0.0-RC99999999999999999999999"]
+    }
+}
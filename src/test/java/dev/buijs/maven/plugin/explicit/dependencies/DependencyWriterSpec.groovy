@@ -2,7 +2,9 @@ package dev.buijs.maven.plugin.explicit.dependencies
 
 import spock.lang.Specification
 
+import java.nio.file.Files
 import java.nio.file.Path
+import java.util.zip.GZIPInputStream
 
 class DependencyWriterSpec extends Specification {
 
@@ -18,4 +20,93 @@ class DependencyWriterSpec extends Specification {
         e.message == "failed to write log files"
     }
 
+    def "Verify records are streamed in the same format as the String value of the collection"() {
+        given:
+        def directory = Files.createTempDirectory("dws")
+        def records = new LinkedHashSet([
+                new DependencyRecord("org.apache.maven", "maven-core", "3.9.0"),
+                new DependencyRecord("org.jetbrains", "annotations", "24.0.1")])
+
+        when:
+        new DependencyWriter(directory).writeNewFile("records.json", records)
+        new DependencyWriter(directory).writeNewFile("empty.json", [])
+
+        then:
+        Files.readString(directory.resolve("records.json")) == records.toString()
+        Files.readString(directory.resolve("empty.json")) == "[]"
+    }
+
+    def "Verify files are compressed and read back when gzip is enabled"() {
+        given:
+        def directory = Files.createTempDirectory("dws")
+        def records = new LinkedHashSet([new DependencyRecord("foo.groupie", "bar", "1.2.3")])
+        def writer = new DependencyWriter(directory, true)
+
+        when:
+        writer.writeNewFile("records.json", records)
+        writer.writeNewFile("tree.txt", "foo.groupie:bar:jar:1.2.3:compile")
+
+        then:
+        writer.resolve("records.json") == directory.resolve("records.json.gz").toAbsolutePath()
+        !Files.exists(directory.resolve("records.json"))
+        new DependencyReader().read(writer.resolve("records.json")) == records
+
+        and:
+        new GZIPInputStream(Files.newInputStream(writer.resolve("tree.txt"))).text ==
+                "foo.groupie:bar:jar:1.2.3:compile"
+    }
+
+    def "Verify asynchronous write errors are thrown when awaiting the writes"() {
+        given:
+        def writer = new DependencyWriter(Path.of("doesNotExist"), new PluginConfiguration())
+
+        when:
+        writer.writeNewFile("foo", "boo")
+
+        then:
+        noExceptionThrown()
+
+        when:
+        writer.awaitWrites()
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to write log files"
+    }
+
+    def "Verify asynchronous writes are completed when awaiting the writes"() {
+        given:
+        def directory = Files.createTempDirectory("dws")
+        def records = new LinkedHashSet([new DependencyRecord("foo.groupie", "bar", "1.2.3")])
+        def writer = new DependencyWriter(directory, new PluginConfiguration())
+
+        when:
+        writer.writeNewFile("records.json", records)
+        records.clear()
+        writer.writeNewFile("tree.txt", "foo.groupie:bar:jar:1.2.3:compile")
+        writer.awaitWrites()
+
+        then:
+        new DependencyReader().read(directory.resolve("records.json")) ==
+                [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+        Files.readString(directory.resolve("tree.txt")) == "foo.groupie:bar:jar:1.2.3:compile"
+    }
+
+    def "Verify disabled reports are not written"() {
+        given:
+        def directory = Files.createTempDirectory("dws")
+        def configuration = new PluginConfiguration().disabledReports([" dependencyTree", "", null])
+        def writer = new DependencyWriter(directory, configuration)
+
+        when:
+        writer.writeNewFile("dependencyTree.txt", "foo.groupie:bar:jar:1.2.3:compile")
+        writer.writeNewFile("dependencies.json", [])
+        writer.awaitWrites()
+
+        then:
+        !writer.isEnabled("dependencyTree.txt")
+        writer.isEnabled("dependencies.json")
+        !Files.exists(directory.resolve("dependencyTree.txt"))
+        Files.exists(directory.resolve("dependencies.json"))
+    }
 }
@@ -0,0 +1,158 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.model.Dependency
+import org.apache.maven.plugin.logging.Log
+import org.apache.maven.project.MavenProject
+import org.apache.maven.project.ProjectBuildingRequest
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.artifact
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.module
+
+class FixPluginMojoSpec extends Specification {
+
+    def graphBuilder = Stub(DependencyGraphBuilder) {
+        it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { arguments ->
+            def project = arguments[0].project as MavenProject
+            tree("${project.groupId}:${project.artifactId}:${project.version}",
+                    "foo.groupie:bar:1.2.3", "foo.groupie:spock:2.4:test")
+        }
+    }
+
+    def "Verify the missing dependencies of every module are added to its pom once"() {
+        given:
+        def pizza = module("pizza")
+        def burger = module("burger")
+        burger.dependencies = [
+                new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3"),
+                new Dependency(groupId: "foo.groupie", artifactId: "spock", version: "2.4")]
+        def lastModified = Files.getLastModifiedTime(burger.file.toPath())
+        def log = Mock(Log)
+        def mojo = new FixPluginMojo(
+                session: Stub(MavenSession) { it.projects >> [pizza, burger, pizza] },
+                dependencyGraphBuilder: graphBuilder,
+                threads: 2)
+        mojo.log = log
+
+        when:
+        mojo.execute()
+
+        then:
+        1 * log.info("my.favorite.food:pizza:1.0.0: added 2 dependencies to ${pizza.file}")
+        1 * log.info("my.favorite.food:burger:1.0.0: dependency-tree is fully explicit")
+
+        and:
+        pizza.file.text == """<project>
+    <artifactId>pizza</artifactId>
+    <dependencies>
+        <dependency>
+            <groupId>foo.groupie</groupId>
+            <artifactId>bar</artifactId>
+            <version>1.2.3</version>
+        </dependency>
+        <dependency>
+            <groupId>foo.groupie</groupId>
+            <artifactId>spock</artifactId>
+            <version>2.4</version>
+            <scope>test</scope>
+        </dependency>
+    </dependencies>
+</project>
+"""
+        Files.getLastModifiedTime(burger.file.toPath()) == lastModified
+    }
+
+    def "Verify a second fix still adds dependencies with the scope they have in the tree"() {
+        given:
+        def pizza = module("pizza")
+        def original = pizza.file.text
+        def mojo = new FixPluginMojo(
+                session: Stub(MavenSession) { it.projects >> [pizza] },
+                dependencyGraphBuilder: graphBuilder,
+                incremental: true,
+                threads: 1)
+        mojo.log = Mock(Log)
+
+        when:
+        mojo.execute()
+        pizza.file.text = original
+        mojo.execute()
+
+        then:
+        pizza.file.text.contains("""<artifactId>spock</artifactId>
+            <version>2.4</version>
+            <scope>test</scope>""")
+    }
+
+    def "Verify a dependency of which the version is managed is added without a version"() {
+        given:
+        def pizza = module("pizza")
+        pizza.managedVersionMap = ["foo.groupie:bar:jar": artifact("foo.groupie:bar:1.2.3")]
+        def mojo = new FixPluginMojo(
+                session: Stub(MavenSession) { it.projects >> [pizza] },
+                dependencyGraphBuilder: graphBuilder,
+                threads: 1)
+        mojo.log = Mock(Log)
+
+        when:
+        mojo.execute()
+
+        then:
+        pizza.file.text.contains("""<artifactId>bar</artifactId>
+        </dependency>""")
+        pizza.file.text.contains("""<artifactId>spock</artifactId>
+            <version>2.4</version>""")
+    }
+
+    def "Verify a dependency with a type or classifier is reported instead of added"() {
+        given:
+        def pizza = module("pizza")
+        def log = Mock(Log)
+        def mojo = new FixPluginMojo(
+                session: Stub(MavenSession) { it.projects >> [pizza] },
+                dependencyGraphBuilder: Stub(DependencyGraphBuilder) {
+                    it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> tree("my.favorite.food:pizza:1.0.0",
+                            "foo.groupie:bar:1.2.3", "foo.groupie:oven:1.0:test:test-jar:tests",
+                            "foo.groupie:dough:1.0:compile:jar:linux", "foo.groupie:menu:1.0:compile:pom")
+                },
+                threads: 1)
+        mojo.log = log
+
+        when:
+        mojo.execute()
+
+        then:
+        1 * log.info("my.favorite.food:pizza:1.0.0: added 1 dependencies to ${pizza.file}")
+        1 * log.warn({ it.startsWith("my.favorite.food:pizza:1.0.0: dependencies with a type or classifier " +
+                "can not be added automatically") && ["oven", "dough", "menu"].every { name -> it.contains(name) } })
+
+        and:
+        pizza.file.text.contains("<artifactId>bar</artifactId>")
+        ["oven", "dough", "menu"].every { !pizza.file.text.contains(it) }
+    }
+}
@@ -0,0 +1,118 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class JarClassIndexSpec extends Specification {
+
+    def repository = Files.createTempDirectory("jcis")
+
+    def directory = Files.createTempDirectory("jcis")
+
+    def sut = new JarClassIndex(directory, repository)
+
+    def jar = repository.resolve("foo/groupie/bar/1.2.3/bar-1.2.3.jar")
+
+    def "Verify the packages and classes of a jar are found by binary search"() {
+        given:
+        writeJar("foo/Bar.class", "foo/Baz.class", "foo/internal/Qux.class", "Default.class",
+                "META-INF/versions/11/foo/Multi.class", "META-INF/MANIFEST.MF", "foo/")
+
+        when:
+        def entry = sut.get(jar)
+
+        then:
+        entry.packageCount() == 3
+        entry.classCount() == 5
+        ["foo", "foo/internal", ""].every { entry.containsPackage(bytes(it)) }
+        ["foo/Bar", "foo/Baz", "foo/internal/Qux", "Default", "foo/Multi"].every { entry.containsClass(bytes(it)) }
+        !entry.containsPackage(bytes("fo"))
+        !entry.containsPackage(bytes("META-INF"))
+        !entry.containsClass(bytes("foo/Ba"))
+        !entry.containsClass(bytes("foo/Bar\$Inner"))
+        Files.isRegularFile(directory.resolve("foo/groupie/bar/1.2.3/bar-1.2.3.jar.classes"))
+    }
+
+    def "Verify the index file is reused until the jar changes"() {
+        given:
+        writeJar("foo/Bar.class")
+        sut.get(jar)
+        def index = directory.resolve("foo/groupie/bar/1.2.3/bar-1.2.3.jar.classes")
+        def indexed = Files.getLastModifiedTime(index)
+
+        expect: "a new index with the same directory reads the stored file"
+        new JarClassIndex(directory, repository).get(jar).containsClass(bytes("foo/Bar"))
+        Files.getLastModifiedTime(index) == indexed
+
+        when: "the jar changes"
+        writeJar("foo/Baz.class")
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 5000))
+        def entry = new JarClassIndex(directory, repository).get(jar)
+
+        then:
+        entry.containsClass(bytes("foo/Baz"))
+        !entry.containsClass(bytes("foo/Bar"))
+    }
+
+    def "Verify a corrupt index file is rebuilt"() {
+        given:
+        writeJar("foo/Bar.class")
+        def index = directory.resolve("foo/groupie/bar/1.2.3/bar-1.2.3.jar.classes")
+        Files.createDirectories(index.parent)
+        Files.write(index, content as byte[])
+
+        expect:
+        sut.get(jar).containsClass(bytes("foo/Bar"))
+
+        where:
+        content << [[], [0x45, 0x44, 0x49, 0x01, 0, 0], "not an index".getBytes()]
+    }
+
+    def "Verify jars outside the local repository are not indexed"() {
+        given:
+        def outside = Files.createTempFile("jcis", ".jar")
+
+        expect:
+        sut.get(outside) == null
+    }
+
+    static byte[] bytes(String value) {
+        value.getBytes(StandardCharsets.UTF_8)
+    }
+
+    def writeJar(String... entries) {
+        Files.createDirectories(jar.parent)
+        new ZipOutputStream(Files.newOutputStream(jar)).withCloseable { zip ->
+            entries.each {
+                zip.putNextEntry(new ZipEntry(it))
+                zip.closeEntry()
+            }
+        }
+    }
+}
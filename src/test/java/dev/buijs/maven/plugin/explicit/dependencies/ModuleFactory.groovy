@@ -0,0 +1,61 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.project.MavenProject
+import org.apache.maven.shared.dependency.graph.DependencyNode
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
+/**
+ * Test utility to create the modules of a reactor, each with its own pom and build directory.
+ */
+class ModuleFactory {
+
+    /**
+     * Create a module my.favorite.food:artifactId:1.0.0 in a new directory. The pom only holds the
+     * artifactId and has an old last modified time, so a written pom is noticed.
+     */
+    static MavenProject module(String artifactId) {
+        def directory = Files.createTempDirectory(artifactId)
+        def pom = directory.resolve("pom.xml")
+        Files.writeString(pom, "<project>\n    <artifactId>$artifactId</artifactId>\n</project>\n")
+        Files.setLastModifiedTime(pom, FileTime.fromMillis(1_000_000))
+        def project = new MavenProject(groupId: "my.favorite.food", artifactId: artifactId, version: "1.0.0")
+        project.build.directory = directory.resolve("target").toString()
+        project.file = pom.toFile()
+        project
+    }
+
+    /** Get the directory the plugin writes the reports of a module to. */
+    static Path logDirectory(MavenProject project) {
+        new File(project.build.directory).toPath().resolve("maven-explicit-dependencies")
+    }
+
+    /** Create the dependency-tree of a module with a single implicit dependency foo.groupie:bar:1.2.3. */
+    static DependencyNode rootNode(MavenProject project) {
+        tree("${project.groupId}:${project.artifactId}:${project.version}", "foo.groupie:bar:1.2.3")
+    }
+}
@@ -0,0 +1,73 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import groovy.json.JsonSlurper
+import spock.lang.Specification
+
+class PhaseMetricsSpec extends Specification {
+
+    def sut = new PhaseMetrics()
+
+    def "Verify phases are recorded in order and accumulate"() {
+        when:
+        def result = sut.measure("resolve") { new byte[1024 * 1024].length }
+        sut.run("write") { Thread.sleep(5) }
+        sut.run("resolve") { }
+
+        then:
+        result == 1024 * 1024
+        sut.phases == ["resolve", "write"]
+        sut.getNanos("write") >= 5_000_000
+        sut.totalNanos == sut.getNanos("resolve") + sut.getNanos("write")
+        sut.getNanos("analyze") == 0
+        sut.getAllocatedBytes("analyze") == -1
+
+        and: "allocations are measured on HotSpot"
+        sut.getAllocatedBytes("resolve") >= 1024 * 1024
+    }
+
+    def "Verify a phase is recorded when it fails"() {
+        when:
+        sut.run("resolve") { throw new PluginException("failed", "BOOM!") }
+
+        then:
+        thrown(PluginException)
+        sut.phases == ["resolve"]
+    }
+
+    def "Verify metrics are stored as JSON and summarized in one line"() {
+        given:
+        sut.run("resolve") { }
+        sut.run("analyze") { }
+
+        when:
+        def json = new JsonSlurper().parseText(sut.toJson())
+
+        then:
+        json.totalMillis == new BigDecimal(PhaseMetrics.millis(sut.totalNanos))
+        json.phases*.name == ["resolve", "analyze"]
+        json.phases.every { it.allocatedBytes >= 0 }
+
+        and:
+        sut.summary() ==~ /total \d+\.\d{3} ms: resolve \d+\.\d{3} ms \d+\.\d MB, analyze \d+\.\d{3} ms \d+\.\d MB/
+    }
+}
@@ -0,0 +1,118 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.model.Build
+import org.apache.maven.model.Dependency
+import org.apache.maven.project.MavenProject
+import spock.lang.Shared
+import spock.lang.Specification
+
+import java.lang.management.ManagementFactory
+import java.nio.file.Files
+
+/**
+ * End-to-end scale tests which analyze large synthetic dependency-trees and fail when the wall
+ * time or the allocated bytes exceed the budgets in scale-budgets.properties.
+ */
+class PluginContextScaleSpec extends Specification {
+
+    @Shared
+    def budgets = loadBudgets()
+
+    def "Verify analyzing #nodes nodes stays within the recorded budgets"() {
+        given:
+        def graphBuilder = new SyntheticDependencyGraphBuilder()
+                .nodes(nodes).depth(10).fanOut(6).sharing(0.8)
+        def project = project(graphBuilder)
+        def configuration = new PluginConfiguration().force(false).asyncWrites(false)
+        def maxMillis = budget(nodes, "millis")
+        def maxBytes = budget(nodes, "allocatedMegabytes") * 1024 * 1024
+
+        and: "warm up, so the budgets measure compiled code"
+        def expected = analyze(project, Stub(MavenSession), graphBuilder, configuration)
+
+        when: "a new session, so the record pool starts empty"
+        def session = Stub(MavenSession)
+        def threads = ManagementFactory.threadMXBean as com.sun.management.ThreadMXBean
+        def allocatedBefore = threads.currentThreadAllocatedBytes
+        def started = System.nanoTime()
+        def dependencies = analyze(project, session, graphBuilder, configuration)
+        def millis = (System.nanoTime() - started).intdiv(1_000_000)
+        def allocated = threads.currentThreadAllocatedBytes - allocatedBefore
+
+        then:
+        dependencies == expected
+        !dependencies.isEmpty()
+
+        and:
+        millis <= maxMillis
+        allocated <= maxBytes
+
+        where:
+        nodes << [1_000, 10_000, 100_000]
+    }
+
+    private static Set<DependencyRecord> analyze(
+            MavenProject project, MavenSession session,
+            SyntheticDependencyGraphBuilder graphBuilder, PluginConfiguration configuration) {
+        new PluginContext(project, session, graphBuilder, configuration).getMissingExplicitDependencies()
+    }
+
+    /** A project which explicitly declares every other direct dependency of the generated tree. */
+    private MavenProject project(SyntheticDependencyGraphBuilder graphBuilder) {
+        def directory = Files.createTempDirectory("scale").toAbsolutePath().toString()
+        def declared = graphBuilder.buildDependencyGraph(null, null).children
+                .collate(2)*.first()
+                .collect { node ->
+                    def dependency = new Dependency()
+                    dependency.groupId = node.artifact.groupId
+                    dependency.artifactId = node.artifact.artifactId
+                    dependency.version = node.artifact.version
+                    dependency
+                }
+
+        Stub(MavenProject) {
+            it.groupId >> "com.example.synthetic"
+            it.artifactId >> "root"
+            it.version >> "1.0.0"
+            it.dependencies >> declared
+            it.build >> Stub(Build) {
+                it.directory >> directory
+            }
+        }
+    }
+
+    private long budget(int nodes, String name) {
+        def value = budgets.getProperty("nodes.${nodes}.${name}".toString())
+        assert value != null: "no ${name} budget recorded for ${nodes} nodes"
+        value as long
+    }
+
+    private static Properties loadBudgets() {
+        def properties = new Properties()
+        PluginContextScaleSpec.getResourceAsStream("/scale-budgets.properties").withCloseable {
+            properties.load(it)
+        }
+        properties
+    }
+}
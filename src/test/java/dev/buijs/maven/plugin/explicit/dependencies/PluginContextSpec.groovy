@@ -20,12 +20,26 @@
  */
 package dev.buijs.maven.plugin.explicit.dependencies
 
+import org.apache.maven.artifact.repository.ArtifactRepository
+import org.apache.maven.execution.MavenSession
 import org.apache.maven.model.Build
+import org.apache.maven.model.Dependency
 import org.apache.maven.project.MavenProject
+import org.apache.maven.project.ProjectBuildingRequest
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException
+import groovy.json.JsonSlurper
 import spock.lang.Specification
 
 import java.nio.file.Files
 import java.nio.file.Path
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
 
 class PluginContextSpec extends Specification {
 
@@ -92,4 +106,620 @@ class PluginContextSpec extends Specification {
         PluginException e = thrown()
         e.message == "failed to delete log directory"
     }
+
+    def "Verify the previous verdict is reused when incremental is enabled and nothing changed"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().incremental(true)
+
+        when:
+        def first = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        first == [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+
+        when:
+        def second = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        second == first
+        buildDirectory.resolve("maven-explicit-dependencies/fingerprint.sha256").toFile().exists()
+    }
+
+    def "Verify the verdict is not reused when the dependency-tree has a SNAPSHOT"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().incremental(true)
+
+        when:
+        2.times {
+            new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                    .getMissingExplicitDependencies()
+        }
+
+        then:
+        2 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >>
+                tree("my.favorite:project:1.0.0", "foo.groupie:bar:1.2.3-SNAPSHOT")
+        !buildDirectory.resolve("maven-explicit-dependencies/fingerprint.sha256").toFile().exists()
+    }
+
+    def "Verify the previous verdict is reused when incremental and gzip are enabled"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().incremental(true).gzip(true)
+
+        when:
+        def first = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        buildDirectory.resolve("maven-explicit-dependencies/dependenciesMissing.json.gz").toFile().exists()
+
+        when:
+        def second = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        second == first
+    }
+
+    def "Verify disabled reports are not written while the verdict is unchanged"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        }
+        def configuration = new PluginConfiguration()
+                .disabledReports(["dependencies", "dependencyTree", "dependencyTreeFlattened", "metrics"])
+
+        when:
+        def dependencies = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        dependencies == [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+        buildDirectory.resolve("maven-explicit-dependencies").toFile().list() as Set ==
+                ["dependenciesMissing.json"] as Set
+    }
+
+    def "Verify the metrics of every phase are stored in the log directory"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        }
+        def context = new PluginContext(project, Stub(MavenSession), graphBuilder)
+
+        when:
+        context.getMissingExplicitDependencies()
+
+        then:
+        context.metrics.phases == ["collect", "resolve", "traverse", "write", "sort", "analyze"]
+
+        and:
+        def json = new JsonSlurper().parse(buildDirectory.resolve("maven-explicit-dependencies/metrics.json").toFile())
+        json.phases*.name == context.metrics.phases
+        json.phases.every { it.millis >= 0 }
+        json.totalMillis >= 0
+    }
+
+    def "Verify the dependency graph is reused from the graph cache by a new build"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration()
+                .graphCache(true)
+                .graphCacheDirectory(buildDirectory.resolve("graphs"))
+        def treeFile = buildDirectory.resolve("maven-explicit-dependencies/dependencyTree.txt")
+
+        when:
+        def first = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+        def tree = Files.readString(treeFile)
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        first == [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+
+        when:
+        def context = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+        def second = context.getMissingExplicitDependencies()
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        second == first
+        Files.readString(treeFile) == tree
+        !context.metrics.phases.contains("resolve")
+    }
+
+    def "Verify a cached graph without tree is not reused when the tree is reported"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration()
+                .graphCache(true)
+                .graphCacheDirectory(buildDirectory.resolve("graphs"))
+
+        when:
+        new PluginContext(project, Stub(MavenSession), graphBuilder,
+                configuration.disabledReports(["dependencyTree"])).getMissingExplicitDependencies()
+        new PluginContext(project, Stub(MavenSession), graphBuilder,
+                configuration.disabledReports([])).getMissingExplicitDependencies()
+
+        then:
+        2 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        buildDirectory.resolve("maven-explicit-dependencies/dependencyTree.txt").toFile().exists()
+    }
+
+    def "Verify the warm cache reuses graphs and verdicts of previous sessions until the pom changes"() {
+        given:
+        WarmCache.GRAPHS.clear()
+        WarmCache.VERDICTS.clear()
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def changed = Stub(MavenProject) {
+            it.getBuild() >> project.getBuild()
+            it.getDependencies() >> [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().warmCache(true)
+        def expected = [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+
+        when:
+        def first = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        first == expected
+
+        when: "the next session analyzes the same pom"
+        def second = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        second == expected
+        buildDirectory.resolve("maven-explicit-dependencies/dependencyTree.txt").toFile().exists()
+
+        when: "the pom changes"
+        def third = new PluginContext(changed, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        third.isEmpty()
+
+        when: "the verdict is reused in incremental mode"
+        configuration.incremental(true)
+        new PluginContext(changed, Stub(MavenSession), graphBuilder, configuration).getMissingExplicitDependencies()
+        def fourth = new PluginContext(changed, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        fourth.isEmpty()
+        WarmCache.VERDICTS.size() == 1
+
+        cleanup:
+        WarmCache.GRAPHS.clear()
+        WarmCache.VERDICTS.clear()
+    }
+
+    def "Verify a changed pom is verified against the snapshot of a previous run without resolution"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def changed = Stub(MavenProject) {
+            it.getBuild() >> project.getBuild()
+            it.getDependencies() >> [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().incremental(true).graphSnapshot(true)
+        def logDirectory = buildDirectory.resolve("maven-explicit-dependencies")
+
+        when:
+        new PluginContext(project, Stub(MavenSession), graphBuilder, configuration).getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        logDirectory.resolve("fingerprint.sha256").toFile().exists()
+
+        when:
+        def json = new PluginContext(project, Stub(MavenSession), configuration)
+                .replay(logDirectory.resolve("dependencyTreeFlattened.json"))
+        def graph = new PluginContext(changed, Stub(MavenSession), configuration)
+                .replay(logDirectory.resolve("dependencyGraph.graph"))
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        json == [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+        graph.isEmpty()
+        !logDirectory.resolve("fingerprint.sha256").toFile().exists()
+        logDirectory.resolve("dependencyTree.txt").toFile().exists()
+        logDirectory.resolve("metrics.json").toFile().text.contains('"replay"')
+    }
+
+    def "Verify an exception is thrown when the snapshot does not exist or is invalid"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def snapshot = buildDirectory.resolve(filename)
+        if (content != null) {
+            Files.writeString(snapshot, content)
+        }
+
+        when:
+        new PluginContext(project, Stub(MavenSession), Stub(DependencyGraphBuilder)).replay(snapshot)
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to read snapshot"
+
+        where:
+        filename                       | content
+        "dependencyTreeFlattened.json" | null
+        "dependencyGraph.graph"        | null
+        "dependencyGraph.graph"        | "not a graph"
+    }
+
+    def "Verify an exception is thrown when a context without graph builder resolves the dependency-tree"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+
+        when:
+        new PluginContext(project, Stub(MavenSession), new PluginConfiguration()).getMissingExplicitDependencies()
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to build dependency-tree graph"
+    }
+
+    def "Verify only missing dependencies which are not in the baseline count towards the verdict"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        project.getBasedir() >> buildDirectory.toFile()
+        def changed = Stub(MavenProject) {
+            it.getBuild() >> project.getBuild()
+            it.getBasedir() >> buildDirectory.toFile()
+            it.getDependencies() >> [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        }
+        def configuration = new PluginConfiguration().baseline("baseline.json")
+
+        when: "the baseline is created"
+        configuration.updateBaseline(true)
+        def created = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+
+        then:
+        created.getMissingExplicitDependencies().isEmpty()
+        created.describeBaselineOrNull() == "baseline updated: ${buildDirectory.resolve("baseline.json")}"
+        new DependencyReader().read(buildDirectory.resolve("baseline.json")) ==
+                [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+
+        when: "nothing changed"
+        configuration.updateBaseline(false)
+        def unchanged = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+
+        then:
+        unchanged.getMissingExplicitDependencies().isEmpty()
+        unchanged.describeBaselineOrNull() == null
+        unchanged.baselineDeltaOrNull.fixed().isEmpty()
+        Files.readString(buildDirectory.resolve("maven-explicit-dependencies/dependenciesMissing.json")).contains("bar")
+
+        when: "the missing dependency is fixed"
+        def fixed = new PluginContext(changed, Stub(MavenSession), graphBuilder, configuration)
+
+        then:
+        fixed.getMissingExplicitDependencies().isEmpty()
+        fixed.baselineDeltaOrNull.fixed() == [new DependencyRecord("foo.groupie", "bar", "1.2.3")] as Set
+        fixed.describeBaselineOrNull().startsWith("1 dependencies in the baseline are no longer missing")
+    }
+
+    def "Verify the missing dependencies of every scope are reported from one resolution"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration()
+                .incremental(true)
+                .graphSnapshot(true)
+                .scopes(DependencyScope.parse(["compile", "runtime"]))
+        def logDirectory = buildDirectory.resolve("maven-explicit-dependencies")
+
+        when:
+        def dependencies = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> tree("my.favorite:project:1.0.0",
+                ["foo.groupie:bar:1.2.3", "foo.groupie:driver:1.0.0:runtime"],
+                ["foo.groupie:spock:2.4:test", "foo.groupie:hamcrest:2.2:test"])
+        dependencies*.artifactId() == ["bar", "driver"]
+
+        and:
+        with(new JsonSlurper()) {
+            parse(logDirectory.resolve("dependenciesMissing.json").toFile())*.artifactId == ["bar", "driver"]
+            parse(logDirectory.resolve("dependenciesMissingCompile.json").toFile())*.artifactId == ["bar"]
+            parse(logDirectory.resolve("dependenciesMissingRuntime.json").toFile())*.artifactId == ["driver"]
+            parse(logDirectory.resolve("dependenciesMissingTest.json").toFile())*.artifactId == ["hamcrest", "spock"]
+        }
+        !logDirectory.resolve("dependenciesMissingProvided.json").toFile().exists()
+
+        when: "the graph snapshot is replayed for the test scope"
+        configuration.scopes(DependencyScope.parse(["test"]))
+        def replayed = new PluginContext(project, Stub(MavenSession), graphBuilder, configuration)
+                .replay(logDirectory.resolve("dependencyGraph.graph"))
+
+        then:
+        0 * graphBuilder.buildDependencyGraph(_, _)
+        replayed*.artifactId() == ["hamcrest", "spock"]
+    }
+
+    def "Verify missing dependencies which are not referenced by the compiled classes are dropped"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        def classes = Files.createDirectories(buildDirectory.resolve("classes/my"))
+        Files.copy(Path.of(PluginContext.protectionDomain.codeSource.location.toURI())
+                .resolve("dev/buijs/maven/plugin/explicit/dependencies/PluginContext.class"), classes.resolve("PluginContext.class"))
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+            it.getOutputDirectory() >> buildDirectory.resolve("classes").toString()
+        }
+        def repository = Files.createTempDirectory("pcs")
+        def session = Stub(MavenSession) {
+            it.getLocalRepository() >> Stub(ArtifactRepository) {
+                it.getBasedir() >> repository.toString()
+            }
+        }
+        def jar = Files.createDirectories(repository.resolve("foo/groupie/bar/1.2.3")).resolve("bar-1.2.3.jar")
+        new ZipOutputStream(Files.newOutputStream(jar)).withCloseable {
+            it.putNextEntry(new ZipEntry(entry))
+            it.closeEntry()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        }
+
+        when:
+        def missing = new PluginContext(project, session, graphBuilder, new PluginConfiguration()
+                .bytecodeScan(true)
+                .classIndexDirectory(Files.createTempDirectory("pcs")))
+                .getMissingExplicitDependencies()
+
+        then:
+        missing.size() == expected
+        buildDirectory.resolve("maven-explicit-dependencies/dependenciesUnreferenced.json").toFile().exists()
+        new JsonSlurper().parse(buildDirectory.resolve("maven-explicit-dependencies/metrics.json").toFile())
+                .phases*.name.contains("bytecode")
+
+        where:
+        entry                                              | expected
+        "foo/Bar.class"                                    | 0
+        "org/apache/maven/project/MavenProject.class"      | 1
+    }
+
+    def "Verify missing test dependencies which are referenced by the compiled test classes are kept"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        def compiled = Path.of(PluginContext.protectionDomain.codeSource.location.toURI())
+                .resolve("dev/buijs/maven/plugin/explicit/dependencies")
+        Files.copy(compiled.resolve("DependencyScope.class"),
+                Files.createDirectories(buildDirectory.resolve("classes/my")).resolve("DependencyScope.class"))
+        if (testClass != null) {
+            Files.copy(compiled.resolve("${testClass}.class"),
+                    Files.createDirectories(buildDirectory.resolve("test-classes/my")).resolve("${testClass}.class"))
+        }
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+            it.getOutputDirectory() >> buildDirectory.resolve("classes").toString()
+            it.getTestOutputDirectory() >> buildDirectory.resolve("test-classes").toString()
+        }
+        def repository = Files.createTempDirectory("pcs")
+        def session = Stub(MavenSession) {
+            it.getLocalRepository() >> Stub(ArtifactRepository) {
+                it.getBasedir() >> repository.toString()
+            }
+        }
+        def jar = Files.createDirectories(repository.resolve("foo/groupie/bar/1.2.3")).resolve("bar-1.2.3.jar")
+        new ZipOutputStream(Files.newOutputStream(jar)).withCloseable {
+            it.putNextEntry(new ZipEntry("org/apache/maven/project/MavenProject.class"))
+            it.closeEntry()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >>
+                    tree("my.favorite:project:1.0.0", "foo.groupie:bar:1.2.3:$scope")
+        }
+
+        when:
+        def missing = new PluginContext(project, session, graphBuilder, new PluginConfiguration()
+                .bytecodeScan(true)
+                .classIndexDirectory(Files.createTempDirectory("pcs")))
+                .getMissingExplicitDependencies()
+
+        then:
+        missing.size() == expected
+
+        where:
+        scope     | testClass         | expected
+        "test"    | "PluginContext"   | 1
+        "test"    | "DependencyScope" | 0
+        "test"    | null              | 1
+        "compile" | "PluginContext"   | 0
+    }
+
+    def "Verify the full analysis is executed when incremental is enabled and forceFullRun is set"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+        def configuration = new PluginConfiguration().incremental(true)
+        new PluginContext(project, Stub(MavenSession), Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_, _) >> rootNode()
+        }, configuration).getMissingExplicitDependencies()
+
+        when:
+        new PluginContext(project, Stub(MavenSession), graphBuilder, configuration.forceFullRun(true))
+                .getMissingExplicitDependencies()
+
+        then:
+        1 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+    }
+
+    def "Verify the background thread of the writer is stopped when the analysis fails"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> {
+                throw new DependencyGraphBuilderException("BOOM!")
+            }
+        }
+        def before = writerThreads()
+        def context = new PluginContext(project, Stub(MavenSession), graphBuilder, new PluginConfiguration())
+
+        when:
+        context.getMissingExplicitDependencies()
+
+        then:
+        thrown(PluginException)
+        writerThreadsStopped(before)
+    }
+
+    def "Verify the full analysis is executed when incremental is disabled"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pcs")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Mock(DependencyGraphBuilder)
+
+        when:
+        2.times {
+            new PluginContext(project, Stub(MavenSession), graphBuilder)
+                    .getMissingExplicitDependencies()
+        }
+
+        then:
+        2 * graphBuilder.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> rootNode()
+        !buildDirectory.resolve("maven-explicit-dependencies/fingerprint.sha256").toFile().exists()
+    }
+
+    def "Verify many module contexts can be analyzed concurrently without mixing their output"() {
+        given:
+        def modules = (1..24).collect { index ->
+            def module = new MavenProject(groupId: "my.favorite", artifactId: "module-$index", version: "1.0.0")
+            module.build.directory = Files.createTempDirectory("pcs").toString()
+            module
+        }
+
+        and: "some modules share a build directory with another execution of the same module"
+        def executions = modules + modules.take(8)
+
+        and:
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { arguments ->
+                //noinspection GroovyAssignabilityCheck
+                def module = arguments[0].project as MavenProject
+                rootNode(module.artifactId, "bar-" + module.artifactId)
+            }
+        }
+
+        and:
+        def executor = Executors.newFixedThreadPool(8)
+        def start = new CountDownLatch(1)
+
+        when:
+        def futures = executions.collect { module ->
+            executor.submit({
+                start.await()
+                new PluginContext(module, Stub(MavenSession), graphBuilder).getMissingExplicitDependencies()
+            } as Callable)
+        }
+        start.countDown()
+        def results = futures.collect { it.get() }
+
+        then:
+        executions.indices.every { index ->
+            results[index] == [new DependencyRecord("foo.groupie", "bar-" + executions[index].artifactId, "1.2.3")] as Set
+        }
+
+        and:
+        modules.every { module ->
+            def logDirectory = Path.of(module.build.directory).resolve("maven-explicit-dependencies")
+            new DependencyReader().read(logDirectory.resolve("dependenciesMissing.json")) ==
+                    [new DependencyRecord("foo.groupie", "bar-" + module.artifactId, "1.2.3")] as Set
+        }
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
+    static Set<Thread> writerThreads() {
+        Thread.allStackTraces.keySet().findAll { it.name == "explicit-dependencies-writer" && it.alive }
+    }
+
+    static boolean writerThreadsStopped(Set<Thread> before) {
+        for (def attempt = 0; attempt < 500; attempt++) {
+            if (writerThreads().minus(before).isEmpty()) {
+                return true
+            }
+            sleep(10)
+        }
+        false
+    }
+
+    def static rootNode(String artifactId = "project", String dependencyArtifactId = "bar") {
+        tree("my.favorite:$artifactId:1.0.0", "foo.groupie:$dependencyArtifactId:1.2.3")
+    }
 }
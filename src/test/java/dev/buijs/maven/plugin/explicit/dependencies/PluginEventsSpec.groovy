@@ -0,0 +1,125 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import jdk.jfr.Recording
+import jdk.jfr.consumer.RecordedEvent
+import jdk.jfr.consumer.RecordingFile
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.model.Build
+import org.apache.maven.project.MavenProject
+import org.apache.maven.project.ProjectBuildingRequest
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class PluginEventsSpec extends Specification {
+
+    def project = Stub(MavenProject) {
+        it.getGroupId() >> "my.favorite"
+        it.getArtifactId() >> "project"
+        it.getVersion() >> "1.0.0"
+    }
+
+    def "Verify every phase of the analysis is recorded by Java Flight Recorder"() {
+        given:
+        def buildDirectory = Files.createTempDirectory("pes")
+        project.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toAbsolutePath().toString()
+        }
+        def graphBuilder = Stub(DependencyGraphBuilder) {
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> PluginContextSpec.rootNode()
+        }
+        def recording = new Recording()
+        ["ModuleAnalysis", "DependencyTree", "Analyze", "Write"].each {
+            recording.enable("dev.buijs.explicitdependencies.$it")
+        }
+
+        when:
+        recording.start()
+        new PluginContext(project, Stub(MavenSession), graphBuilder).getMissingExplicitDependencies()
+        recording.stop()
+
+        and:
+        def file = buildDirectory.resolve("recording.jfr")
+        recording.dump(file)
+        def events = RecordingFile.readAllEvents(file).groupBy { it.eventType.name - "dev.buijs.explicitdependencies." }
+
+        then:
+        with(single(events.ModuleAnalysis)) {
+            getString("moduleId") == "my.favorite:project:1.0.0"
+            getInt("missingCount") == 1
+            !getBoolean("cached")
+        }
+
+        and:
+        with(single(events.DependencyTree)) {
+            getString("moduleId") == "my.favorite:project:1.0.0"
+            getInt("nodeCount") == 2
+            getInt("dependencyCount") == 2
+        }
+
+        and:
+        with(single(events.Analyze)) {
+            getString("moduleId") == "my.favorite:project:1.0.0"
+            getInt("implicitCount") == 1
+            getInt("missingCount") == 1
+        }
+
+        and:
+        def written = events.Write.collectEntries {
+            [(it.getString("file").tokenize(File.separator).last()): it.getLong("bytesWritten")]
+        }
+        written.keySet().containsAll(["dependenciesMissing.json", "dependencyTree.txt", "metrics.json"])
+        written.every { name, bytes -> bytes == Files.size(buildDirectory.resolve("maven-explicit-dependencies/$name")) }
+
+        cleanup:
+        recording?.close()
+    }
+
+    def "Verify no events are recorded when the event is disabled"() {
+        given:
+        def recording = new Recording()
+        recording.disable("dev.buijs.explicitdependencies.Analyze")
+
+        when:
+        recording.start()
+        new DependencyAnalyzer(Mock(DependencyWriter), "my.favorite:project:1.0.0", new DependencyRecordPool())
+                .getMissingExplicitDependencies(new BitSet(), new BitSet())
+        recording.stop()
+
+        and:
+        def file = Files.createTempFile("pes", ".jfr")
+        recording.dump(file)
+
+        then:
+        RecordingFile.readAllEvents(file).every { !it.eventType.name.startsWith("dev.buijs.") }
+
+        cleanup:
+        recording?.close()
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events) {
+        assert events?.size() == 1
+        events.first()
+    }
+}
@@ -26,12 +26,12 @@ import org.apache.maven.plugin.logging.Log
 import org.apache.maven.project.MavenProject
 import org.apache.maven.project.ProjectBuildingRequest
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
-import org.apache.maven.shared.dependency.graph.DependencyNode
-import org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor
 import spock.lang.Specification
 
 import java.nio.file.Files
 
+import static dev.buijs.maven.plugin.explicit.dependencies.DependencyNodeFactory.tree
+
 class PluginMojoSpec extends Specification {
 
     def "Verify a PluginException is thrown when dependencies are missing and force is true"() {
@@ -39,18 +39,8 @@ class PluginMojoSpec extends Specification {
         def project = projectStub
         def session = Stub(MavenSession)
         def graphBuilder = Stub(DependencyGraphBuilder) {
-            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> Stub(DependencyNode) {
-                it.accept(_ as DependencyNodeVisitor) >> {
-                    //multiple visitor passes, so need to check if this is the correct one
-                    //noinspection GroovyAssignabilityCheck
-                    def visitor = arguments[0].getDependencyNodeVisitor()
-                    if (visitor instanceof DependencyTreeNodeVisitor) {
-                        def record = new DependencyRecord("foo.groupie", "bar", "1.2.3")
-                        //noinspection GroovyAccessibility
-                        visitor.collection.add(record)
-                    }
-                }
-            }
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >>
+                    tree("my.favorite:project:1.0.0", "foo.groupie:bar:1.2.3")
         }
 
         and:
@@ -89,18 +79,8 @@ class PluginMojoSpec extends Specification {
         def project = projectStub
         def session = Stub(MavenSession)
         def graphBuilder = Stub(DependencyGraphBuilder) {
-            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> Stub(DependencyNode) {
-                it.accept(_ as DependencyNodeVisitor) >> {
-                    //multiple visitor passes, so need to check if this is the correct one
-                    //noinspection GroovyAssignabilityCheck
-                    def visitor = arguments[0].getDependencyNodeVisitor()
-                    if (visitor instanceof DependencyTreeNodeVisitor) {
-                        def record = new DependencyRecord("foo.groupie", "bar", "1.2.3")
-                        //noinspection GroovyAccessibility
-                        visitor.collection.add(record)
-                    }
-                }
-            }
+            it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >>
+                    tree("my.favorite:project:1.0.0", "foo.groupie:bar:1.2.3")
         }
 
         and:
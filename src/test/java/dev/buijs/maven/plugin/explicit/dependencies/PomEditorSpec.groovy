@@ -0,0 +1,240 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.nio.charset.Charset
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+import java.nio.file.attribute.PosixFilePermissions
+
+class PomEditorSpec extends Specification {
+
+    def sut = new PomEditor()
+
+    def pizza = new DependencyRecord("my.food", "pizza", "1.0.0")
+
+    def cheese = new DependencyRecord("my.food", "cheese", "2.0.0")
+
+    def "Verify dependencies are added to the project dependencies without changing anything else"() {
+        given:
+        def pom = """<?xml version="1.0" encoding="UTF-8"?>
+<project>
+  <!-- <dependencies></dependencies> -->
+  <artifactId>menu</artifactId>
+  <dependencies>
+    <dependency>
+      <groupId>my.food</groupId>
+      <artifactId>fries</artifactId>
+    </dependency>
+  </dependencies>
+  <dependencyManagement>
+    <dependencies>
+    </dependencies>
+  </dependencyManagement>
+</project>
+"""
+
+        expect:
+        sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE, (cheese): DependencyScope.TEST]) ==
+                """<?xml version="1.0" encoding="UTF-8"?>
+<project>
+  <!-- <dependencies></dependencies> -->
+  <artifactId>menu</artifactId>
+  <dependencies>
+    <dependency>
+      <groupId>my.food</groupId>
+      <artifactId>fries</artifactId>
+    </dependency>
+    <dependency>
+      <groupId>my.food</groupId>
+      <artifactId>pizza</artifactId>
+      <version>1.0.0</version>
+    </dependency>
+    <dependency>
+      <groupId>my.food</groupId>
+      <artifactId>cheese</artifactId>
+      <version>2.0.0</version>
+      <scope>test</scope>
+    </dependency>
+  </dependencies>
+  <dependencyManagement>
+    <dependencies>
+    </dependencies>
+  </dependencyManagement>
+</project>
+"""
+    }
+
+    def "Verify the project dependencies are created when the pom has none"() {
+        expect:
+        sut.addDependencies(pom, [(pizza): DependencyScope.RUNTIME]) == expected
+
+        where:
+        pom                                                             | expected
+        "<project>\r\n\t<artifactId>menu</artifactId>\r\n</project>"    | "<project>\r\n\t<artifactId>menu</artifactId>\r\n\t<dependencies>\r\n\t\t<dependency>\r\n\t\t\t<groupId>my.food</groupId>\r\n\t\t\t<artifactId>pizza</artifactId>\r\n\t\t\t<version>1.0.0</version>\r\n\t\t\t<scope>runtime</scope>\r\n\t\t</dependency>\r\n\t</dependencies>\r\n</project>"
+        "<project>\n    <dependencies/>\n</project>"                   | "<project>\n    <dependencies>\n        <dependency>\n            <groupId>my.food</groupId>\n            <artifactId>pizza</artifactId>\n            <version>1.0.0</version>\n            <scope>runtime</scope>\n        </dependency>\n    </dependencies>\n</project>"
+    }
+
+    def "Verify dependencies are added at the right offset whatever text precedes them"() {
+        given:
+        def pom = "${prefix}<project>${eol}  ${element}${eol}  <dependencies>${eol}  </dependencies>${eol}</project>${eol}"
+        def dependency = "    <dependency>${eol}      <groupId>my.food</groupId>${eol}" +
+                "      <artifactId>pizza</artifactId>${eol}      <version>1.0.0</version>${eol}    </dependency>${eol}"
+
+        expect:
+        sut.addDependencies(pom.toString(), [(pizza): DependencyScope.COMPILE]) ==
+                pom.toString().replace("  </dependencies>", "${dependency}  </dependencies>")
+
+        where:
+        prefix                          | eol    | element
+        ""                              | "\r\n" | "<name>menu</name>"
+        ""                              | "\n"   | "<name>fish &amp; chips &#x1F355; &lt;dependencies&gt;</name>"
+        ""                              | "\n"   | "<name><![CDATA[<dependencies></dependencies>]]></name>"
+        ""                              | "\r\n" | "<name>Pizzer\u00EDa \uD83C\uDF55</name>"
+        ""                              | "\n"   | "<url a='/>' b=\"dependencies>\">x</url>"
+        "\uFEFF"                        | "\r\n" | "<!-- <dependencies/> --><?pi <dependencies/>?>"
+        "<?xml version=\"1.0\"?>\n"     | "\n"   | "<p:name xmlns:p=\"urn:p\">menu</p:name>"
+    }
+
+    def "Verify the byte order mark of a pom is kept"() {
+        given:
+        def pom = Files.createTempDirectory("pes").resolve("pom.xml")
+        Files.writeString(pom, "\uFEFF<project>\r\n  <artifactId>menu</artifactId>\r\n</project>\r\n")
+
+        when:
+        def added = sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+
+        then:
+        added == 1
+        Files.readString(pom) == "\uFEFF<project>\r\n  <artifactId>menu</artifactId>\r\n" +
+                "  <dependencies>\r\n    <dependency>\r\n      <groupId>my.food</groupId>\r\n" +
+                "      <artifactId>pizza</artifactId>\r\n      <version>1.0.0</version>\r\n" +
+                "    </dependency>\r\n  </dependencies>\r\n</project>\r\n"
+    }
+
+    def "Verify a pom is read and written in the encoding of its XML declaration"() {
+        given:
+        def pom = Files.createTempDirectory("pes").resolve("pom.xml")
+        def content = "<?xml version=\"1.0\" encoding=\"${encoding}\"?>\n<project>\n" +
+                "  <name>Pizzer\u00EDa \u00C7a Va</name>\n</project>\n"
+        Files.writeString(pom, content, Charset.forName(encoding))
+
+        when:
+        def added = sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+
+        then:
+        added == 1
+        Files.readString(pom, Charset.forName(encoding)) == content.replace("</project>",
+                "  <dependencies>\n    <dependency>\n      <groupId>my.food</groupId>\n" +
+                "      <artifactId>pizza</artifactId>\n      <version>1.0.0</version>\n" +
+                "    </dependency>\n  </dependencies>\n</project>")
+
+        where:
+        encoding << ["ISO-8859-1", "UTF-8", "windows-1252"]
+    }
+
+    def "Verify a managed dependency is added without a version"() {
+        given:
+        def editor = new PomEditor(["my.food:pizza"] as Set)
+
+        expect:
+        editor.addDependencies("<project>\n</project>", [(pizza): DependencyScope.TEST, (cheese): DependencyScope.COMPILE]) ==
+                "<project>\n    <dependencies>\n        <dependency>\n            <groupId>my.food</groupId>\n" +
+                "            <artifactId>pizza</artifactId>\n            <scope>test</scope>\n        </dependency>\n" +
+                "        <dependency>\n            <groupId>my.food</groupId>\n            <artifactId>cheese</artifactId>\n" +
+                "            <version>2.0.0</version>\n        </dependency>\n    </dependencies>\n</project>"
+    }
+
+    def "Verify dependencies which are already declared are not added again"() {
+        given:
+        def pom = "<project>\n  <dependencies>\n    <dependency>\n      <groupId>my.food</groupId>\n" +
+                "      <artifactId>pizza</artifactId>\n    </dependency>\n  </dependencies>\n</project>\n"
+
+        expect:
+        sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE]).is(pom)
+    }
+
+    def "Verify a pom is only written when dependencies are added"() {
+        given:
+        def pom = Files.createTempDirectory("pes").resolve("pom.xml")
+        Files.writeString(pom, "<project>\n  <artifactId>menu</artifactId>\n</project>\n")
+        def lastModified = FileTime.fromMillis(1_000_000)
+        Files.setLastModifiedTime(pom, lastModified)
+
+        when:
+        def unchanged = sut.addDependencies(pom, [:])
+
+        then:
+        unchanged == 0
+        Files.getLastModifiedTime(pom) == lastModified
+
+        when:
+        def added = sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+        Files.setLastModifiedTime(pom, lastModified)
+        def again = sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+
+        then:
+        added == 1
+        again == 0
+        Files.getLastModifiedTime(pom) == lastModified
+        Files.readString(pom).contains("<artifactId>pizza</artifactId>")
+        pom.parent.toFile().list() as List == ["pom.xml"]
+    }
+
+    @Requires({ os.linux || os.macOs })
+    def "Verify a pom which is a symbolic link keeps its link and permissions"() {
+        given:
+        def directory = Files.createTempDirectory("pes")
+        def real = Files.createDirectories(directory.resolve("shared")).resolve("pom.xml")
+        Files.writeString(real, "<project>\n  <artifactId>menu</artifactId>\n</project>\n")
+        Files.setPosixFilePermissions(real, PosixFilePermissions.fromString("rw-rw-r--"))
+        def pom = Files.createSymbolicLink(directory.resolve("pom.xml"), real)
+
+        when:
+        def added = sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+
+        then:
+        added == 1
+        Files.isSymbolicLink(pom)
+        Files.readString(real).contains("<artifactId>pizza</artifactId>")
+        PosixFilePermissions.toString(Files.getPosixFilePermissions(real)) == "rw-rw-r--"
+        real.parent.toFile().list() as List == ["pom.xml"]
+    }
+
+    def "Verify an exception is thrown when the pom is not valid"() {
+        given:
+        def pom = Files.createTempDirectory("pes").resolve("pom.xml")
+        Files.writeString(pom, content)
+
+        when:
+        sut.addDependencies(pom, [(pizza): DependencyScope.COMPILE])
+
+        then:
+        PluginException e = thrown()
+        e.message == "failed to add dependencies to pom"
+
+        where:
+        content << ["<project>", "<settings></settings>"]
+    }
+}
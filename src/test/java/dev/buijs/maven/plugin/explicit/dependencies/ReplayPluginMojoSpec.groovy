@@ -0,0 +1,78 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.model.Build
+import org.apache.maven.plugin.logging.Log
+import org.apache.maven.project.MavenProject
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class ReplayPluginMojoSpec extends Specification {
+
+    def buildDirectory = Files.createTempDirectory("rpms")
+
+    def project = Stub(MavenProject) {
+        it.getBuild() >> Stub(Build) {
+            it.getDirectory() >> buildDirectory.toFile().path
+        }
+    }
+
+    def snapshot = buildDirectory.resolve("dependencyTreeFlattened.json")
+
+    def "Verify a PluginException is thrown when dependencies in the snapshot are missing and force is true"() {
+        given:
+        new DependencyWriter(buildDirectory).writeNewFile(
+                "dependencyTreeFlattened.json", [new DependencyRecord("foo.groupie", "bar", "1.2.3")])
+        def mojo = new ReplayPluginMojo(project: project,
+                session: Stub(MavenSession),
+                snapshot: snapshot.toFile(),
+                force: true)
+        mojo.log = Mock(Log)
+
+        when:
+        mojo.execute()
+
+        then:
+        1 * mojo.log.warn("missing explicit dependencies: \n -  foo.groupie.bar:1.2.3")
+        PluginException e = thrown()
+        e.message == "fix this error by adding all missing dependencies to your pom explicitly"
+    }
+
+    def "Verify replay is successful when all dependencies in the snapshot are explicit"() {
+        given:
+        new DependencyWriter(buildDirectory).writeNewFile("dependencyTreeFlattened.json", [])
+        def log = Mock(Log)
+        def mojo = new ReplayPluginMojo(project: project,
+                session: Stub(MavenSession),
+                snapshot: snapshot.toFile(),
+                force: true)
+        mojo.log = log
+
+        when:
+        mojo.execute()
+
+        then:
+        1 * log.info("dependency-tree is fully explicit")
+    }
+}
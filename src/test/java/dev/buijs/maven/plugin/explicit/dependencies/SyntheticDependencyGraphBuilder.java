@@ -0,0 +1,221 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+
+/**
+ * Test utility which generates large dependency-trees which look like real ones, without network
+ * or local repository.
+ *
+ * <p>Every node gets up to {@link SyntheticDependencyGraphBuilder#fanOut(int)} children until
+ * {@link SyntheticDependencyGraphBuilder#depth(int)} is reached. A child is a shared library with
+ * the given {@link SyntheticDependencyGraphBuilder#sharing(double)} probability, or a library which
+ * occurs only once otherwise. A shared library always has the same dependencies, so shared stacks
+ * occur under many direct dependencies just like BOM managed libraries do. A shared library only
+ * depends on shared libraries with a higher index, which keeps the graph acyclic.
+ *
+ * <p>The root is the project of the building request (or a synthetic artifact without project)
+ * and the tree is filled until it has exactly {@link SyntheticDependencyGraphBuilder#nodes(int)}
+ * nodes. The same configuration always generates the same tree.
+ *
+ * <p>This class is used by the JMH benchmarks (src/jmh/java) and the specs, so it is written in
+ * Java.
+ */
+public final class SyntheticDependencyGraphBuilder implements DependencyGraphBuilder {
+
+  private static final String[] QUALIFIERS = {
+    "", "", "", "", "-SNAPSHOT", "-RC1", "-RC2", ".Final", "-jre", "-M3"
+  };
+
+  private static final DefaultArtifactHandler HANDLER = new DefaultArtifactHandler("jar");
+
+  /** A shared library only depends on libraries within this distance, which keeps stacks local. */
+  private static final int MAX_SHARED_DISTANCE = 40;
+
+  private int nodes = 1_000;
+
+  private int depth = 8;
+
+  private int fanOut = 5;
+
+  private double sharing = 0.8;
+
+  private long seed = 42;
+
+  /** Generate a tree with the default depth, fan-out and sharing. */
+  public static DependencyNode generate(int nodes, long seed) {
+    return new SyntheticDependencyGraphBuilder().nodes(nodes).seed(seed).generate(null);
+  }
+
+  /** The exact number of nodes including the root. */
+  public SyntheticDependencyGraphBuilder nodes(int nodes) {
+    this.nodes = Math.max(1, nodes);
+    return this;
+  }
+
+  /** The maximum depth of the tree, where the direct dependencies have depth 1. */
+  public SyntheticDependencyGraphBuilder depth(int depth) {
+    this.depth = Math.max(1, depth);
+    return this;
+  }
+
+  /** The maximum number of dependencies of a library. */
+  public SyntheticDependencyGraphBuilder fanOut(int fanOut) {
+    this.fanOut = Math.max(1, fanOut);
+    return this;
+  }
+
+  /** The probability (0 to 1) that a dependency is a shared library. */
+  public SyntheticDependencyGraphBuilder sharing(double sharing) {
+    this.sharing = Math.max(0, Math.min(1, sharing));
+    return this;
+  }
+
+  public SyntheticDependencyGraphBuilder seed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  @Override
+  public DependencyNode buildDependencyGraph(
+      ProjectBuildingRequest buildingRequest, ArtifactFilter filter) {
+    var project = buildingRequest == null ? null : buildingRequest.getProject();
+    if (project == null || project.getGroupId() == null) {
+      return generate(null);
+    }
+    return generate(
+        newArtifact(project.getGroupId(), project.getArtifactId(), project.getVersion()));
+  }
+
+  private DependencyNode generate(Artifact rootOrNull) {
+    if (rootOrNull == null) {
+      return new Generator(newArtifact("com.example.synthetic", "root", "1.0.0")).generate();
+    }
+    return new Generator(rootOrNull).generate();
+  }
+
+  /** The state of a single tree generation, so a builder can be used concurrently. */
+  private final class Generator {
+
+    private final Random random = new Random(seed);
+
+    private final Artifact root;
+
+    private final Artifact[] shared;
+
+    private final int[][] sharedDependencies;
+
+    private int created;
+
+    private int unique;
+
+    private Generator(Artifact root) {
+      this.root = root;
+      var sharedCount = Math.max(8, nodes / 20);
+      this.shared = new Artifact[sharedCount];
+      this.sharedDependencies = new int[sharedCount][];
+      for (var index = 0; index < sharedCount; index++) {
+        shared[index] =
+            newArtifact("com.example.group" + (index % 97), "library-" + index, version());
+        var remaining = sharedCount - index - 1;
+        var children = new int[Math.min(remaining, random.nextInt(fanOut + 1))];
+        for (var child = 0; child < children.length; child++) {
+          children[child] = index + 1 + random.nextInt(Math.min(remaining, MAX_SHARED_DISTANCE));
+        }
+        sharedDependencies[index] = children;
+      }
+    }
+
+    private DependencyNode generate() {
+      var node = new DefaultDependencyNode(null, root, null, null, null);
+      created = 1;
+      var children = new ArrayList<DependencyNode>();
+      while (created < nodes) {
+        children.add(expandAny(node, 1));
+      }
+      node.setChildren(children);
+      return node;
+    }
+
+    /** Create a shared or unique library at the given depth. */
+    private DependencyNode expandAny(DependencyNode parent, int level) {
+      if (random.nextDouble() < sharing) {
+        return expandShared(parent, random.nextInt(shared.length), level);
+      }
+      return expandUnique(parent, level);
+    }
+
+    private DependencyNode expandShared(DependencyNode parent, int library, int level) {
+      var node = new DefaultDependencyNode(parent, shared[library], null, null, null);
+      created++;
+      List<DependencyNode> children = new ArrayList<>();
+      for (var child : sharedDependencies[library]) {
+        if (created >= nodes || level >= depth) {
+          break;
+        }
+        children.add(expandShared(node, child, level + 1));
+      }
+      node.setChildren(children);
+      return node;
+    }
+
+    private DependencyNode expandUnique(DependencyNode parent, int level) {
+      var id = unique++;
+      var artifact = newArtifact("com.example.unique" + (id % 31), "unique-" + id, version());
+      var node = new DefaultDependencyNode(parent, artifact, null, null, null);
+      created++;
+      List<DependencyNode> children = new ArrayList<>();
+      var count = random.nextInt(fanOut + 1);
+      for (var child = 0; child < count; child++) {
+        if (created >= nodes || level >= depth) {
+          break;
+        }
+        children.add(expandAny(node, level + 1));
+      }
+      node.setChildren(children);
+      return node;
+    }
+
+    private String version() {
+      return random.nextInt(5)
+          + "."
+          + random.nextInt(20)
+          + "."
+          + random.nextInt(30)
+          + QUALIFIERS[random.nextInt(QUALIFIERS.length)];
+    }
+  }
+
+  private static Artifact newArtifact(String groupId, String artifactId, String version) {
+    return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", null, HANDLER);
+  }
+}
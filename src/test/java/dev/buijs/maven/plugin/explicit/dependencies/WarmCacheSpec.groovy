@@ -0,0 +1,92 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import spock.lang.Specification
+
+class WarmCacheSpec extends Specification {
+
+    def sut = new WarmCache<String>({ String value -> value.length() as long })
+
+    def "Verify a cached value is returned for the same key only"() {
+        when:
+        sut.put("pizza", "margherita", 10, 100)
+
+        then:
+        sut.get("pizza") == "margherita"
+        sut.get("burger") == null
+        sut.size() == 1
+        sut.estimatedBytes() == 10
+    }
+
+    def "Verify the least recently used entries are removed when there are too many"() {
+        given:
+        sut.put("pizza", "margherita", 2, 100)
+        sut.put("burger", "cheese", 2, 100)
+
+        when: "the pizza is used, so the burger is least recently used"
+        sut.get("pizza")
+        sut.put("fries", "salted", 2, 100)
+
+        then:
+        sut.get("pizza") == "margherita"
+        sut.get("burger") == null
+        sut.get("fries") == "salted"
+    }
+
+    def "Verify the least recently used entries are removed when the cache is too large"() {
+        given:
+        sut.put("pizza", "margherita", 10, 16)
+
+        when:
+        sut.put("burger", "cheeseburger", 10, 16)
+
+        then:
+        sut.get("pizza") == null
+        sut.get("burger") == "cheeseburger"
+        sut.estimatedBytes() == 12
+
+        when: "a value which never fits"
+        sut.put("fries", "a very large portion of fries", 10, 16)
+
+        then:
+        sut.get("fries") == null
+        sut.get("burger") == "cheeseburger"
+    }
+
+    def "Verify a value is replaced for the same key"() {
+        when:
+        sut.put("pizza", "margherita", 10, 100)
+        sut.put("pizza", "hawaii", 10, 100)
+
+        then:
+        sut.get("pizza") == "hawaii"
+        sut.size() == 1
+        sut.estimatedBytes() == 6
+
+        when:
+        sut.clear()
+
+        then:
+        sut.get("pizza") == null
+        sut.estimatedBytes() == 0
+    }
+}
@@ -0,0 +1,212 @@
+/* Copyright (c) 2021 - 2024 Buijs Software
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package dev.buijs.maven.plugin.explicit.dependencies
+
+import org.apache.maven.execution.MavenSession
+import org.apache.maven.execution.ProjectDependencyGraph
+import org.apache.maven.model.Dependency
+import org.apache.maven.plugin.logging.Log
+import org.apache.maven.project.MavenProject
+import org.apache.maven.project.ProjectBuilder
+import org.apache.maven.project.ProjectBuildingRequest
+import org.apache.maven.project.ProjectBuildingResult
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.logDirectory
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.module
+import static dev.buijs.maven.plugin.explicit.dependencies.ModuleFactory.rootNode
+
+class WatchPluginMojoSpec extends Specification {
+
+    def graphBuilder = Stub(DependencyGraphBuilder) {
+        it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { arguments ->
+            rootNode(arguments[0].project as MavenProject)
+        }
+    }
+
+    def "Verify only a changed module and its dependents are analyzed again"() {
+        given:
+        def pizza = module("pizza")
+        def burger = module("burger")
+        def fries = module("fries")
+        def fixedPizza = module("pizza")
+        fixedPizza.file = pizza.file
+        fixedPizza.build.directory = pizza.build.directory
+        fixedPizza.dependencies = [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        def log = Mock(Log)
+        def mojo = new WatchPluginMojo(
+                session: Stub(MavenSession) {
+                    it.projects >> [pizza, burger, fries]
+                    it.projectDependencyGraph >> Stub(ProjectDependencyGraph) {
+                        it.getDownstreamProjects(pizza, true) >> [burger]
+                    }
+                },
+                dependencyGraphBuilder: graphBuilder,
+                projectBuilder: Stub(ProjectBuilder) {
+                    it.build(pizza.file, _ as ProjectBuildingRequest) >> Stub(ProjectBuildingResult) {
+                        it.project >> fixedPizza
+                    }
+                },
+                threads: 2,
+                idleTimeout: 2)
+        mojo.log = log
+
+        when:
+        def watch = Thread.start { mojo.execute() }
+        [pizza, burger, fries].each { module ->
+            def verdict = logDirectory(module).resolve("dependenciesMissing.json")
+            while (!Files.exists(verdict)) {
+                sleep(10)
+            }
+        }
+        sleep(200)
+        Files.writeString(pizza.file.toPath(), "<project><artifactId>pizza</artifactId></project>")
+        watch.join(30_000)
+
+        then:
+        !watch.alive
+        1 * log.info("watching 3 poms for changes")
+        1 * log.info({ it.startsWith("my.favorite.food:pizza:1.0.0: dependency-tree is fully explicit") })
+        2 * log.warn({ it.startsWith("my.favorite.food:burger:1.0.0: missing explicit dependencies") })
+        1 * log.warn({ it.startsWith("my.favorite.food:pizza:1.0.0: missing explicit dependencies") })
+        1 * log.warn({ it.startsWith("my.favorite.food:fries:1.0.0: missing explicit dependencies") })
+        1 * log.info("[${pizza.file.toPath().toAbsolutePath().normalize()}] changed, analyzing 2 modules")
+        1 * log.info("no changes for 2 seconds, stopped watching")
+    }
+
+    def "Verify a module which inherits from a changed pom is built again"() {
+        given:
+        def menu = module("menu")
+        def pasta = module("pasta")
+        pasta.parent = menu
+        def fixedPasta = module("pasta")
+        fixedPasta.file = pasta.file
+        fixedPasta.build.directory = pasta.build.directory
+        fixedPasta.dependencies = [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        def log = Mock(Log)
+        def mojo = new WatchPluginMojo(
+                session: Stub(MavenSession) {
+                    it.projects >> [menu, pasta]
+                    it.projectDependencyGraph >> Stub(ProjectDependencyGraph)
+                },
+                dependencyGraphBuilder: graphBuilder,
+                projectBuilder: Stub(ProjectBuilder) {
+                    it.build(menu.file, _ as ProjectBuildingRequest) >> Stub(ProjectBuildingResult) {
+                        it.project >> menu
+                    }
+                    it.build(pasta.file, _ as ProjectBuildingRequest) >> Stub(ProjectBuildingResult) {
+                        it.project >> fixedPasta
+                    }
+                },
+                threads: 2,
+                idleTimeout: 2)
+        mojo.log = log
+
+        when:
+        def watch = Thread.start { mojo.execute() }
+        [menu, pasta].each { module ->
+            def verdict = logDirectory(module).resolve("dependenciesMissing.json")
+            while (!Files.exists(verdict)) {
+                sleep(10)
+            }
+        }
+        sleep(200)
+        Files.writeString(menu.file.toPath(), "<project><artifactId>menu</artifactId></project>")
+        watch.join(30_000)
+
+        then:
+        !watch.alive
+        1 * log.warn({ it.startsWith("my.favorite.food:pasta:1.0.0: missing explicit dependencies") })
+        1 * log.info({ it.startsWith("my.favorite.food:pasta:1.0.0: dependency-tree is fully explicit") })
+        1 * log.info("[${menu.file.toPath().toAbsolutePath().normalize()}] changed, analyzing 2 modules")
+    }
+
+    def "Verify a pom which is changed back gets its verdict from memory"() {
+        given:
+        WarmCache.VERDICTS.clear()
+        WarmCache.GRAPHS.clear()
+        def calzone = module("calzone")
+        def fixedCalzone = copy(calzone)
+        fixedCalzone.dependencies = [new Dependency(groupId: "foo.groupie", artifactId: "bar", version: "1.2.3")]
+        def resolutions = 0
+        def log = Mock(Log)
+        def mojo = new WatchPluginMojo(
+                session: Stub(MavenSession) {
+                    it.projects >> [calzone]
+                    it.projectDependencyGraph >> Stub(ProjectDependencyGraph)
+                },
+                dependencyGraphBuilder: Stub(DependencyGraphBuilder) {
+                    it.buildDependencyGraph(_ as ProjectBuildingRequest, null) >> { arguments ->
+                        resolutions++
+                        rootNode(arguments[0].project as MavenProject)
+                    }
+                },
+                projectBuilder: Stub(ProjectBuilder) {
+                    it.build(calzone.file, _ as ProjectBuildingRequest) >>> [
+                            Stub(ProjectBuildingResult) { it.project >> fixedCalzone },
+                            Stub(ProjectBuildingResult) { it.project >> copy(calzone) }]
+                },
+                threads: 1,
+                idleTimeout: 2,
+                warmCacheMaxEntries: 10,
+                warmCacheMaxSize: 1)
+        mojo.log = log
+        def verdict = logDirectory(calzone).resolve("dependenciesMissing.json")
+
+        when:
+        def watch = Thread.start { mojo.execute() }
+        awaitVerdict(verdict, true)
+        sleep(200)
+        Files.writeString(calzone.file.toPath(), "<project><artifactId>calzone</artifactId></project>")
+        awaitVerdict(verdict, false)
+        // Only the verdict may come from memory, the graph would be resolved again.
+        WarmCache.GRAPHS.clear()
+        sleep(200)
+        Files.writeString(calzone.file.toPath(), "<project>\n    <artifactId>calzone</artifactId>\n</project>\n")
+        awaitVerdict(verdict, true)
+        watch.join(30_000)
+
+        then:
+        !watch.alive
+        resolutions == 2
+        2 * log.warn({ it.startsWith("my.favorite.food:calzone:1.0.0: missing explicit dependencies") })
+        1 * log.info({ it.startsWith("my.favorite.food:calzone:1.0.0: dependency-tree is fully explicit") })
+    }
+
+    /** Wait until the verdict of a module is written and does (not) mention foo.groupie:bar. */
+    def static awaitVerdict(Path verdict, boolean missing) {
+        while (!Files.exists(verdict) || Files.readString(verdict).contains("bar") != missing) {
+            sleep(10)
+        }
+    }
+
+    /** Create the same module again, as the ProjectBuilder would from an unchanged pom. */
+    def static copy(MavenProject module) {
+        def copy = new MavenProject(groupId: module.groupId, artifactId: module.artifactId, version: module.version)
+        copy.file = module.file
+        copy.build.directory = module.build.directory
+        copy
+    }
+}